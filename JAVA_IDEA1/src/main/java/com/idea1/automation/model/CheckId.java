@@ -0,0 +1,58 @@
+package com.idea1.automation.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifies what a check looked at: a table, optionally a column, and optionally a JSON path inside that column.
+ * Ids are interned, so every row of every scenario checking the same column shares one instance.
+ */
+public final class CheckId {
+    private static final Map<String, Map<String, CheckId>> IDS = new ConcurrentHashMap<>();
+
+    private final String table;
+    private final String column;
+    private final String path;
+    private final Map<String, CheckId> children = new ConcurrentHashMap<>();
+    private volatile String label;
+
+    private CheckId(String table, String column, String path) {
+        this.table = table;
+        this.column = column;
+        this.path = path;
+    }
+
+    /** The id of a whole table, e.g. for persistence checks. */
+    public static CheckId of(String table) {
+        return of(table, "");
+    }
+
+    public static CheckId of(String table, String column) {
+        return IDS.computeIfAbsent(table, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(column, c -> new CheckId(table, c.isEmpty() ? null : c, null));
+    }
+
+    /** The id of a JSON path inside this column. */
+    public CheckId at(String path) {
+        return children.computeIfAbsent(path, p -> new CheckId(table, column, p));
+    }
+
+    public String getTable() { return table; }
+    public String getColumn() { return column; }
+    public String getPath() { return path; }
+
+    /** "column" or "column.path", as the report shows it. */
+    public String label() {
+        String l = label;
+        if (l == null) {
+            l = column == null ? "" : path == null ? column : column + "." + path;
+            label = l;
+        }
+        return l;
+    }
+
+    @Override
+    public String toString() {
+        return column == null ? table : table + "." + label();
+    }
+}
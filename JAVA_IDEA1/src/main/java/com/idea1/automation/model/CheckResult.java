@@ -0,0 +1,57 @@
+package com.idea1.automation.model;
+
+/**
+ * One row of a scenario's validation: what was checked, how it ended, and the raw expected and actual values.
+ * Values are only turned into text when a report is rendered.
+ */
+public record CheckResult(Kind kind, CheckId id, CheckStatus status, Object expected, Object actual) {
+
+    public enum Kind {
+        SCHEMA, PERSISTENCE, ROW_MATCH, COLUMN, JSON_PATH, NULL_CHECK, EXCEPTION_PERSISTENCE
+    }
+
+    public boolean isFailed() {
+        return status == CheckStatus.FAIL;
+    }
+
+    /** What the "Column" cell of the report shows. */
+    public String label() {
+        switch (kind) {
+            case PERSISTENCE: return "Persistence";
+            case ROW_MATCH: return "Row Match";
+            case EXCEPTION_PERSISTENCE: return "Exception Persistence";
+            default: return id.label();
+        }
+    }
+
+    public String expectedText() {
+        if (kind == Kind.EXCEPTION_PERSISTENCE) return "Expected NOT NULL";
+        return text(expected);
+    }
+
+    public String actualText() {
+        switch (kind) {
+            case PERSISTENCE: return actual + " rows found";
+            case EXCEPTION_PERSISTENCE: {
+                long count = ((Number) actual).longValue();
+                return "Found " + count + " exceptions (" + (count > 0 ? "NOT NULL" : "NULL") + ")";
+            }
+            default: return text(actual);
+        }
+    }
+
+    /** The defect description line for a failed check, or null for kinds that are not reported there. */
+    public String defectLine() {
+        if (!isFailed()) return null;
+        switch (kind) {
+            case PERSISTENCE: return String.format("- %s: Persistence expected %s but found %s rows", id.getTable(), expected, actual);
+            case COLUMN: return String.format("- %s.%s: Expected %s but got %s", id.getTable(), id.label(), expectedText(), actualText());
+            case EXCEPTION_PERSISTENCE: return String.format("- %s: Exception persistence check failed (expected not-null)", id.getTable());
+            default: return null;
+        }
+    }
+
+    private static String text(Object value) {
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,14 @@
+package com.idea1.automation.model;
+
+public enum CheckStatus {
+    PASS, FAIL, SKIP;
+
+    /** The CSS class the report uses for this status. */
+    public String cssClass() {
+        return name().toLowerCase();
+    }
+
+    public static CheckStatus of(boolean passed) {
+        return passed ? PASS : FAIL;
+    }
+}
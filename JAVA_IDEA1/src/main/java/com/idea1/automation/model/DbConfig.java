@@ -1,5 +1,8 @@
 package com.idea1.automation.model;
 
+import java.util.List;
+import java.util.Map;
+
 public class DbConfig {
     private String host;
     private int port;
@@ -10,9 +13,48 @@ public class DbConfig {
     private String eventHubConnectionString;
     private String eventHubName;
     private boolean enableCleanup = true;
+    private String cleanupMode = "all";
+    private boolean cleanupParallel = false;
+    private int cleanupBatchSize = 500;
+    private List<String> cleanupSeedStatements;
+    private boolean runIsolation = false;
+    private String runId;
     private boolean enableEventTrigger = true;
     private String jiraBaseUrl;
     private String jiraProjectKey;
+    private int concurrency = 1;
+    private long awaitTimeoutMs = 30000;
+    private Map<String, Long> awaitTableTimeoutsMs;
+    private long awaitInitialPollMs = 250;
+    private long awaitMaxPollMs = 4000;
+    private long awaitSettleMs = 0;
+    private long awaitNotPersistWaitMs = 10000;
+    private int poolMinSize = -1;
+    private int poolMaxSize = -1;
+    private long poolBorrowTimeoutMs = 30000;
+    private int poolValidationTimeoutSec = 5;
+    private boolean batchFetch = false;
+    private int batchChunkSize = 500;
+    private boolean pipelined = false;
+    private int pipelineWindow = 50;
+    private int pipelineValidationQueue = 16;
+    private boolean eventHubAsyncSend = false;
+    private int eventHubMaxInFlight = 100;
+    private long eventHubLingerMs = 0;
+    private String eventTransport = "eventhub";
+    private String httpEndpoint;
+    private long httpTimeoutMs = 30000;
+    private String transportFilePath = "reports/idea1_events.jsonl";
+    private String memoryConsumer;
+    private int memoryConsumerThreads = 1;
+    private int memoryQueueCapacity = 10000;
+    private long memoryDrainTimeoutMs = 60000;
+    private double compareDoubleTolerance = 0;
+    private String journalPath = "reports/idea1_journal.jsonl";
+    private int journalSyncEvery = 16;
+    private long journalSyncIntervalMs = 1000;
+    private boolean pgNotify = false;
+    private boolean pgNotifyKeepTriggers = false;
 
     public String getHost() { return host; }
     public void setHost(String host) { this.host = host; }
@@ -32,10 +74,88 @@ public class DbConfig {
     public void setEventHubName(String eventHubName) { this.eventHubName = eventHubName; }
     public boolean isEnableCleanup() { return enableCleanup; }
     public void setEnableCleanup(boolean enableCleanup) { this.enableCleanup = enableCleanup; }
+    public String getCleanupMode() { return cleanupMode; }
+    public void setCleanupMode(String cleanupMode) { this.cleanupMode = cleanupMode; }
+    public boolean isCleanupParallel() { return cleanupParallel; }
+    public void setCleanupParallel(boolean cleanupParallel) { this.cleanupParallel = cleanupParallel; }
+    public int getCleanupBatchSize() { return cleanupBatchSize; }
+    public void setCleanupBatchSize(int cleanupBatchSize) { this.cleanupBatchSize = cleanupBatchSize; }
+    public List<String> getCleanupSeedStatements() { return cleanupSeedStatements; }
+    public void setCleanupSeedStatements(List<String> cleanupSeedStatements) { this.cleanupSeedStatements = cleanupSeedStatements; }
+    public boolean isRunIsolation() { return runIsolation; }
+    public void setRunIsolation(boolean runIsolation) { this.runIsolation = runIsolation; }
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
     public boolean isEnableEventTrigger() { return enableEventTrigger; }
     public void setEnableEventTrigger(boolean enableEventTrigger) { this.enableEventTrigger = enableEventTrigger; }
     public String getJiraBaseUrl() { return jiraBaseUrl; }
     public void setJiraBaseUrl(String jiraBaseUrl) { this.jiraBaseUrl = jiraBaseUrl; }
     public String getJiraProjectKey() { return jiraProjectKey; }
     public void setJiraProjectKey(String jiraProjectKey) { this.jiraProjectKey = jiraProjectKey; }
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+    public long getAwaitTimeoutMs() { return awaitTimeoutMs; }
+    public void setAwaitTimeoutMs(long awaitTimeoutMs) { this.awaitTimeoutMs = awaitTimeoutMs; }
+    public Map<String, Long> getAwaitTableTimeoutsMs() { return awaitTableTimeoutsMs; }
+    public void setAwaitTableTimeoutsMs(Map<String, Long> awaitTableTimeoutsMs) { this.awaitTableTimeoutsMs = awaitTableTimeoutsMs; }
+    public long getAwaitInitialPollMs() { return awaitInitialPollMs; }
+    public void setAwaitInitialPollMs(long awaitInitialPollMs) { this.awaitInitialPollMs = awaitInitialPollMs; }
+    public long getAwaitMaxPollMs() { return awaitMaxPollMs; }
+    public void setAwaitMaxPollMs(long awaitMaxPollMs) { this.awaitMaxPollMs = awaitMaxPollMs; }
+    public long getAwaitSettleMs() { return awaitSettleMs; }
+    public void setAwaitSettleMs(long awaitSettleMs) { this.awaitSettleMs = awaitSettleMs; }
+    public long getAwaitNotPersistWaitMs() { return awaitNotPersistWaitMs; }
+    public void setAwaitNotPersistWaitMs(long awaitNotPersistWaitMs) { this.awaitNotPersistWaitMs = awaitNotPersistWaitMs; }
+    public int getPoolMinSize() { return poolMinSize; }
+    public void setPoolMinSize(int poolMinSize) { this.poolMinSize = poolMinSize; }
+    public int getPoolMaxSize() { return poolMaxSize; }
+    public void setPoolMaxSize(int poolMaxSize) { this.poolMaxSize = poolMaxSize; }
+    public long getPoolBorrowTimeoutMs() { return poolBorrowTimeoutMs; }
+    public void setPoolBorrowTimeoutMs(long poolBorrowTimeoutMs) { this.poolBorrowTimeoutMs = poolBorrowTimeoutMs; }
+    public int getPoolValidationTimeoutSec() { return poolValidationTimeoutSec; }
+    public void setPoolValidationTimeoutSec(int poolValidationTimeoutSec) { this.poolValidationTimeoutSec = poolValidationTimeoutSec; }
+    public boolean isBatchFetch() { return batchFetch; }
+    public void setBatchFetch(boolean batchFetch) { this.batchFetch = batchFetch; }
+    public int getBatchChunkSize() { return batchChunkSize; }
+    public void setBatchChunkSize(int batchChunkSize) { this.batchChunkSize = batchChunkSize; }
+    public boolean isEventHubAsyncSend() { return eventHubAsyncSend; }
+    public void setEventHubAsyncSend(boolean eventHubAsyncSend) { this.eventHubAsyncSend = eventHubAsyncSend; }
+    public int getEventHubMaxInFlight() { return eventHubMaxInFlight; }
+    public void setEventHubMaxInFlight(int eventHubMaxInFlight) { this.eventHubMaxInFlight = eventHubMaxInFlight; }
+    public long getEventHubLingerMs() { return eventHubLingerMs; }
+    public void setEventHubLingerMs(long eventHubLingerMs) { this.eventHubLingerMs = eventHubLingerMs; }
+    public String getEventTransport() { return eventTransport; }
+    public void setEventTransport(String eventTransport) { this.eventTransport = eventTransport; }
+    public String getHttpEndpoint() { return httpEndpoint; }
+    public void setHttpEndpoint(String httpEndpoint) { this.httpEndpoint = httpEndpoint; }
+    public long getHttpTimeoutMs() { return httpTimeoutMs; }
+    public void setHttpTimeoutMs(long httpTimeoutMs) { this.httpTimeoutMs = httpTimeoutMs; }
+    public String getTransportFilePath() { return transportFilePath; }
+    public void setTransportFilePath(String transportFilePath) { this.transportFilePath = transportFilePath; }
+    public String getMemoryConsumer() { return memoryConsumer; }
+    public void setMemoryConsumer(String memoryConsumer) { this.memoryConsumer = memoryConsumer; }
+    public int getMemoryConsumerThreads() { return memoryConsumerThreads; }
+    public void setMemoryConsumerThreads(int memoryConsumerThreads) { this.memoryConsumerThreads = memoryConsumerThreads; }
+    public int getMemoryQueueCapacity() { return memoryQueueCapacity; }
+    public void setMemoryQueueCapacity(int memoryQueueCapacity) { this.memoryQueueCapacity = memoryQueueCapacity; }
+    public long getMemoryDrainTimeoutMs() { return memoryDrainTimeoutMs; }
+    public void setMemoryDrainTimeoutMs(long memoryDrainTimeoutMs) { this.memoryDrainTimeoutMs = memoryDrainTimeoutMs; }
+    public double getCompareDoubleTolerance() { return compareDoubleTolerance; }
+    public void setCompareDoubleTolerance(double compareDoubleTolerance) { this.compareDoubleTolerance = compareDoubleTolerance; }
+    public String getJournalPath() { return journalPath; }
+    public void setJournalPath(String journalPath) { this.journalPath = journalPath; }
+    public int getJournalSyncEvery() { return journalSyncEvery; }
+    public void setJournalSyncEvery(int journalSyncEvery) { this.journalSyncEvery = journalSyncEvery; }
+    public long getJournalSyncIntervalMs() { return journalSyncIntervalMs; }
+    public void setJournalSyncIntervalMs(long journalSyncIntervalMs) { this.journalSyncIntervalMs = journalSyncIntervalMs; }
+    public boolean isPgNotify() { return pgNotify; }
+    public void setPgNotify(boolean pgNotify) { this.pgNotify = pgNotify; }
+    public boolean isPgNotifyKeepTriggers() { return pgNotifyKeepTriggers; }
+    public void setPgNotifyKeepTriggers(boolean pgNotifyKeepTriggers) { this.pgNotifyKeepTriggers = pgNotifyKeepTriggers; }
+    public boolean isPipelined() { return pipelined; }
+    public void setPipelined(boolean pipelined) { this.pipelined = pipelined; }
+    public int getPipelineWindow() { return pipelineWindow; }
+    public void setPipelineWindow(int pipelineWindow) { this.pipelineWindow = pipelineWindow; }
+    public int getPipelineValidationQueue() { return pipelineValidationQueue; }
+    public void setPipelineValidationQueue(int pipelineValidationQueue) { this.pipelineValidationQueue = pipelineValidationQueue; }
 }
@@ -1,5 +1,7 @@
 package com.idea1.automation.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
 import java.util.Map;
 
@@ -7,12 +9,19 @@ public class EventPayload {
     private String test_case_id;
     private String scenario_name;
     private String event_type;
+    private List<String> tags;
     private Map<String, Object> lookup_ids;
     private Object event_payload;
     private List<String> expected_tables;
     private List<String> check_exception_persistence;
     private Map<String, String> table_expectations;
     private Map<String, List<RetryExpectation>> retry_expectations;
+    // Set when an isolated run namespaces lookup_ids: the ids as the scenario file wrote them
+    @JsonIgnore
+    private Map<String, Object> written_lookup_ids;
+    // Set by PayloadStream: the scenario's place in its payload file, which numbers {{SEQ}}; -1 when unknown
+    @JsonIgnore
+    private int file_position = -1;
 
     public String getTest_case_id() { return test_case_id; }
     public void setTest_case_id(String test_case_id) { this.test_case_id = test_case_id; }
@@ -20,6 +29,8 @@ public class EventPayload {
     public void setScenario_name(String scenario_name) { this.scenario_name = scenario_name; }
     public String getEvent_type() { return event_type; }
     public void setEvent_type(String event_type) { this.event_type = event_type; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
     public Map<String, Object> getLookup_ids() { return lookup_ids; }
     public void setLookup_ids(Map<String, Object> lookup_ids) { this.lookup_ids = lookup_ids; }
     public Object getEvent_payload() { return event_payload; }
@@ -32,6 +43,10 @@ public class EventPayload {
     public void setTable_expectations(Map<String, String> table_expectations) { this.table_expectations = table_expectations; }
     public Map<String, List<RetryExpectation>> getRetry_expectations() { return retry_expectations; }
     public void setRetry_expectations(Map<String, List<RetryExpectation>> retry_expectations) { this.retry_expectations = retry_expectations; }
+    public Map<String, Object> getWritten_lookup_ids() { return written_lookup_ids; }
+    public void setWritten_lookup_ids(Map<String, Object> written_lookup_ids) { this.written_lookup_ids = written_lookup_ids; }
+    public int getFile_position() { return file_position; }
+    public void setFile_position(int file_position) { this.file_position = file_position; }
 
     public static class RetryExpectation {
         private String operation;
@@ -0,0 +1,16 @@
+package com.idea1.automation.model;
+
+/**
+ * A difference found by one of the ValidationUtils comparisons. path is a JSON path, a column, a constraint
+ * or an operation depending on the check; error is set instead of the values when the comparison itself failed.
+ */
+public record Mismatch(String path, Object expected, Object actual, String error) {
+
+    public Mismatch(String path, Object expected, Object actual) {
+        this(path, expected, actual, null);
+    }
+
+    public static Mismatch error(String path, String error) {
+        return new Mismatch(path, null, null, error);
+    }
+}
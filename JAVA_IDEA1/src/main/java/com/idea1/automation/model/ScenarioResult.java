@@ -0,0 +1,68 @@
+package com.idea1.automation.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a scenario produced, kept as data: the trigger outcome, the wait, and one CheckResult per
+ * validation row. The HTML, JSON and JUnit outputs are all rendered from it.
+ */
+public class ScenarioResult {
+    private int index;
+    private String test_case_id;
+    private String scenario_name;
+    private String event_type;
+    private boolean failed;
+    private CheckStatus triggerStatus;
+    private String triggerMessage;
+    private long waitedMs = -1;
+    private List<String> timedOutTables = Collections.emptyList();
+    private final List<CheckResult> checks = new ArrayList<>();
+    private String abortMessage;
+    private List<String> failureSummary = new ArrayList<>();
+    private long durationMs;
+    private long timeToPersistMs = -1;
+    private final Map<String, Double> phaseMs = new LinkedHashMap<>();
+
+    public void addCheck(CheckResult check) {
+        checks.add(check);
+        if (check.isFailed()) failed = true;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public String getTest_case_id() { return test_case_id; }
+    public void setTest_case_id(String test_case_id) { this.test_case_id = test_case_id; }
+    public String getScenario_name() { return scenario_name; }
+    public void setScenario_name(String scenario_name) { this.scenario_name = scenario_name; }
+    public String getEvent_type() { return event_type; }
+    public void setEvent_type(String event_type) { this.event_type = event_type; }
+    public boolean isFailed() { return failed; }
+    public void setFailed(boolean failed) { this.failed = failed; }
+    /** PASS when the event went out, FAIL when sending failed, SKIP when triggering is disabled; null if the scenario aborted first. */
+    public CheckStatus getTriggerStatus() { return triggerStatus; }
+    public void setTriggerStatus(CheckStatus triggerStatus) { this.triggerStatus = triggerStatus; }
+    public String getTriggerMessage() { return triggerMessage; }
+    public void setTriggerMessage(String triggerMessage) { this.triggerMessage = triggerMessage; }
+    /** How long persistence was awaited, or -1 when there was no wait. */
+    public long getWaitedMs() { return waitedMs; }
+    public void setWaitedMs(long waitedMs) { this.waitedMs = waitedMs; }
+    public List<String> getTimedOutTables() { return timedOutTables; }
+    public void setTimedOutTables(List<String> timedOutTables) { this.timedOutTables = timedOutTables; }
+    public List<CheckResult> getChecks() { return checks; }
+    /** Set when the scenario was aborted by an unexpected error; the checks are then incomplete. */
+    public String getAbortMessage() { return abortMessage; }
+    public void setAbortMessage(String abortMessage) { this.abortMessage = abortMessage; }
+    public List<String> getFailureSummary() { return failureSummary; }
+    public void setFailureSummary(List<String> failureSummary) { this.failureSummary = failureSummary; }
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+    public long getTimeToPersistMs() { return timeToPersistMs; }
+    public void setTimeToPersistMs(long timeToPersistMs) { this.timeToPersistMs = timeToPersistMs; }
+    /** Time this scenario spent per phase (see PhaseMetrics), summed over its tables. */
+    public Map<String, Double> getPhaseMs() { return phaseMs; }
+    public void addPhaseMs(String phase, double ms) { phaseMs.merge(phase, ms, Double::sum); }
+}
@@ -0,0 +1,64 @@
+package com.idea1.automation.model;
+
+import java.util.List;
+
+/**
+ * What a sharded run leaves next to its journal for the merge: which shard it was, its totals and wall clock,
+ * the file names of its journal and report, and the --cases/--tag/--order-id selection it ran (null lists when it
+ * ran every scenario it owns). Written as reports/idea1_shard-i-of-N.json when the shard finishes.
+ */
+public class ShardManifest {
+    private int shard_index;
+    private int shard_count;
+    private int scenarios;
+    private int passed;
+    private int failed;
+    private long wall_clock_ms;
+    private long serial_ms;
+    private int concurrency;
+    private String transport;
+    private double events_per_second;
+    private String payloads;
+    private String journal;
+    private String report;
+    private long finished_at;
+    private List<String> cases;
+    private List<String> tags;
+    private List<String> order_ids;
+
+    public int getShard_index() { return shard_index; }
+    public void setShard_index(int shard_index) { this.shard_index = shard_index; }
+    public int getShard_count() { return shard_count; }
+    public void setShard_count(int shard_count) { this.shard_count = shard_count; }
+    public int getScenarios() { return scenarios; }
+    public void setScenarios(int scenarios) { this.scenarios = scenarios; }
+    public int getPassed() { return passed; }
+    public void setPassed(int passed) { this.passed = passed; }
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    public long getWall_clock_ms() { return wall_clock_ms; }
+    public void setWall_clock_ms(long wall_clock_ms) { this.wall_clock_ms = wall_clock_ms; }
+    public long getSerial_ms() { return serial_ms; }
+    public void setSerial_ms(long serial_ms) { this.serial_ms = serial_ms; }
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+    public String getTransport() { return transport; }
+    public void setTransport(String transport) { this.transport = transport; }
+    public double getEvents_per_second() { return events_per_second; }
+    public void setEvents_per_second(double events_per_second) { this.events_per_second = events_per_second; }
+    public String getPayloads() { return payloads; }
+    public void setPayloads(String payloads) { this.payloads = payloads; }
+    /** File name of the shard's journal, looked up next to the manifest. */
+    public String getJournal() { return journal; }
+    public void setJournal(String journal) { this.journal = journal; }
+    public String getReport() { return report; }
+    public void setReport(String report) { this.report = report; }
+    public long getFinished_at() { return finished_at; }
+    public void setFinished_at(long finished_at) { this.finished_at = finished_at; }
+    public List<String> getCases() { return cases; }
+    public void setCases(List<String> cases) { this.cases = cases; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
+    public List<String> getOrder_ids() { return order_ids; }
+    public void setOrder_ids(List<String> order_ids) { this.order_ids = order_ids; }
+}
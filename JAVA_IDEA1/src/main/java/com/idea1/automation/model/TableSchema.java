@@ -13,6 +13,7 @@ public class TableSchema {
     private Map<String, SemanticRule> semantic_rules;
     private String table_expectation;
     private Map<String, String> null_presence_check;
+    private Boolean cleanup;
 
     public String getPrimary_lookup() { return primary_lookup; }
     public void setPrimary_lookup(String primary_lookup) { this.primary_lookup = primary_lookup; }
@@ -32,6 +33,9 @@ public class TableSchema {
     public void setTable_expectation(String table_expectation) { this.table_expectation = table_expectation; }
     public Map<String, String> getNull_presence_check() { return null_presence_check; }
     public void setNull_presence_check(Map<String, String> null_presence_check) { this.null_presence_check = null_presence_check; }
+    /** False keeps the table out of the pre-test cleanup; unset means cleaned. */
+    public Boolean getCleanup() { return cleanup; }
+    public void setCleanup(Boolean cleanup) { this.cleanup = cleanup; }
 
     public static class JsonColumnConfig {
         private List<String> required;
@@ -0,0 +1,232 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.TableSchema;
+import com.idea1.automation.utils.DbUtils;
+import com.idea1.automation.utils.PgRowNotifier;
+import com.idea1.automation.utils.TableResolver;
+import com.idea1.automation.utils.ValidationUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch mode counterpart of PersistenceAwaiter and the per-scenario fetch: every poll and the final prefetch
+ * issue one query per table for all scenarios of a wave instead of one query per scenario and table.
+ */
+class BatchFetcher {
+    private final DbConfig config;
+    private final Map<String, TableSchema> schemas;
+    private final TableResolver resolver;
+    private final PersistenceAwaiter awaiter;
+
+    BatchFetcher(DbConfig config, Map<String, TableSchema> schemas, TableResolver resolver, PersistenceAwaiter awaiter) {
+        this.config = config;
+        this.schemas = schemas;
+        this.resolver = resolver;
+        this.awaiter = awaiter;
+    }
+
+    /**
+     * Waits until every triggered scenario's PERSIST tables show rows or reach their deadlines, polling all
+     * outstanding lookup values of a table in one query. Deadlines run from each scenario's own trigger time.
+     * The settle window is not applied here; a table counts as persisted on the first poll that sees rows.
+     */
+    void await(Connection conn, List<ScenarioRun> runs, ScenarioExecutor executor) throws InterruptedException {
+        List<Watch> pending = new ArrayList<>();
+        Map<ScenarioRun, RunAwait> states = new LinkedHashMap<>();
+        for (ScenarioRun run : runs) {
+            if (run.triggeredAtNanos == 0) continue;
+            RunAwait state = new RunAwait(run);
+            states.put(run, state);
+            for (Map.Entry<String, String> e : ValidationUtils.resolveTableExpectations(run.payload).entrySet()) {
+                TableSchema schema = schemas.get(e.getKey());
+                if ("PERSIST".equals(e.getValue()) && schema != null) {
+                    Object value = run.payload.getLookup_ids() != null ? run.payload.getLookup_ids().get(schema.getPrimary_lookup()) : null;
+                    pending.add(new Watch(state, e.getKey(), schema, value, awaiter.timeoutFor(e.getKey())));
+                    state.open++;
+                } else if ("NOT_PERSIST".equals(e.getValue())) {
+                    state.awaitsAbsence = true;
+                }
+            }
+        }
+
+        // With row notifications any arrival in the wave cuts the sleep short
+        Semaphore arrived = new Semaphore(0);
+        List<PgRowNotifier.Subscription> subscriptions = new ArrayList<>();
+        PgRowNotifier notifier = awaiter.getNotifier();
+        if (notifier != null && notifier.isRunning()) {
+            for (Watch w : pending) {
+                if (w.value != null && notifier.watches(w.table)) {
+                    subscriptions.add(notifier.subscribe(w.table, w.value, arrived::release));
+                }
+            }
+        }
+        try {
+            poll(conn, pending, states, arrived, !subscriptions.isEmpty());
+        } finally {
+            subscriptions.forEach(PgRowNotifier.Subscription::close);
+        }
+
+        for (RunAwait state : states.values()) {
+            long timeToPersist = state.persistedAtMs.isEmpty() ? -1 : Collections.max(state.persistedAtMs.values());
+            executor.recordAwait(state.run, state.finishedMs, timeToPersist, state.timedOut);
+        }
+    }
+
+    private void poll(Connection conn, List<Watch> pending, Map<ScenarioRun, RunAwait> states, Semaphore arrived, boolean notified)
+            throws InterruptedException {
+        long delay = awaiter.initialPollMs(notified);
+        Set<String> failing = new HashSet<>();
+        while (true) {
+            Map<String, List<Watch>> byTable = new LinkedHashMap<>();
+            for (Watch w : pending) {
+                byTable.computeIfAbsent(w.table, k -> new ArrayList<>()).add(w);
+            }
+            for (Map.Entry<String, List<Watch>> e : byTable.entrySet()) {
+                List<Object> values = new ArrayList<>();
+                for (Watch w : e.getValue()) values.add(w.value);
+                Map<String, List<Map<String, Object>>> found;
+                try {
+                    found = fetch(conn, e.getKey(), e.getValue().get(0).schema, values, false);
+                } catch (SQLException ex) {
+                    // Polled as empty, so its scenarios time out on this table as a per-scenario poll would
+                    if (failing.add(e.getKey())) {
+                        System.err.println("   [BATCH] Polling " + e.getKey() + " failed, treating it as empty: " + ex.getMessage());
+                    }
+                    found = Collections.emptyMap();
+                }
+                for (Watch w : e.getValue()) {
+                    long now = w.state.elapsedMs();
+                    if (w.value != null && found.containsKey(DbUtils.batchKey(w.value))) {
+                        w.state.persistedAtMs.putIfAbsent(w.table, now);
+                        w.done = true;
+                    } else if (now >= w.timeoutMs) {
+                        w.state.timedOut.add(w.table);
+                        w.done = true;
+                    }
+                    if (w.done) w.state.open--;
+                }
+            }
+            pending.removeIf(w -> w.done);
+
+            long sleep = Long.MAX_VALUE;
+            boolean waiting = !pending.isEmpty();
+            for (RunAwait state : states.values()) {
+                if (state.finishedMs >= 0) continue;
+                if (state.open > 0) continue;
+                long now = state.elapsedMs();
+                if (state.awaitsAbsence && now < config.getAwaitNotPersistWaitMs()) {
+                    // Absence can only be confirmed by waiting, as in the per-scenario awaiter
+                    sleep = Math.min(sleep, config.getAwaitNotPersistWaitMs() - now);
+                    waiting = true;
+                    continue;
+                }
+                state.finishedMs = now;
+            }
+            for (Watch w : pending) {
+                sleep = Math.min(sleep, w.timeoutMs - w.state.elapsedMs());
+            }
+            if (!waiting) break;
+
+            sleep = Math.max(0, Math.min(delay, sleep));
+            if (sleep > 0) {
+                if (!notified) {
+                    Thread.sleep(sleep);
+                } else if (arrived.tryAcquire(sleep, TimeUnit.MILLISECONDS)) {
+                    arrived.drainPermits();
+                }
+            }
+            delay = Math.min(delay * 2, Math.max(1, config.getAwaitMaxPollMs()));
+        }
+    }
+
+    /**
+     * Loads every expected table of the wave with one query per table (chunked by batchChunkSize). A table whose
+     * query fails is left out of the source, so each scenario queries it on its own and only fails itself.
+     */
+    BatchRowSource prefetch(Connection conn, List<ScenarioRun> runs) {
+        Map<String, List<Object>> valuesByTable = new LinkedHashMap<>();
+        for (ScenarioRun run : runs) {
+            for (String table : ValidationUtils.resolveTableExpectations(run.payload).keySet()) {
+                TableSchema schema = schemas.get(table);
+                if (schema == null || run.payload.getLookup_ids() == null) continue;
+                valuesByTable.computeIfAbsent(table, k -> new ArrayList<>()).add(run.payload.getLookup_ids().get(schema.getPrimary_lookup()));
+            }
+        }
+
+        BatchRowSource source = new BatchRowSource();
+        for (Map.Entry<String, List<Object>> e : valuesByTable.entrySet()) {
+            long start = System.nanoTime();
+            Map<String, List<Map<String, Object>>> rows;
+            try {
+                rows = fetch(conn, e.getKey(), schemas.get(e.getKey()), e.getValue(), true);
+            } catch (SQLException ex) {
+                System.err.println("   [BATCH] Prefetch of " + e.getKey() + " failed, scenarios will query it themselves: " + ex.getMessage());
+                continue;
+            }
+            source.put(e.getKey(), rows);
+            System.out.printf("   [BATCH] %s: %d lookup value(s), %d matched, %d ms%n",
+                    e.getKey(), e.getValue().size(), rows.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return source;
+    }
+
+    private Map<String, List<Map<String, Object>>> fetch(Connection conn, String table, TableSchema schema, List<Object> values, boolean verbose) throws SQLException {
+        String lookup = schema.getPrimary_lookup();
+        String physical = resolver.resolve(table);
+        if (physical != null) {
+            return DbUtils.fetchRowsBatch(conn, table, physical, lookup, values, schema, config.getBatchChunkSize());
+        }
+        Map<String, List<Map<String, Object>>> rows = new HashMap<>();
+        if (resolver.isAvailable()) {
+            // The table does not exist; every scenario sees it as empty
+            return rows;
+        }
+        // Without metadata the physical name is unknown, so keep the per-value candidate probing
+        for (Object value : new LinkedHashSet<>(values)) {
+            if (value == null) continue;
+            List<Map<String, Object>> found = DbUtils.fetchRows(conn, resolver, table, lookup, value, schema, verbose);
+            if (!found.isEmpty()) rows.put(DbUtils.batchKey(value), found);
+        }
+        return rows;
+    }
+
+    private static class RunAwait {
+        final ScenarioRun run;
+        final Map<String, Long> persistedAtMs = new LinkedHashMap<>();
+        final List<String> timedOut = new ArrayList<>();
+        int open;
+        boolean awaitsAbsence;
+        long finishedMs = -1;
+
+        RunAwait(ScenarioRun run) {
+            this.run = run;
+        }
+
+        long elapsedMs() {
+            return (System.nanoTime() - run.triggeredAtNanos) / 1_000_000;
+        }
+    }
+
+    private static class Watch {
+        final RunAwait state;
+        final String table;
+        final TableSchema schema;
+        final Object value;
+        final long timeoutMs;
+        boolean done;
+
+        Watch(RunAwait state, String table, TableSchema schema, Object value, long timeoutMs) {
+            this.state = state;
+            this.table = table;
+            this.schema = schema;
+            this.value = value;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.utils.DbUtils;
+
+import java.util.*;
+
+/**
+ * Rows prefetched for a group of scenarios, one query per table, partitioned by lookup value.
+ * Read-only once built, so validation workers can share it.
+ */
+public class BatchRowSource {
+    private final Map<String, Map<String, List<Map<String, Object>>>> rowsByTable = new HashMap<>();
+
+    void put(String table, Map<String, List<Map<String, Object>>> rowsByKey) {
+        rowsByTable.put(table, rowsByKey);
+    }
+
+    /** True when the table was prefetched; otherwise the caller falls back to a per-scenario query. */
+    public boolean covers(String table) {
+        return rowsByTable.containsKey(table);
+    }
+
+    /** A fresh copy of the rows for one lookup value, empty when the value has no rows. */
+    public List<Map<String, Object>> rows(String table, Object lookupValue) {
+        Map<String, List<Map<String, Object>>> byKey = rowsByTable.get(table);
+        if (byKey == null || lookupValue == null) return new ArrayList<>();
+        return new ArrayList<>(byKey.getOrDefault(DbUtils.batchKey(lookupValue), Collections.emptyList()));
+    }
+}
@@ -0,0 +1,219 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.TableSchema;
+import com.idea1.automation.utils.DbUtils;
+import com.idea1.automation.utils.PgRowNotifier;
+import com.idea1.automation.utils.TableResolver;
+import com.idea1.automation.utils.ValidationUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for a triggered event to land in the database instead of sleeping for a fixed time.
+ * Every PERSIST table is polled with exponential backoff until it has rows (and, with a settle window,
+ * until the row set stops changing) or until its own deadline passes.
+ * With a PgRowNotifier, a NOTIFY for the scenario's lookup value triggers the next poll at once and the
+ * backoff only serves as a slow fallback. A scenario with any NOT_PERSIST table also waits out
+ * awaitNotPersistWaitMs, so a row written late is still there to fail it. All times run from the confirmed send.
+ */
+public class PersistenceAwaiter {
+    private final DbConfig config;
+    private final Map<String, TableSchema> schemas;
+    private final TableResolver resolver;
+    private final PgRowNotifier notifier;
+
+    public PersistenceAwaiter(DbConfig config, Map<String, TableSchema> schemas, TableResolver resolver, PgRowNotifier notifier) {
+        this.config = config;
+        this.schemas = schemas;
+        this.resolver = resolver;
+        this.notifier = notifier;
+    }
+
+    public PgRowNotifier getNotifier() { return notifier; }
+
+    /** Blocks until the scenario's expected rows are present or every table has timed out. */
+    public AwaitResult await(Connection conn, EventPayload payload, long triggeredAtNanos) throws SQLException, InterruptedException {
+        AwaitState state = start(payload, triggeredAtNanos);
+        Semaphore arrived = new Semaphore(0);
+        // Subscribe before the first poll so a row landing in between still wakes us
+        List<PgRowNotifier.Subscription> subscriptions = state.subscribe(arrived::release);
+        try {
+            long delay = initialPollMs(!subscriptions.isEmpty());
+            while (!state.poll(conn)) {
+                long sleep = Math.min(delay, state.millisUntilNextDeadline());
+                if (sleep > 0) {
+                    if (subscriptions.isEmpty()) {
+                        Thread.sleep(sleep);
+                    } else if (arrived.tryAcquire(sleep, TimeUnit.MILLISECONDS)) {
+                        arrived.drainPermits();
+                    }
+                }
+                delay = Math.min(delay * 2, Math.max(1, config.getAwaitMaxPollMs()));
+            }
+            return state.result();
+        } finally {
+            subscriptions.forEach(PgRowNotifier.Subscription::close);
+        }
+    }
+
+    /** First backoff step: the configured initial poll, or straight to the slow fallback when notifications drive the polls. */
+    public long initialPollMs(boolean notified) {
+        return Math.max(1, notified ? config.getAwaitMaxPollMs() : config.getAwaitInitialPollMs());
+    }
+
+    /**
+     * The await state of a scenario whose send was confirmed at triggeredAtNanos (System.nanoTime; 0 means now).
+     * Callers that manage their own scheduling poll the returned state.
+     */
+    public AwaitState start(EventPayload payload, long triggeredAtNanos) {
+        return new AwaitState(payload, triggeredAtNanos != 0 ? triggeredAtNanos : System.nanoTime());
+    }
+
+    /** Deadline for a table, measured from the trigger: its own override or the global await timeout. */
+    public long timeoutFor(String table) {
+        Map<String, Long> overrides = config.getAwaitTableTimeoutsMs();
+        if (overrides != null && overrides.containsKey(table)) {
+            return overrides.get(table);
+        }
+        return config.getAwaitTimeoutMs();
+    }
+
+    public class AwaitState {
+        private final EventPayload payload;
+        private final long startNanos;
+        private final Map<String, TableWatch> pending = new LinkedHashMap<>();
+        private final Map<String, Long> persistedAtMs = new LinkedHashMap<>();
+        private final List<String> timedOut = new ArrayList<>();
+        private final boolean awaitsAbsence;
+
+        private AwaitState(EventPayload payload, long startNanos) {
+            this.payload = payload;
+            this.startNanos = startNanos;
+            boolean anyNegative = false;
+            for (Map.Entry<String, String> e : ValidationUtils.resolveTableExpectations(payload).entrySet()) {
+                TableSchema schema = schemas.get(e.getKey());
+                if ("PERSIST".equals(e.getValue()) && schema != null) {
+                    pending.put(e.getKey(), new TableWatch(schema, timeoutFor(e.getKey())));
+                } else if ("NOT_PERSIST".equals(e.getValue())) {
+                    anyNegative = true;
+                }
+            }
+            // Absence can only be confirmed by waiting: rows arriving for the PERSIST tables say nothing about the others
+            this.awaitsAbsence = anyNegative;
+        }
+
+        public EventPayload getPayload() { return payload; }
+
+        /**
+         * Registers onRow for every pending table the notifier announces. Empty when there is no (live) notifier,
+         * in which case the caller keeps its normal backoff.
+         */
+        public List<PgRowNotifier.Subscription> subscribe(Runnable onRow) {
+            if (notifier == null || !notifier.isRunning()) return Collections.emptyList();
+            List<PgRowNotifier.Subscription> subscriptions = new ArrayList<>();
+            for (Map.Entry<String, TableWatch> e : pending.entrySet()) {
+                if (!notifier.watches(e.getKey())) continue;
+                Object lookupValue = payload.getLookup_ids() != null ? payload.getLookup_ids().get(e.getValue().schema.getPrimary_lookup()) : null;
+                if (lookupValue != null) {
+                    subscriptions.add(notifier.subscribe(e.getKey(), lookupValue, onRow));
+                }
+            }
+            return subscriptions;
+        }
+
+        /** Checks every pending table once. Returns true when nothing is left to wait for. */
+        public boolean poll(Connection conn) throws SQLException {
+            Iterator<Map.Entry<String, TableWatch>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, TableWatch> entry = it.next();
+                String table = entry.getKey();
+                TableWatch watch = entry.getValue();
+                long now = elapsedMs();
+
+                String lookup = watch.schema.getPrimary_lookup();
+                Object lookupValue = payload.getLookup_ids() != null ? payload.getLookup_ids().get(lookup) : null;
+                List<Map<String, Object>> rows = DbUtils.fetchRows(conn, resolver, table, lookup, lookupValue, watch.schema, false);
+
+                if (!rows.isEmpty()) {
+                    persistedAtMs.putIfAbsent(table, now);
+                    if (config.getAwaitSettleMs() <= 0) {
+                        it.remove();
+                        continue;
+                    }
+                    int fingerprint = rows.hashCode();
+                    if (watch.stableSinceMs < 0 || fingerprint != watch.fingerprint) {
+                        watch.fingerprint = fingerprint;
+                        watch.stableSinceMs = now;
+                    } else if (now - watch.stableSinceMs >= config.getAwaitSettleMs()) {
+                        it.remove();
+                        continue;
+                    }
+                }
+                if (now >= watch.timeoutMs) {
+                    if (!persistedAtMs.containsKey(table)) {
+                        timedOut.add(table);
+                    }
+                    it.remove();
+                }
+            }
+            return pending.isEmpty() && (!awaitsAbsence || elapsedMs() >= config.getAwaitNotPersistWaitMs());
+        }
+
+        /** Upper bound for the next sleep so no table overshoots its deadline or settle window. */
+        public long millisUntilNextDeadline() {
+            long now = elapsedMs();
+            long next = awaitsAbsence && now < config.getAwaitNotPersistWaitMs() ? config.getAwaitNotPersistWaitMs() - now : Long.MAX_VALUE;
+            for (TableWatch watch : pending.values()) {
+                next = Math.min(next, watch.timeoutMs - now);
+                if (watch.stableSinceMs >= 0) {
+                    next = Math.min(next, watch.stableSinceMs + config.getAwaitSettleMs() - now);
+                }
+            }
+            return Math.max(0, next);
+        }
+
+        public AwaitResult result() {
+            AwaitResult result = new AwaitResult();
+            result.waitedMs = elapsedMs();
+            result.tablePersistMs = persistedAtMs;
+            result.timedOutTables = timedOut;
+            result.timeToPersistMs = persistedAtMs.isEmpty() ? -1 : Collections.max(persistedAtMs.values());
+            return result;
+        }
+
+        private long elapsedMs() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+
+    private static class TableWatch {
+        final TableSchema schema;
+        final long timeoutMs;
+        int fingerprint;
+        long stableSinceMs = -1;
+
+        TableWatch(TableSchema schema, long timeoutMs) {
+            this.schema = schema;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    public static class AwaitResult {
+        private long waitedMs;
+        private long timeToPersistMs;
+        private Map<String, Long> tablePersistMs;
+        private List<String> timedOutTables;
+
+        public long getWaitedMs() { return waitedMs; }
+        /** Time until the slowest PERSIST table first showed rows, or -1 if none did. */
+        public long getTimeToPersistMs() { return timeToPersistMs; }
+        public Map<String, Long> getTablePersistMs() { return tablePersistMs; }
+        public List<String> getTimedOutTables() { return timedOutTables; }
+    }
+}
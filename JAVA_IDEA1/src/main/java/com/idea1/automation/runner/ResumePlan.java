@@ -0,0 +1,117 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Splits the payloads of a resumed run into scenarios that already passed (their journaled results are reused)
+ * and scenarios that still have to run, and merges both back into payload order as results arrive.
+ * Scenarios are matched to journal lines by test_case_id.
+ *
+ * The payloads are streamed: reused scenarios are skipped as the engine reads past them, so the plan only holds
+ * the journaled results and one int per scenario run. The engine may read payloads on another thread than the
+ * one results arrive on; both sides lock the plan.
+ */
+class ResumePlan {
+    private final Iterator<EventPayload> source;
+    private final Map<String, ScenarioResult> passed = new HashMap<>();
+    // Reused results by payload position, added as the source is read and dropped once delivered
+    private final Map<Integer, ScenarioResult> reused = new HashMap<>();
+    private int[] originalIndex = new int[256];
+    private int runCount;
+    private int position;
+    private boolean exhausted;
+    private int delivered;
+
+    ResumePlan(Iterator<EventPayload> payloads, Map<String, ScenarioResult> journaled) {
+        this.source = payloads;
+        for (ScenarioResult prior : journaled.values()) {
+            if (!prior.isFailed()) passed.put(prior.getTest_case_id(), prior);
+        }
+    }
+
+    /** The payloads the engine should run; the engine numbers them 0..n-1 in this order. */
+    Iterator<EventPayload> payloads() {
+        return new Iterator<EventPayload>() {
+            private EventPayload next;
+
+            @Override
+            public boolean hasNext() {
+                synchronized (ResumePlan.this) {
+                    while (next == null && source.hasNext()) {
+                        EventPayload payload = source.next();
+                        ScenarioResult prior = passed.remove(payload.getTest_case_id());
+                        if (prior != null) {
+                            prior.setIndex(position);
+                            reused.put(position++, prior);
+                        } else {
+                            if (runCount == originalIndex.length) originalIndex = Arrays.copyOf(originalIndex, runCount * 2);
+                            originalIndex[runCount++] = position++;
+                            next = payload;
+                        }
+                    }
+                    if (next == null) exhausted = true;
+                    return next != null;
+                }
+            }
+
+            @Override
+            public EventPayload next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                EventPayload payload = next;
+                next = null;
+                return payload;
+            }
+        };
+    }
+
+    /**
+     * Wraps deliver so that it receives reused and new results in payload order. Each new result is passed
+     * to onNew first (for journaling), after its index has been mapped back to the payload position.
+     */
+    Consumer<ScenarioResult> sink(Delivery deliver, Consumer<ScenarioResult> onNew) {
+        return result -> {
+            int at;
+            List<ScenarioResult> before;
+            synchronized (this) {
+                at = originalIndex[result.getIndex()];
+                before = takeReused(at);
+                delivered = at + 1;
+            }
+            before.forEach(r -> deliver.accept(r, true));
+            result.setIndex(at);
+            onNew.accept(result);
+            deliver.accept(result, false);
+        };
+    }
+
+    /** Delivers the reused results after the last new one; the engine has read every payload by now. */
+    void finish(Delivery deliver) {
+        List<ScenarioResult> rest;
+        synchronized (this) {
+            if (!exhausted) {
+                // Nothing was left to run, so the engine never read the payloads
+                payloads().hasNext();
+            }
+            rest = takeReused(position);
+        }
+        rest.forEach(r -> deliver.accept(r, true));
+    }
+
+    /** Receives every result in payload order; reused is true for results taken over from the journal. */
+    interface Delivery {
+        void accept(ScenarioResult result, boolean reused);
+    }
+
+    private List<ScenarioResult> takeReused(int upTo) {
+        List<ScenarioResult> due = new ArrayList<>();
+        for (; delivered < upTo; delivered++) {
+            ScenarioResult r = reused.remove(delivered);
+            if (r != null) due.add(r);
+        }
+        return due;
+    }
+}
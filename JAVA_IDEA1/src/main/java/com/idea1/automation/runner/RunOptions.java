@@ -0,0 +1,165 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.DbConfig;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Command line switches for the Runner. Anything given here overrides the matching value in db_config.json.
+ */
+public class RunOptions {
+    private Integer concurrency;
+    private Boolean batchFetch;
+    private Integer batchChunkSize;
+    private Boolean pipelined;
+    private Integer pipelineWindow;
+    private String transport;
+    private boolean resume;
+    private ShardSpec shard = ShardSpec.NONE;
+    private String payloads = Runner.PAYLOADS;
+    private String cleanupMode;
+    private Boolean cleanupParallel;
+    private Boolean isolate;
+    private String runId;
+    private final Set<String> cases = new LinkedHashSet<>();
+    private final Set<String> tags = new LinkedHashSet<>();
+    private final Set<String> orderIds = new LinkedHashSet<>();
+
+    public static RunOptions parse(String[] args) {
+        RunOptions options = new RunOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value = null;
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 0) {
+                value = arg.substring(eq + 1);
+                arg = arg.substring(0, eq);
+            }
+            switch (arg) {
+                case "--concurrency":
+                case "-c":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.concurrency = parsePositive(value, arg);
+                    break;
+                case "--batch-fetch":
+                    options.batchFetch = value == null || Boolean.parseBoolean(value);
+                    break;
+                case "--batch-chunk-size":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.batchChunkSize = parsePositive(value, arg);
+                    break;
+                case "--pipelined":
+                    options.pipelined = value == null || Boolean.parseBoolean(value);
+                    break;
+                case "--pipeline-window":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.pipelineWindow = parsePositive(value, arg);
+                    break;
+                case "--transport":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.transport = value;
+                    break;
+                case "--resume":
+                    options.resume = value == null || Boolean.parseBoolean(value);
+                    break;
+                case "--shard":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.shard = ShardSpec.parse(value);
+                    break;
+                case "--payloads":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.payloads = value;
+                    break;
+                case "--cleanup":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.cleanupMode = value;
+                    break;
+                case "--cleanup-parallel":
+                    options.cleanupParallel = value == null || Boolean.parseBoolean(value);
+                    break;
+                case "--isolate":
+                    options.isolate = value == null || Boolean.parseBoolean(value);
+                    break;
+                case "--run-id":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    options.runId = value;
+                    options.isolate = true;
+                    break;
+                case "--cases":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    addList(options.cases, value);
+                    break;
+                case "--tag":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    addList(options.tags, value);
+                    break;
+                case "--order-id":
+                    if (value == null) value = requireValue(args, ++i, arg);
+                    addList(options.orderIds, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        return options;
+    }
+
+    public void applyTo(DbConfig config) {
+        if (concurrency != null) config.setConcurrency(concurrency);
+        if (batchFetch != null) config.setBatchFetch(batchFetch);
+        if (batchChunkSize != null) config.setBatchChunkSize(batchChunkSize);
+        if (pipelined != null) config.setPipelined(pipelined);
+        if (pipelineWindow != null) config.setPipelineWindow(pipelineWindow);
+        if (transport != null) config.setEventTransport(transport);
+        if (cleanupMode != null) config.setCleanupMode(cleanupMode);
+        if (cleanupParallel != null) config.setCleanupParallel(cleanupParallel);
+        if (isolate != null) config.setRunIsolation(isolate);
+        if (runId != null) config.setRunId(runId);
+    }
+
+    public Integer getConcurrency() { return concurrency; }
+    public Boolean getBatchFetch() { return batchFetch; }
+    public Integer getBatchChunkSize() { return batchChunkSize; }
+    public Boolean getPipelined() { return pipelined; }
+    public Integer getPipelineWindow() { return pipelineWindow; }
+    public String getTransport() { return transport; }
+    public String getCleanupMode() { return cleanupMode; }
+    public Boolean getCleanupParallel() { return cleanupParallel; }
+    public Boolean getIsolate() { return isolate; }
+    public String getRunId() { return runId; }
+    /** Continue a previous run from its journal instead of starting over. */
+    public boolean isResume() { return resume; }
+    /** The part of the suite this run owns; ShardSpec.NONE unless --shard was given. */
+    public ShardSpec getShard() { return shard; }
+    /** The scenario file to run; payloads/event_payloads.json unless --payloads was given. */
+    public String getPayloads() { return payloads; }
+    public Set<String> getCases() { return cases; }
+    public Set<String> getTags() { return tags; }
+    public Set<String> getOrderIds() { return orderIds; }
+    /** Whether only some scenarios were asked for (--cases, --tag or --order-id), to be read through the payload index. */
+    public boolean isTargeted() { return !cases.isEmpty() || !tags.isEmpty() || !orderIds.isEmpty(); }
+
+    private static String requireValue(String[] args, int i, String name) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + name);
+        }
+        return args[i];
+    }
+
+    private static void addList(Set<String> into, String value) {
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) into.add(item.trim());
+        }
+    }
+
+    private static int parsePositive(String value, String name) {
+        try {
+            int n = Integer.parseInt(value.trim());
+            if (n < 1) throw new NumberFormatException();
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " expects a positive integer but got: " + value);
+        }
+    }
+}
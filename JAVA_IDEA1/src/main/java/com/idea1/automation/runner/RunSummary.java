@@ -0,0 +1,75 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.ScenarioResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals for a suite. Results arrive one at a time from the engine, always on the calling thread.
+ * Results reused from a resumed run's journal count towards the totals but not towards serial time, since the
+ * wall clock only covers the scenarios run now. Only the first MAX_FAILURE_LINES failure lines are kept.
+ */
+public class RunSummary {
+    static final int MAX_FAILURE_LINES = 100;
+
+    private int totalCases;
+    private int passedScenarios;
+    private int failedScenarios;
+    private long serialMs;
+    private int reusedScenarios;
+    private int failureLines;
+    private long wallClockMs;
+    private int persistedScenarios;
+    private long totalTimeToPersistMs;
+    private long maxTimeToPersistMs;
+    private final List<String> failureSummary = new ArrayList<>();
+
+    public void add(ScenarioResult result) {
+        add(result, false);
+    }
+
+    public void add(ScenarioResult result, boolean reused) {
+        totalCases++;
+        if (result.isFailed()) {
+            failedScenarios++;
+        } else {
+            passedScenarios++;
+        }
+        if (reused) {
+            reusedScenarios++;
+        } else {
+            serialMs += result.getDurationMs();
+        }
+        if (result.getTimeToPersistMs() >= 0) {
+            persistedScenarios++;
+            totalTimeToPersistMs += result.getTimeToPersistMs();
+            maxTimeToPersistMs = Math.max(maxTimeToPersistMs, result.getTimeToPersistMs());
+        }
+        for (String line : result.getFailureSummary()) {
+            if (failureLines++ < MAX_FAILURE_LINES) failureSummary.add(line);
+        }
+    }
+
+    /** Ratio of summed scenario time of this run (what a serial run would take) to the elapsed wall-clock time. */
+    public double getSpeedup() {
+        return wallClockMs > 0 ? (double) serialMs / wallClockMs : 1.0;
+    }
+
+    public long getAvgTimeToPersistMs() {
+        return persistedScenarios > 0 ? totalTimeToPersistMs / persistedScenarios : 0;
+    }
+
+    public long getMaxTimeToPersistMs() { return maxTimeToPersistMs; }
+    public int getTotalCases() { return totalCases; }
+    public int getPassedScenarios() { return passedScenarios; }
+    public int getFailedScenarios() { return failedScenarios; }
+    public long getSerialMs() { return serialMs; }
+    public int getReusedScenarios() { return reusedScenarios; }
+    public long getWallClockMs() { return wallClockMs; }
+    public void setWallClockMs(long wallClockMs) { this.wallClockMs = wallClockMs; }
+    /** The first MAX_FAILURE_LINES failure lines of the run. */
+    public List<String> getFailureSummary() { return failureSummary; }
+    /** Every failure line of the run, including those not kept in getFailureSummary. */
+    public int getFailureLines() { return failureLines; }
+}
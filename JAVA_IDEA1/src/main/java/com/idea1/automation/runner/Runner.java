@@ -1,458 +1,343 @@
 package com.idea1.automation.runner;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.idea1.automation.model.DbConfig;
 import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+import com.idea1.automation.model.ShardManifest;
 import com.idea1.automation.model.TableSchema;
 import com.idea1.automation.utils.*;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class Runner {
-    private static final ObjectMapper mapper = new ObjectMapper();
+    static final String PAYLOADS = "payloads/event_payloads.json";
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("merge")) {
+            ShardMerger.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("generate")) {
+            ScenarioGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         try {
-            List<EventPayload> payloads = JsonUtils.loadEventPayloads("payloads/event_payloads.json");
+            RunOptions options = RunOptions.parse(args);
+            ShardSpec shard = options.getShard();
             Map<String, TableSchema> schemas = JsonUtils.loadJson("schemas/table_schema.json", new TypeReference<Map<String, TableSchema>>() {});
             DbConfig dbConfig = JsonUtils.loadJson("config/db_config.json", DbConfig.class);
-
-            try (Connection conn = DbUtils.getConnection(dbConfig)) {
-                int totalCases = 0, passedScenarios = 0, failedScenarios = 0;
-                List<String> failureSummary = new ArrayList<>();
-
-                StringBuilder htmlReport = new StringBuilder(ReportUtils.getHtmlHeader(dbConfig.getJiraBaseUrl(), dbConfig.getJiraProjectKey()));
-
-                // Placeholder for summary cards
-                int summaryPos = htmlReport.length();
-                htmlReport.append("<!--SUMMARY_CARDS-->");
-
-                // Layout with an empty sidebar; sidebar will be populated by report JS so we can attach filters and scrolling
-                htmlReport.append("<div class=\"layout\">\n<aside class=\"sidebar\">\n<h3>Test Scenarios</h3>\n</aside>\n<main class=\"content\">\n");
-
-                // Perform one-time DB cleanup before running test cases if enabled
-                if (dbConfig.isEnableCleanup()) {
-                    DbUtils.deleteallTableData(conn);
-                    htmlReport.append("<div class='step'><div class='step-title'>Pre-test DB Cleanup</div><p>All tables were cleared once before tests started.</p></div>");
-                } else {
-                    htmlReport.append("<div class='step'><div class='step-title'>Pre-test DB Cleanup</div><p>Cleanup was disabled via config.</p></div>");
-                }
-
-                for (EventPayload payload : payloads) {
-                    totalCases++;
-                    boolean scenarioFailed = false;
-                    StringBuilder caseStepsHtml = new StringBuilder();
-                    StringBuilder validationTable = new StringBuilder();
-                    StringBuilder jiraDetails = new StringBuilder();
-
-                    banner(String.format("TEST CASE : %s\nSCENARIO  : %s\nEVENT     : %s\nORDER ID  : %s",
-                            payload.getTest_case_id(), payload.getScenario_name(), payload.getEvent_type(), payload.getLookup_ids().get("order_id")));
-
-                    // Note: DB cleanup is performed once before the test run (see report header)
-                    caseStepsHtml.append("<div class='step'><div class='step-title'>Pre-test DB Cleanup</div><p>Database was cleared at test start (one-time).</p></div>");
-
-                    // 2. TRIGGER EVENT
-                    section("TRIGGER EVENT");
-                    caseStepsHtml.append("<div class=\"step\"><div class=\"step-title\">Step 2: Event Trigger</div>");
-                    try {
-                        if (dbConfig.isEnableEventTrigger()) {
-                        	PayloadUtils.processPlaceholders(payload.getEvent_payload()); 
-                            EventHubUtils.triggerEvent(dbConfig, payload.getEvent_payload());
-                            caseStepsHtml.append(String.format("<p class=\"pass\">Successfully triggered <b>%s</b> event to Event Hub</p>", payload.getEvent_type()));
-                            System.out.println("   [WAIT] Waiting 10 seconds for processing...");
-                            Thread.sleep(10000);
-                        } else {
-                            caseStepsHtml.append("<p class=\"pass\">Event trigger was <b>SKIPPED</b> via config</p>");
-                            System.out.println("   [SKIP] Event trigger disabled.");
-                        }
-                    } catch (Exception e) {
-                        System.err.println("   [ERROR] Event trigger failed: " + e.getMessage());
-                        caseStepsHtml.append(String.format("<p class=\"fail\">Failed to trigger event: %s</p>", e.getMessage()));
-                        scenarioFailed = true;
-                    }
-                    caseStepsHtml.append("</div>");
-
-                    // 3. VALIDATION
-                    section("VALIDATION");
-                        caseStepsHtml.append("<div class=\"step\"><div class=\"step-title\">Step 3: Database Validation</div>");
-                        caseStepsHtml.append("<div class='step-controls'><button class='step-toggle' data-target='val-" + payload.getTest_case_id() + "'>Show Validation</button>" +
-                            "<div class='step-filters'><button class='step-filter active' data-target='val-" + payload.getTest_case_id() + "' data-filter='all'>All</button>" +
-                            "<button class='step-filter' data-target='val-" + payload.getTest_case_id() + "' data-filter='pass'>Passed</button>" +
-                            "<button class='step-filter' data-target='val-" + payload.getTest_case_id() + "' data-filter='fail'>Failed</button>" +
-                            "<button class='step-filter' data-target='val-" + payload.getTest_case_id() + "' data-filter='skip'>Skipped</button></div></div>");
-                    
-                    validationTable.append("<table class='validation-table'><thead><tr><th>Table</th><th>Column</th><th>Expected</th><th>Actual</th><th>Result</th></tr></thead><tbody>");
-                    
-                    // Combine all tables to validate
-                    Set<String> allTables = new LinkedHashSet<>();
-                    if (payload.getTable_expectations() != null) {
-                        allTables.addAll(payload.getTable_expectations().keySet());
-                    }
-                    if (payload.getExpected_tables() != null) {
-                        allTables.addAll(payload.getExpected_tables());
-                    }
-
-                    for (String table : allTables) {
-                        TableSchema schema = schemas.get(table);
-                        if (schema == null) {
-                            failureSummary.add(table + " schema missing");
-                            scenarioFailed = true;
-                            validationTable.append(String.format("<tr><td>%s</td><td colspan='3'>Schema missing</td><td class='fail'>FAIL</td></tr>", table));
-                            continue;
-                        }
-
-                        String expectation = payload.getTable_expectations() != null ? payload.getTable_expectations().get(table) : null;
-                        // If not in table_expectations but in expected_tables, default to PERSIST
-                        if (expectation == null && payload.getExpected_tables() != null && payload.getExpected_tables().contains(table)) {
-                            expectation = "PERSIST";
-                        }
-                        if (expectation == null) expectation = "PERSIST"; 
-
-                        String lookup = schema.getPrimary_lookup();
-                        Object lookupValue = payload.getLookup_ids().get(lookup);
-
-                        List<Map<String, Object>> rows = fetchRows(conn, table, lookup, lookupValue, schema);
-                        boolean persistenceValid = ValidationUtils.validateTablePersistence(rows, expectation);
-                        String persistenceResult = persistenceValid ? "PASS" : "FAIL";
-                        String persistenceClass = persistenceValid ? "pass" : "fail";
-
-                        if (!persistenceValid) {
-                            failureSummary.add(String.format("%s persistence violation", table));
-                            jiraDetails.append(String.format("- %s: Persistence expected %s but found %d rows\\n", table, expectation, rows.size()));
-                            scenarioFailed = true;
-                        }
-                        
-                        validationTable.append(String.format("<tr><td>%s</td><td>Persistence</td><td>%s</td><td>%d rows found</td><td class='%s'>%s</td></tr>", 
-                            table, expectation, rows.size(), persistenceClass, persistenceResult));
-
-                        // If it should persist and it does, perform deeper validation
-                        if ("PERSIST".equals(expectation) && !rows.isEmpty()) {
-                            List<Map<String, Object>> expectedRows = JsonUtils.loadExpectedRows(table);
-                            for (Map<String, Object> row : rows) {
-                                Map<String, Object> exp = ValidationUtils.matchExpectedRow(row, expectedRows, schema);
-                                if (exp == null) {
-                                    validationTable.append(String.format("<tr><td>%s</td><td>Row Match</td><td>Expected row</td><td>Not found</td><td class='fail'>FAIL</td></tr>", table));
-                                    scenarioFailed = true;
-                                    continue;
-                                }
-
-                                if (schema.getMandatory_columns() != null) {
-                                    for (String col : schema.getMandatory_columns()) {
-                                        // Check if this is a JSON column with field-level validation defined in schema
-                                        if (schema.getJson_columns() != null && schema.getJson_columns().containsKey(col)) {
-                                            TableSchema.JsonColumnConfig jsonConfig = schema.getJson_columns().get(col);
-                                            List<Map<String, Object>> jsonErrors = ValidationUtils.validateJsonColumn(
-                                                exp.get(col), row.get(col), 
-                                                jsonConfig.getRequired(), jsonConfig.getIgnored()
-                                            );
-                                            
-                                            // Show individual required attribute results if defined
-                                            if (jsonConfig.getRequired() != null && !jsonConfig.getRequired().isEmpty()) {
-                                                for (String path : jsonConfig.getRequired()) {
-                                                    boolean foundError = false;
-                                                    for (Map<String, Object> error : jsonErrors) {
-                                                        if (path.equals(error.get("path"))) {
-                                                            foundError = true;
-                                                            Object exp_val = error.get("expected");
-                                                            Object act_val = error.get("actual");
-                                                            validationTable.append(String.format("<tr><td>%s</td><td>%s.%s</td><td>%s</td><td>%s</td><td class='fail'>FAIL</td></tr>", 
-                                                                table, col, path, exp_val, act_val));
-                                                            break;
-                                                        }
-                                                    }
-                                                    if (!foundError) {
-                                                        Object val = ValidationUtils.getNestedValue(row.get(col), path);
-                                                        validationTable.append(String.format("<tr><td>%s</td><td>%s.%s</td><td>Match</td><td>%s</td><td class='pass'>PASS</td></tr>", 
-                                                            table, col, path, val != null ? val : "null"));
-                                                    }
-                                                }
-                                            } else if (jsonErrors.isEmpty()) {
-                                                validationTable.append(String.format("<tr><td>%s</td><td>%s</td><td>Valid JSON</td><td>Valid JSON</td><td class='pass'>PASS</td></tr>", table, col));
-                                            } else {
-                                                for (Map<String, Object> jsonError : jsonErrors) {
-                                                    String path = (String) jsonError.get("path");
-                                                    Object exp_val = jsonError.get("expected");
-                                                    Object act_val = jsonError.get("actual");
-                                                    validationTable.append(String.format("<tr><td>%s</td><td>%s.%s</td><td>%s</td><td>%s</td><td class='fail'>FAIL</td></tr>", 
-                                                        table, col, path, exp_val, act_val));
-                                                }
-                                            }
-                                            
-                                            if (!jsonErrors.isEmpty()) {
-                                                scenarioFailed = true;
-                                            }
-                                        } else {
-                                            // Handle nested path if col contains dots or is just a regular column
-                                            Object expectedValue;
-                                            Object actualValue;
-
-                                            if (col.contains(".")) {
-                                                String[] parts = col.split("\\.", 2);
-                                                String baseCol = parts[0];
-                                                String path = parts[1];
-                                                
-                                                if (row.containsKey(baseCol)) {
-                                                    expectedValue = ValidationUtils.getNestedValue(exp.get(baseCol), path);
-                                                    actualValue = ValidationUtils.getNestedValue(row.get(baseCol), path);
-                                                } else {
-                                                    expectedValue = exp.get(col);
-                                                    actualValue = row.get(col);
-                                                }
-                                            } else {
-                                                expectedValue = exp.get(col);
-                                                actualValue = row.get(col);
-                                            }
-
-                                            // Check if this colum n has a "nullable_presence" semantic rule
-                                            boolean presenceOnly = false;
-                                            if (schema.getSemantic_rules() != null && schema.getSemantic_rules().containsKey(col)) {
-                                                TableSchema.SemanticRule rule = schema.getSemantic_rules().get(col);
-                                                if ("nullable_presence".equalsIgnoreCase(rule.getType())) {
-                                                    presenceOnly = true;
-                                                }
-                                            }
-
-                                            boolean colMatch = ValidationUtils.compareValues(expectedValue, actualValue, presenceOnly);
-                                            String result = colMatch ? "PASS" : "FAIL";
-                                            String resultClass = colMatch ? "pass" : "fail";
-                                            
-                                            String expectedDisplay = presenceOnly ? (expectedValue == null ? "null" : "not null") : String.valueOf(expectedValue);
-                                            String actualDisplay = presenceOnly ? (actualValue == null ? "null" : "not null") : String.valueOf(actualValue);
-
-                                            if (!colMatch) {
-                                                // Escape newlines for JS call
-                                                jiraDetails.append(String.format("- %s.%s: Expected %s but got %s\\n", table, col, expectedDisplay, actualDisplay));
-                                                scenarioFailed = true;
-                                            }
-                                            validationTable.append(String.format("<tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td><td class='%s'>%s</td></tr>", 
-                                                table, col, expectedDisplay, actualDisplay, resultClass, result));
-                                        }
-                                    }
-                                }
-
-                                // Null presence checks
-                                if (schema.getNull_presence_check() != null) {
-                                    Map<String, Object> nullCheckResult = ValidationUtils.validateNullPresence(schema.getNull_presence_check(), row);
-                                    if (!(boolean) nullCheckResult.get("passed")) {
-                                        scenarioFailed = true;
-                                    }
-                                    @SuppressWarnings("unchecked")
-                                    List<Map<String, Object>> nullErrors = (List<Map<String, Object>>) nullCheckResult.get("errors");
-                                    for (Map<String, Object> error : nullErrors) {
-                                        String col = (String) error.get("column");
-                                        Object exp_val = error.get("expected");
-                                        Object act_val = error.get("actual");
-                                        validationTable.append(String.format("<tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td><td class='fail'>FAIL</td></tr>", 
-                                            table, col, exp_val, act_val));
-                                    }
-                                    // Add passing null checks
-                                    for (String col : schema.getNull_presence_check().keySet()) {
-                                        boolean isError = false;
-                                        for (Map<String, Object> e : nullErrors) { if (col.equals(e.get("column"))) { isError = true; break; } }
-                                        if (!isError) {
-                                            Object actualValue = row.get(col);
-                                            String expectationVal = schema.getNull_presence_check().get(col);
-                                            validationTable.append(String.format("<tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td><td class='pass'>PASS</td></tr>", 
-                                                table, col, expectationVal, actualValue == null ? "null" : actualValue));
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-
-                    // 4. SCENARIO-SPECIFIC EXCEPTION PERSISTENCE CHECK
-                    if (payload.getCheck_exception_persistence() != null) {
-                        for (String table : payload.getCheck_exception_persistence()) {
-                            Object lookupValue = payload.getLookup_ids().get("order_id");
-                            // Try multiple schema prefixes like fetchRows does
-                            String[] tableNames = {table, "dcc." + table, "dcc.dcc_" + table, "dcc." + table.replace("_", "")};
-                            boolean checkPassed = false;
-                            long count = 0;
-
-                            for (String tableName : tableNames) {
-                                String sql = String.format("SELECT COUNT(*) FROM %s WHERE order_id = ? AND exception IS NOT NULL", tableName);
-                                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                                    stmt.setObject(1, lookupValue);
-                                    try (ResultSet rs = stmt.executeQuery()) {
-                                        if (rs.next()) {
-                                            count = rs.getLong(1);
-                                            checkPassed = true;
-                                            break; 
-                                        }
-                                    }
-                                } catch (SQLException e) {
-                                    // Table might not exist with this prefix, continue
-                                }
-                            }
-
-                            String resultStr = (count > 0) ? "NOT NULL" : "NULL";
-                            String status = (count > 0) ? "PASS" : "FAIL";
-                            String statusClass = (count > 0) ? "pass" : "fail";
-                            
-                            validationTable.append(String.format("<tr><td>%s</td><td>Exception Persistence</td><td>Expected NOT NULL</td><td>Found %d exceptions (%s)</td><td class='%s'>%s</td></tr>", 
-                                table, count, resultStr, statusClass, status));
-                            
-                            if (count == 0) {
-                                jiraDetails.append(String.format("- %s: Exception persistence check failed (expected not-null)\\n", table));
-                                scenarioFailed = true;
-                            }
-                        }
-                    }
-                    
-                    validationTable.append("</tbody></table>");
-                    caseStepsHtml.append("<div id='val-" + payload.getTest_case_id() + "' class='validation-container' style='display:none;'>");
-                    caseStepsHtml.append(validationTable);
-                    caseStepsHtml.append("</div>");
-
-                    if (scenarioFailed) {
-                        caseStepsHtml.append(String.format("<button class='btn-jira' onclick=\"raiseJiraDefect('%s', '%s', '%s')\">Raise a Defect</button>",
-                            payload.getTest_case_id(), payload.getScenario_name(), jiraDetails.toString().replace("'", "\\'")));
-                    }
-                    caseStepsHtml.append("</div>");
-
-                    String statusClass = scenarioFailed ? "fail" : "pass";
-                    htmlReport.append(String.format("<details class=\"case\" id=\"case-%s\" open>\n<summary>\n" +
-                                    "  <span class=\"case-id\">%s</span>\n" +
-                                    "  <span class=\"case-title\">%s</span>\n" +
-                                    "  <span class=\"status %s\">%s</span>\n" +
-                                    "</summary>\n<div class=\"case-body\">\n%s\n</div></details>\n",
-                            payload.getTest_case_id(), payload.getTest_case_id(), payload.getScenario_name(),
-                            statusClass, statusClass.toUpperCase(), caseStepsHtml.toString()));
-                    
-                    if (scenarioFailed) {
-                        failedScenarios++;
-                    } else {
-                        passedScenarios++;
-                    }
-                }
-
-                String summaryCards = String.format(
-                    "<div class=\"summary-cards\">\n" +
-                    "  <div class=\"card\"><h3>Total Scenarios</h3><div class=\"value\">%d</div></div>\n" +
-                    "  <div class=\"card pass\"><h3>Scenarios Passed</h3><div class=\"value\">%d</div></div>\n" +
-                    "  <div class=\"card fail\"><h3>Scenarios Failed</h3><div class=\"value\">%d</div></div>\n" +
-                    "</div>\n", totalCases, passedScenarios, failedScenarios);
-                
-                int placeholderIdx = htmlReport.indexOf("<!--SUMMARY_CARDS-->");
-                htmlReport.replace(placeholderIdx, placeholderIdx + 20, summaryCards);
-
-                htmlReport.append("</main></div></body></html>");
-                try (java.io.FileWriter writer = new java.io.FileWriter("reports/idea1_report.html")) {
-                    writer.write(htmlReport.toString());
-                }
-                System.out.println("\nREPORT GENERATED: reports/idea1_report.html");
+            options.applyTo(dbConfig);
+            isolate(dbConfig, options.isResume());
+            // Paths, JSON columns and semantic rules are resolved once per table, not per row
+            ValidationPlan.compileAll(schemas);
+            ValueComparators.setDoubleTolerance(dbConfig.getCompareDoubleTolerance());
+
+            RunSummary summary = new RunSummary();
+            String reportPath = shard.path("reports/idea1_report.html");
+            String resultsPath = shard.path("reports/idea1_results.json");
+            String junitPath = shard.path("reports/idea1_junit.xml");
+            try (ReportWriter report = new ReportWriter(reportPath);
+                 ResultExporter exporter = new ResultExporter(resultsPath, junitPath, "idea1")) {
+                report.write(ReportUtils.getHtmlHeader(dbConfig.getJiraBaseUrl(), dbConfig.getJiraProjectKey()));
+
+                // Summary cards are filled in by the page script from the data block written at the end
+                report.write("<div class=\"summary-cards\" id=\"summary-cards\"></div>\n");
+
+                // Layout with an empty sidebar; the report JS fills it from the scenario index
+                report.write("<div class=\"layout\">\n<aside class=\"sidebar\">\n<h3>Test Scenarios</h3>\n</aside>\n<main class=\"content\">\n");
+
+                List<PayloadIndex.Entry> selected = options.isTargeted() ? selectPayloads(options.getPayloads(), options) : null;
+                runSuite(dbConfig, options.getPayloads(), selected, schemas, report, exporter, summary, options.isResume(), shard, options);
             }
+            System.out.println("   [REPORT] Results exported to " + resultsPath + " and " + junitPath);
+            System.out.println("\nREPORT GENERATED: " + reportPath);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private static void banner(String text) {
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println(text);
-        System.out.println("=".repeat(80));
-    }
-
-    private static void section(String title) {
-        System.out.println("\nTABLE : " + title);
-        System.out.println("-".repeat(80));
+    /**
+     * Sets up the run's namespace when runs are isolated. Cleanup is switched to scoped, which together with the
+     * string-lookup check in runSuite keeps an isolated run to its own rows.
+     */
+    private static void isolate(DbConfig dbConfig, boolean resume) {
+        if (!dbConfig.isRunIsolation()) {
+            RunNamespace.clear();
+            return;
+        }
+        String runId = dbConfig.getRunId();
+        if (runId == null || runId.isEmpty()) {
+            if (resume) {
+                // A new id would make the scenarios that run again look for rows under other ids than the reused ones
+                throw new IllegalArgumentException("--resume of an isolated run needs the interrupted run's --run-id (printed as [RUN] when it started)");
+            }
+            runId = RunNamespace.generateId();
+        }
+        RunNamespace.set(runId);
+        System.out.printf("   [RUN] Isolated run %s: string lookup ids end in -%s%n", runId, runId);
+        if (!DbCleaner.SCOPED.equals(dbConfig.getCleanupMode())) {
+            System.out.printf("   [RUN] cleanupMode %s would clear other runs' rows; using scoped%n", dbConfig.getCleanupMode());
+            dbConfig.setCleanupMode(DbCleaner.SCOPED);
+        }
     }
 
-    private static void success(String msg) {
-        System.out.println("   [OK] " + msg);
+    /** The scenarios picked by --cases, --tag and --order-id, found through the payload file's offset index. */
+    private static List<PayloadIndex.Entry> selectPayloads(String payloadPath, RunOptions options) throws IOException {
+        PayloadIndex index = PayloadIndex.forFile(payloadPath);
+        List<PayloadIndex.Entry> selected = index.select(options.getCases(), options.getTags(), options.getOrderIds());
+        List<String> unknown = new ArrayList<>();
+        for (String id : options.getCases()) {
+            if (!index.contains(id)) unknown.add(id);
+        }
+        if (!unknown.isEmpty()) {
+            System.err.println("   [INDEX] Not in " + payloadPath + ": " + unknown);
+        }
+        System.out.printf("   [INDEX] Selected %d of %d scenario(s)%n", selected.size(), index.getEntries().size());
+        return selected;
     }
 
-    private static void detailedFailure(String table, String column, Object expected, Object actual, String path) {
-        System.out.println("   [FAILURE]");
-        System.out.println("      Table   : " + table);
-        System.out.println("      Column  : " + column);
-        if (path != null) System.out.println("      Path    : " + path);
-        if (expected != null) System.out.println("      Expected: " + expected);
-        if (actual != null) System.out.println("      Actual  : " + actual);
+    /** The whole payload file, or only the selected scenarios when the run is targeted (selected != null). */
+    private static PayloadStream openPayloads(String payloadPath, List<PayloadIndex.Entry> selected, boolean headersOnly) throws IOException {
+        if (selected == null) {
+            return headersOnly ? PayloadStream.openHeaders(payloadPath) : PayloadStream.open(payloadPath);
+        }
+        return headersOnly ? PayloadStream.openHeaders(payloadPath, selected) : PayloadStream.open(payloadPath, selected);
     }
 
-    private static List<Map<String, Object>> fetchRows(Connection conn, String table, String lookup, Object value, TableSchema schema) throws SQLException {
-        List<Map<String, Object>> rows = new ArrayList<>();
-        // Try both with and without dcc. prefix if it fails
-        String[] tableNames = {table, "dcc." + table, "dcc.dcc_" + table, "dcc." + table.replace("_", "")};
-        SQLException lastEx = null;
-
-        for (String tableName : tableNames) {
-            // Build explicit column list if possible to avoid metadata s_1 issues
-            String cols = "*";
-            if (schema != null) {
-                Set<String> allCols = new LinkedHashSet<>();
-                allCols.add(lookup);
-                if (schema.getMandatory_columns() != null) allCols.addAll(schema.getMandatory_columns());
-                if (schema.getJson_columns() != null) allCols.addAll(schema.getJson_columns().keySet());
-                // Remove any nulls or empty strings
-                allCols.remove(null);
-                allCols.remove("");
-                if (!allCols.isEmpty()) {
-                    cols = String.join(", ", allCols);
-                }
+    private static void runSuite(DbConfig dbConfig, String payloadPath, List<PayloadIndex.Entry> selected, Map<String, TableSchema> schemas,
+                                 ReportWriter report, ResultExporter exporter, RunSummary summary, boolean resume, ShardSpec shard,
+                                 RunOptions options) throws Exception {
+        ConnectionPool.PoolMetrics poolMetrics;
+        SendMetrics sendMetrics;
+        String consumerStats = null;
+        String notifyStats = null;
+        // Results are written to the report and exports as they arrive; only the count is kept for progress
+        int[] delivered = new int[1];
+        PhaseMetrics.reset();
+        // Each shard keeps its own journal; it doubles as the shard's partial results for the merge
+        String journalPath = shard.path(dbConfig.getJournalPath());
+        // On resume, scenarios that passed in the journal are reported from it and not run again
+        Map<String, ScenarioResult> journaled = resume ? ResultJournal.load(journalPath) : Collections.emptyMap();
+        // Payloads are streamed twice: a header pass (event bodies skipped) for counts and tables, then the run itself
+        Set<String> logicalTables = new TreeSet<>(schemas.keySet());
+        int fileCount = 0;
+        int total = 0;
+        int reusedCount = 0;
+        // Scoped cleanup removes only the rows of the scenarios about to run, found by their primary lookup values
+        boolean scoped = DbCleaner.SCOPED.equals(dbConfig.getCleanupMode());
+        Map<String, Set<Object>> cleanupScope = new HashMap<>();
+        if (scoped) {
+            for (TableSchema schema : schemas.values()) {
+                if (schema.getPrimary_lookup() != null) cleanupScope.putIfAbsent(schema.getPrimary_lookup(), new LinkedHashSet<>());
             }
-
-            String sql = String.format("SELECT %s FROM %s WHERE %s = ?", cols, tableName, lookup);
-            System.out.println("   [DEBUG] Executing: " + sql + " with value: " + value);
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                if (value == null) {
-                    stmt.setNull(1, java.sql.Types.VARCHAR);
-                } else {
-                    stmt.setObject(1, value);
+        }
+        // Only string ids can carry the run id; a numeric id is shared with every other run and its cleanup
+        Set<String> primaryLookups = new TreeSet<>();
+        for (TableSchema schema : schemas.values()) {
+            if (schema.getPrimary_lookup() != null) primaryLookups.add(schema.getPrimary_lookup());
+        }
+        List<String> notIsolated = new ArrayList<>();
+        try (PayloadStream headers = openPayloads(payloadPath, selected, true)) {
+            while (headers.hasNext()) {
+                EventPayload payload = headers.next();
+                fileCount++;
+                if (!shard.owns(payload)) continue;
+                total++;
+                if (RunNamespace.isActive() && payload.getLookup_ids() != null) {
+                    for (String lookup : primaryLookups) {
+                        Object value = payload.getLookup_ids().get(lookup);
+                        if (!RunNamespace.isNamespaceable(value)) notIsolated.add(payload.getTest_case_id() + " (" + lookup + " = " + value + ")");
+                    }
                 }
-                
-                try (ResultSet rs = stmt.executeQuery()) {
-                    ResultSetMetaData meta = rs.getMetaData();
-                    int colCount = meta.getColumnCount();
-                    while (rs.next()) {
-                        Map<String, Object> row = new HashMap<>();
-                        for (int i = 1; i <= colCount; i++) {
-                            // Try multiple ways to get the column name
-                            String colName = meta.getColumnLabel(i);
-                            // Fallback to getColumnName
-                            if (colName == null || colName.toLowerCase().matches("s_?\\d+")) {
-                                String name = meta.getColumnName(i);
-                                if (name != null && !name.toLowerCase().matches("s_?\\d+")) {
-                                    colName = name;
-                                }
-                            }
-                            
-                            // Last resort: if still s_1, use the column we requested by index!
-                            if ((colName == null || colName.toLowerCase().matches("s_?\\d+")) && schema != null) {
-                                // This is dangerous but better than s_1
-                                // We can't easily know which requested column maps to which index if cols was "*"
-                                // but if we built "cols", we know the order!
-                            }
-
-                            if (colName != null) {
-                                row.put(colName, rs.getObject(i));
-                            }
+                ScenarioResult prior = journaled.get(payload.getTest_case_id());
+                if (prior != null && !prior.isFailed()) {
+                    reusedCount++;
+                } else if (scoped && payload.getLookup_ids() != null) {
+                    for (Map.Entry<String, Set<Object>> e : cleanupScope.entrySet()) {
+                        Object value = payload.getLookup_ids().get(e.getKey());
+                        if (value != null) e.getValue().add(RunNamespace.apply(value));
+                    }
+                }
+                logicalTables.addAll(ValidationUtils.resolveTableExpectations(payload).keySet());
+                if (payload.getCheck_exception_persistence() != null) logicalTables.addAll(payload.getCheck_exception_persistence());
+            }
+        }
+        if (!notIsolated.isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "Run isolation needs string lookup ids, but %d scenario(s) have others that every run shares (quote them in %s, or run without --isolate): %s",
+                    notIsolated.size(), payloadPath, String.join(", ", notIsolated.subList(0, Math.min(10, notIsolated.size())))
+                            + (notIsolated.size() > 10 ? ", ..." : "")));
+        }
+        int toRun = total - reusedCount;
+        int scenarioCount = total;
+        int progressEvery = Math.max(1, total / 20);
+        System.out.printf("   [PAYLOADS] %d %sscenario(s) in %s%n", fileCount, selected != null ? "selected " : "", payloadPath);
+        if (shard.isSharded()) {
+            System.out.printf("   [SHARD] %s: %d of %d scenario(s)%n", shard, total, fileCount);
+        }
+        if (resume) {
+            System.out.printf("   [JOURNAL] Resuming from %s: %d passed scenario(s) reused, %d to run%n",
+                    journalPath, reusedCount, toRun);
+        }
+        try (ConnectionPool pool = DbUtils.createPool(dbConfig)) {
+            // Resolve every logical table to its physical name once, and report missing ones before any scenario runs
+            TableResolver resolver;
+            try (Connection conn = pool.borrow()) {
+                resolver = TableResolver.build(conn, logicalTables);
+            }
+            report.write(ReportUtils.getTableResolutionBlock(resolver));
+            // One-time DB cleanup before the scenarios run; scoped cleanup only touches this run's rows, so it is safe
+            // for resumed runs and shards, while wiping whole tables is not
+            String cleanupStep = "<div class='step'><div class='step-title'>Pre-test DB Cleanup</div><p>%s</p></div>\n";
+            if (!dbConfig.isEnableCleanup()) {
+                report.write(String.format(cleanupStep, "Cleanup was disabled via config."));
+            } else if (resume && !scoped) {
+                // Clearing the tables would throw away the rows the reused results were validated against
+                report.write(String.format(cleanupStep, String.format("Skipped: resumed run, %d passed scenario(s) taken from the journal. Use cleanupMode scoped to clean only the scenarios that run again.", reusedCount)));
+            } else if (shard.isSharded() && !scoped) {
+                // Shards share the database; one shard clearing it would delete rows the others are waiting for
+                report.write(String.format(cleanupStep, String.format("Skipped: shard %s of a sharded run. Clear the database once before starting the shards, or use cleanupMode scoped.", shard)));
+            } else {
+                long cleanupStart = System.nanoTime();
+                List<DbCleaner.TableCleanup> cleaned = DbCleaner.clean(pool, dbConfig, schemas, resolver, cleanupScope);
+                long cleanupMs = (System.nanoTime() - cleanupStart) / 1_000_000;
+                report.write(ReportUtils.getCleanupBlock(dbConfig.getCleanupMode(), dbConfig.isCleanupParallel(), cleanupMs, cleaned));
+                System.out.printf("   [CLEANUP] %s cleanup took %d ms%n", dbConfig.getCleanupMode(), cleanupMs);
+            }
+            // Scenario cards are drawn here by the page script, from the data blocks streamed below
+            report.write("<div class=\"case-viewport\" id=\"case-viewport\"></div>\n");
+            if (!resolver.getUnresolved().isEmpty()) {
+                System.err.println("   [RESOLVER] Tables not found in the database: " + resolver.getUnresolved());
+            }
+            resolver.getAmbiguous().forEach((table, matches) ->
+                    System.err.println("   [RESOLVER] " + table + " is ambiguous, it exists as " + matches));
+
+            long runStart = System.nanoTime();
+            // With pgNotify, row triggers push arrivals to one listener connection and waits poll only as a fallback
+            // One transport for the run, shared by every worker; every send has been confirmed once the engine returns
+            try (PgRowNotifier notifier = PgRowNotifier.startIfEnabled(dbConfig, resolver, schemas);
+                 EventTransport transport = EventTransport.open(dbConfig, resolver, schemas);
+                 PayloadStream payloads = openPayloads(payloadPath, selected, false);
+                 ResultJournal journal = ResultJournal.open(journalPath, resume, dbConfig.getJournalSyncEvery(), dbConfig.getJournalSyncIntervalMs())) {
+                ResumePlan plan = new ResumePlan(shard.select(payloads), journaled);
+                ScenarioExecutor executor = new ScenarioExecutor(dbConfig, schemas, resolver, transport, notifier);
+                try (ScenarioEngine engine = new ScenarioEngine(pool, executor, dbConfig.getConcurrency())) {
+                    System.out.printf("%nRunning %d scenarios with %d worker(s)%s%n", toRun, engine.getConcurrency(),
+                            dbConfig.isPipelined() ? ", pipelined with a window of " + dbConfig.getPipelineWindow()
+                                    : dbConfig.isBatchFetch() ? ", batch fetch in waves of " + dbConfig.getBatchChunkSize() : "");
+                    ResumePlan.Delivery deliver = (result, reused) -> {
+                        try {
+                            long renderStart = System.nanoTime();
+                            report.writeScenario(result);
+                            exporter.add(result);
+                            PhaseMetrics.record(PhaseMetrics.RENDER, System.nanoTime() - renderStart);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
                         }
-                        if (row.isEmpty()) {
-                            System.out.println("   [DEBUG] Row found but no columns were mapped correctly.");
-                        } else {
-                            System.out.println("   [DEBUG] Row mapped columns: " + row.keySet());
+                        summary.add(result, reused);
+                        int done = ++delivered[0];
+                        if (done % progressEvery == 0 && done < scenarioCount) {
+                            System.out.printf("   [PROGRESS] %d/%d scenarios (%d%%)%n", done, scenarioCount, done * 100 / scenarioCount);
                         }
-                        rows.add(row);
+                    };
+                    // New results are journaled before they are reported, so a crash never loses a reported scenario
+                    Consumer<ScenarioResult> sink = plan.sink(deliver, result -> {
+                        try {
+                            journal.append(result);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    if (dbConfig.isPipelined()) {
+                        engine.runPipelined(plan.payloads(), dbConfig.getPipelineWindow(), dbConfig.getPipelineValidationQueue(), sink);
+                    } else if (dbConfig.isBatchFetch()) {
+                        engine.runBatched(plan.payloads(), dbConfig.getBatchChunkSize(), sink);
+                    } else {
+                        engine.run(plan.payloads(), sink);
                     }
-                    if (!rows.isEmpty()) return rows; // Success!
+                    plan.finish(deliver);
                 }
-            } catch (SQLException e) {
-                lastEx = e;
-                System.out.println("   [DEBUG] Attempt with " + tableName + " failed: " + e.getMessage());
-                // Continue to next table name attempt
+                sendMetrics = transport.metrics();
+                if (transport instanceof InMemoryEventTransport) consumerStats = transport.toString();
+                if (notifier != null) notifyStats = notifier.toString();
             }
+            summary.setWallClockMs((System.nanoTime() - runStart) / 1_000_000);
+            poolMetrics = pool.metrics();
         }
-        
-        if (lastEx != null) {
-            System.err.println("   [SQL ERROR] Fetch failed for table " + table + ": " + lastEx.getMessage());
+        report.write(ReportUtils.getPoolMetricsBlock(poolMetrics));
+        report.write(ReportUtils.getSendMetricsBlock(sendMetrics));
+        List<PhaseMetrics.Series> timings = PhaseMetrics.snapshot();
+        report.write(ReportUtils.getTimingBlock(timings));
+
+        List<Map<String, Object>> cards = new ArrayList<>();
+        cards.add(ReportUtils.summaryCard("Total Scenarios", summary.getTotalCases(), null));
+        cards.add(ReportUtils.summaryCard("Scenarios Passed", summary.getPassedScenarios(), "pass"));
+        cards.add(ReportUtils.summaryCard("Scenarios Failed", summary.getFailedScenarios(), "fail"));
+        if (summary.getReusedScenarios() > 0) cards.add(ReportUtils.summaryCard("Reused From Journal", summary.getReusedScenarios(), null));
+        cards.add(ReportUtils.summaryCard("Wall Clock / Serial", String.format("%.1fs / %.1fs", summary.getWallClockMs() / 1000.0, summary.getSerialMs() / 1000.0), null));
+        cards.add(ReportUtils.summaryCard(String.format("Speedup (%d workers)", dbConfig.getConcurrency()), String.format("%.2fx", summary.getSpeedup()), null));
+        cards.add(sendMetrics.isBatched()
+                ? ReportUtils.summaryCard("Events/s (batch fill)", String.format("%.1f (%.0f%%)", sendMetrics.getEventsPerSecond(), sendMetrics.getAvgFillRatio() * 100), null)
+                : ReportUtils.summaryCard("Events/s (" + sendMetrics.getTransport() + ")", String.format("%.1f", sendMetrics.getEventsPerSecond()), null));
+        if (RunNamespace.isActive()) cards.add(ReportUtils.summaryCard("Run Id", RunNamespace.getRunId(), null));
+        cards.add(ReportUtils.summaryCard("Time-to-Persist Avg / Max", String.format("%d / %d ms", summary.getAvgTimeToPersistMs(), summary.getMaxTimeToPersistMs()), null));
+        report.finish(cards);
+        exporter.finish(summary.getWallClockMs());
+        String metricsPath = shard.path("reports/idea1_metrics.json");
+        String promPath = shard.path("reports/idea1_metrics.prom");
+        PhaseMetrics.writeJson(timings, metricsPath);
+        PhaseMetrics.writePrometheus(timings, promPath);
+        if (shard.isSharded()) {
+            ShardManifest manifest = new ShardManifest();
+            manifest.setShard_index(shard.getIndex());
+            manifest.setShard_count(shard.getCount());
+            manifest.setScenarios(summary.getTotalCases());
+            manifest.setPassed(summary.getPassedScenarios());
+            manifest.setFailed(summary.getFailedScenarios());
+            manifest.setWall_clock_ms(summary.getWallClockMs());
+            manifest.setSerial_ms(summary.getSerialMs());
+            manifest.setConcurrency(dbConfig.getConcurrency());
+            manifest.setTransport(sendMetrics.getTransport());
+            manifest.setEvents_per_second(sendMetrics.getEventsPerSecond());
+            manifest.setPayloads(payloadPath);
+            manifest.setJournal(Paths.get(journalPath).getFileName().toString());
+            manifest.setReport(report.getPath().getFileName().toString());
+            manifest.setFinished_at(System.currentTimeMillis());
+            if (options.isTargeted()) {
+                // The merge only expects this shard's share of the selection, not of the whole file
+                manifest.setCases(new ArrayList<>(new TreeSet<>(options.getCases())));
+                manifest.setTags(new ArrayList<>(new TreeSet<>(options.getTags())));
+                manifest.setOrder_ids(new ArrayList<>(new TreeSet<>(options.getOrderIds())));
+            }
+            JsonUtils.writeJson(shard.manifestPath("reports"), manifest);
+        }
+
+        banner(String.format("RUN SUMMARY\nSCENARIOS : %d (passed %d, failed %d%s)\nWALL CLOCK: %.1fs\nSERIAL    : %.1fs (sum of scenario times)\nSPEEDUP   : %.2fx with %d worker(s)\nPERSIST   : avg %d ms, max %d ms\nEVENTS    : %.1f events/s via %s, latency avg %.2f ms",
+                summary.getTotalCases(), summary.getPassedScenarios(), summary.getFailedScenarios(),
+                summary.getReusedScenarios() > 0 ? ", " + summary.getReusedScenarios() + " reused from the journal" : "",
+                summary.getWallClockMs() / 1000.0, summary.getSerialMs() / 1000.0, summary.getSpeedup(), dbConfig.getConcurrency(),
+                summary.getAvgTimeToPersistMs(), summary.getMaxTimeToPersistMs(),
+                sendMetrics.getEventsPerSecond(), sendMetrics.getTransport(), sendMetrics.getAvgLatencyMs()));
+        System.out.println("   [POOL] " + poolMetrics);
+        System.out.println("   [TRANSPORT] " + sendMetrics);
+        if (consumerStats != null) System.out.println("   [TRANSPORT] " + consumerStats);
+        if (notifyStats != null) System.out.println("   [NOTIFY] " + notifyStats);
+        System.out.printf("   [METRICS] %d phase series written to %s and %s%n", timings.size(), metricsPath, promPath);
+        System.out.printf("   [REPORT] Streamed %d fragment(s), %d KB%n", report.getFragments(), report.getChars() / 1024);
+        if (shard.isSharded()) {
+            System.out.printf("   [SHARD] %s done; merge all shards with: merge reports%n", shard);
         }
-        return rows;
+    }
+
+    static void banner(String text) {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println(text);
+        System.out.println("=".repeat(80));
     }
 }
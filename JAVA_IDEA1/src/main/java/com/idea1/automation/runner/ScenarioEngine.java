@@ -0,0 +1,213 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+import com.idea1.automation.utils.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Executes scenarios on a fixed pool of workers. Every running scenario holds its own pooled JDBC connection,
+ * and results are handed to the sink in the same order the scenarios were read, whatever order they finish in.
+ */
+public class ScenarioEngine implements AutoCloseable {
+    private final ConnectionPool connections;
+    private final ScenarioExecutor executor;
+    private final int concurrency;
+    private final ExecutorService pool;
+
+    public ScenarioEngine(ConnectionPool connections, ScenarioExecutor executor, int concurrency) {
+        this.connections = connections;
+        this.executor = executor;
+        this.concurrency = Math.max(1, concurrency);
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.concurrency, r -> {
+            Thread t = new Thread(r, "scenario-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getConcurrency() { return concurrency; }
+
+    /**
+     * Runs every scenario from the iterator and delivers results in input order.
+     * At most twice the worker count is read ahead, so large suites are not materialised up front.
+     */
+    public void run(Iterator<EventPayload> payloads, Consumer<ScenarioResult> sink) throws InterruptedException {
+        schedule(new Iterator<Job>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() { return payloads.hasNext(); }
+
+            @Override
+            public Job next() {
+                EventPayload payload = payloads.next();
+                int scenarioIndex = index++;
+                return new Job(payload, scenarioIndex, conn -> executor.execute(conn, payload, scenarioIndex));
+            }
+        }, sink);
+    }
+
+    /**
+     * Batch mode: scenarios are processed in waves of waveSize. A wave's events are all sent first, then one
+     * poll loop waits for all of them and one query per table prefetches their rows, and finally the workers
+     * validate the wave against the prefetched rows. Results are still delivered in input order.
+     */
+    public void runBatched(Iterator<EventPayload> payloads, int waveSize, Consumer<ScenarioResult> sink) throws Exception {
+        BatchFetcher fetcher = executor.getBatchFetcher();
+        int index = 0;
+        while (payloads.hasNext()) {
+            List<ScenarioRun> wave = new ArrayList<>();
+            // Scenarios that could not even be started keep their place in the delivery order
+            Map<Integer, ScenarioResult> aborted = new HashMap<>();
+            int waveStart = index;
+            while (payloads.hasNext() && index - waveStart < Math.max(1, waveSize)) {
+                EventPayload payload = payloads.next();
+                int scenarioIndex = index++;
+                long start = System.nanoTime();
+                try {
+                    ScenarioRun run = executor.begin(payload, scenarioIndex);
+                    executor.trigger(run);
+                    wave.add(run);
+                } catch (Exception e) {
+                    aborted.put(scenarioIndex, abortedResult(payload, scenarioIndex, e, start));
+                }
+            }
+            for (ScenarioRun run : wave) {
+                executor.confirmSent(run);
+            }
+
+            BatchRowSource rows = wave.isEmpty() ? new BatchRowSource() : awaitWave(fetcher, wave);
+
+            List<Job> jobs = new ArrayList<>();
+            Iterator<ScenarioRun> started = wave.iterator();
+            for (int i = waveStart; i < index; i++) {
+                ScenarioResult result = aborted.get(i);
+                if (result != null) {
+                    jobs.add(new Job(result));
+                    continue;
+                }
+                ScenarioRun run = started.next();
+                jobs.add(new Job(run.payload, run.result.getIndex(), conn -> {
+                    executor.validate(conn, run, rows);
+                    return executor.finish(run);
+                }));
+            }
+            schedule(jobs.iterator(), sink);
+        }
+    }
+
+    /** Awaits and prefetches a wave on one connection; if none can be had, each scenario fetches its rows itself as in plain mode. */
+    private BatchRowSource awaitWave(BatchFetcher fetcher, List<ScenarioRun> wave) throws InterruptedException {
+        try (Connection conn = connections.borrow()) {
+            System.out.printf("   [BATCH] Awaiting %d scenario(s)%n", wave.size());
+            fetcher.await(conn, wave, executor);
+            return fetcher.prefetch(conn, wave);
+        } catch (SQLException e) {
+            System.err.println("   [BATCH] Wave fetch failed, validating per scenario: " + e.getMessage());
+            return new BatchRowSource();
+        }
+    }
+
+    /**
+     * Pipelined mode: events keep being sent while earlier scenarios are still being watched and validated.
+     * window caps the scenarios between trigger and delivery; validationQueue caps scenarios waiting for a worker.
+     */
+    public void runPipelined(Iterator<EventPayload> payloads, int window, int validationQueue, Consumer<ScenarioResult> sink) throws Exception {
+        new ScenarioPipeline(connections, executor, pool, concurrency, window, validationQueue).run(payloads, sink);
+    }
+
+    private void schedule(Iterator<Job> jobs, Consumer<ScenarioResult> sink) throws InterruptedException {
+        Deque<Future<ScenarioResult>> inFlight = new ArrayDeque<>();
+        int maxInFlight = concurrency * 2;
+
+        while (jobs.hasNext()) {
+            Job job = jobs.next();
+            inFlight.addLast(pool.submit(() -> runOne(job)));
+            if (inFlight.size() >= maxInFlight) {
+                sink.accept(await(inFlight.removeFirst()));
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            sink.accept(await(inFlight.removeFirst()));
+        }
+    }
+
+    private ScenarioResult runOne(Job job) {
+        if (job.result != null) return job.result;
+        return runGuarded(connections, job.payload, job.index, job.work);
+    }
+
+    /** Runs work on a borrowed connection; any failure becomes a failed result marked as aborted. */
+    static ScenarioResult runGuarded(ConnectionPool connections, EventPayload payload, int index, ConnectionWork work) {
+        long start = System.nanoTime();
+        try (Connection conn = connections.borrow()) {
+            return work.run(conn);
+        } catch (Exception e) {
+            return abortedResult(payload, index, e, start);
+        }
+    }
+
+    /** The failed result of a scenario that threw at index, as plain mode reports it. */
+    static ScenarioResult abortedResult(EventPayload payload, int index, Exception e, long startNanos) {
+        String message = e.getMessage() != null ? e.getMessage() : e.toString();
+        System.err.println("   [ERROR] Scenario " + payload.getTest_case_id() + " aborted: " + message);
+        ScenarioResult result = new ScenarioResult();
+        result.setIndex(index);
+        result.setTest_case_id(payload.getTest_case_id());
+        result.setScenario_name(payload.getScenario_name());
+        result.setEvent_type(payload.getEvent_type());
+        result.setFailed(true);
+        result.getFailureSummary().add("Scenario aborted: " + message);
+        result.setAbortMessage(message);
+        result.setDurationMs((System.nanoTime() - startNanos) / 1_000_000);
+        return result;
+    }
+
+    private static ScenarioResult await(Future<ScenarioResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // runOne never throws, so this only happens on an Error inside a worker
+            throw new IllegalStateException("Scenario worker failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    interface ConnectionWork {
+        ScenarioResult run(Connection conn) throws Exception;
+    }
+
+    private static class Job {
+        final EventPayload payload;
+        final int index;
+        final ConnectionWork work;
+        /** Set for a scenario that already has its result, so no connection is borrowed for it */
+        final ScenarioResult result;
+
+        Job(EventPayload payload, int index, ConnectionWork work) {
+            this.payload = payload;
+            this.index = index;
+            this.work = work;
+            this.result = null;
+        }
+
+        Job(ScenarioResult result) {
+            this.payload = null;
+            this.index = result.getIndex();
+            this.work = null;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.*;
+import com.idea1.automation.model.CheckResult.Kind;
+import com.idea1.automation.utils.*;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs a single scenario end to end: trigger, wait and validate, recording each outcome in its ScenarioResult.
+ * Instances are shared between worker threads, so all per-scenario state lives in a ScenarioRun.
+ * The stages are also exposed individually so batch and pipelined modes can schedule them differently.
+ */
+public class ScenarioExecutor {
+    private final DbConfig dbConfig;
+    private final Map<String, TableSchema> schemas;
+    private final PersistenceAwaiter awaiter;
+    private final BatchFetcher batchFetcher;
+    private final EventTransport transport;
+
+    private final TableResolver resolver;
+
+    public ScenarioExecutor(DbConfig dbConfig, Map<String, TableSchema> schemas, TableResolver resolver, EventTransport transport,
+                            PgRowNotifier notifier) {
+        this.dbConfig = dbConfig;
+        this.transport = transport;
+        this.schemas = schemas;
+        this.resolver = resolver;
+        this.awaiter = new PersistenceAwaiter(dbConfig, schemas, resolver, notifier);
+        this.batchFetcher = new BatchFetcher(dbConfig, schemas, resolver, awaiter);
+    }
+
+    BatchFetcher getBatchFetcher() { return batchFetcher; }
+    PersistenceAwaiter getAwaiter() { return awaiter; }
+    DbConfig getConfig() { return dbConfig; }
+
+    public ScenarioResult execute(Connection conn, EventPayload payload, int index) throws Exception {
+        ScenarioRun run = begin(payload, index);
+        if (trigger(run) && confirmSent(run)) {
+            await(conn, run);
+        }
+        validate(conn, run, null);
+        return finish(run);
+    }
+
+    /**
+     * Starts a scenario: logs the banner and creates its result. A payload that cannot be rendered into the run's
+     * namespace fails only this scenario, as a failed trigger.
+     */
+    ScenarioRun begin(EventPayload payload, int index) {
+        String renderError = null;
+        try {
+            // An isolated run sends, awaits and validates its own ids from here on
+            RunNamespace.applyTo(payload, ScenarioRun.seq(payload, index));
+        } catch (RuntimeException e) {
+            renderError = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        ScenarioRun run = new ScenarioRun(payload, index);
+        banner(String.format("TEST CASE : %s\nSCENARIO  : %s\nEVENT     : %s\nORDER ID  : %s",
+                payload.getTest_case_id(), payload.getScenario_name(), payload.getEvent_type(),
+                payload.getLookup_ids() != null ? payload.getLookup_ids().get("order_id") : null));
+        if (renderError != null) {
+            System.err.println("   [ERROR] Payload could not be rendered: " + renderError);
+            triggerFailed(run, renderError);
+        }
+        return run;
+    }
+
+    /** Sends the scenario's event. Returns true when an event actually went out and persistence should be awaited. */
+    boolean trigger(ScenarioRun run) {
+        EventPayload payload = run.payload;
+        section("TRIGGER EVENT");
+        if (run.result.getTriggerStatus() == CheckStatus.FAIL) {
+            System.out.println("   [SKIP] Not sent, the payload could not be rendered.");
+            return false;
+        }
+        try {
+            if (dbConfig.isEnableEventTrigger()) {
+                long start = System.nanoTime();
+                PayloadUtils.processPlaceholders(payload, run.seq);
+                run.sendStartNanos = System.nanoTime();
+                timed(run, PhaseMetrics.PLACEHOLDERS, "", "", run.sendStartNanos - start);
+                if (dbConfig.isEventHubAsyncSend()) {
+                    // confirmSent reports the outcome and the send time; the worker moves on while the transport sends
+                    run.pendingSend = transport.submit(payload);
+                    run.triggeredAtNanos = System.nanoTime();
+                    return true;
+                }
+                transport.send(payload);
+                run.triggeredAtNanos = System.nanoTime();
+                timed(run, PhaseMetrics.SEND, "", "ok", run.triggeredAtNanos - run.sendStartNanos);
+                run.result.setTriggerStatus(CheckStatus.PASS);
+                return true;
+            }
+            run.result.setTriggerStatus(CheckStatus.SKIP);
+            System.out.println("   [SKIP] Event trigger disabled.");
+        } catch (Exception e) {
+            System.err.println("   [ERROR] Event trigger failed: " + e.getMessage());
+            if (run.sendStartNanos > 0) timed(run, PhaseMetrics.SEND, "", "failed", System.nanoTime() - run.sendStartNanos);
+            triggerFailed(run, e.getMessage());
+        }
+        return false;
+    }
+
+    /** Waits for an async send to complete. Returns false, and fails the scenario, if the event never went out. */
+    boolean confirmSent(ScenarioRun run) {
+        if (run.pendingSend == null) return true;
+        try {
+            run.pendingSend.join();
+            // Await deadlines run from here, so time spent queued for the send does not count against them
+            run.triggeredAtNanos = System.nanoTime();
+            timed(run, PhaseMetrics.SEND, "", "ok", run.triggeredAtNanos - run.sendStartNanos);
+            run.result.setTriggerStatus(CheckStatus.PASS);
+            return true;
+        } catch (CompletionException e) {
+            timed(run, PhaseMetrics.SEND, "", "failed", System.nanoTime() - run.sendStartNanos);
+            String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            System.err.println("   [ERROR] Event trigger failed: " + message);
+            triggerFailed(run, message);
+            run.triggeredAtNanos = 0;
+            return false;
+        } finally {
+            run.pendingSend = null;
+        }
+    }
+
+    private static void triggerFailed(ScenarioRun run, String message) {
+        run.result.setTriggerStatus(CheckStatus.FAIL);
+        run.result.setTriggerMessage(message);
+        run.result.setFailed(true);
+    }
+
+    /** Polls the scenario's PERSIST tables until the rows land or the deadlines pass. */
+    void await(Connection conn, ScenarioRun run) throws Exception {
+        System.out.println("   [WAIT] Waiting for expected rows to persist...");
+        PersistenceAwaiter.AwaitResult awaitResult = awaiter.await(conn, run.payload, run.triggeredAtNanos);
+        recordAwait(run, awaitResult.getWaitedMs(), awaitResult.getTimeToPersistMs(), awaitResult.getTimedOutTables());
+    }
+
+    void recordAwait(ScenarioRun run, long waitedMs, long timeToPersistMs, List<String> timedOutTables) {
+        timed(run, PhaseMetrics.AWAIT, "", timedOutTables.isEmpty() ? "ok" : "timed_out", waitedMs * 1_000_000);
+        run.result.setTimeToPersistMs(timeToPersistMs);
+        System.out.printf("   [WAIT] %s: done after %d ms (time-to-persist %d ms, timed out: %s)%n",
+                run.payload.getTest_case_id(), waitedMs, timeToPersistMs, timedOutTables);
+        run.result.setWaitedMs(waitedMs);
+        run.result.setTimedOutTables(timedOutTables);
+    }
+
+    /**
+     * Validates every expected table. Rows come from the batch source when it has prefetched the table,
+     * otherwise they are queried for this scenario alone.
+     */
+    void validate(Connection conn, ScenarioRun run, BatchRowSource batch) throws Exception {
+        EventPayload payload = run.payload;
+        section("VALIDATION");
+        // Combine all tables to validate
+        Map<String, String> tableExpectations = ValidationUtils.resolveTableExpectations(payload);
+
+        ScenarioResult result = run.result;
+
+        for (String table : tableExpectations.keySet()) {
+            TableSchema schema = schemas.get(table);
+            if (schema == null) {
+                result.getFailureSummary().add(table + " schema missing");
+                result.addCheck(new CheckResult(Kind.SCHEMA, CheckId.of(table), CheckStatus.FAIL, "Schema missing", null));
+                continue;
+            }
+
+            String expectation = tableExpectations.get(table);
+
+            String lookup = schema.getPrimary_lookup();
+            Object lookupValue = payload.getLookup_ids().get(lookup);
+
+            List<Map<String, Object>> rows = batch != null && batch.covers(table)
+                    ? batch.rows(table, lookupValue)
+                    : DbUtils.fetchRows(conn, resolver, table, lookup, lookupValue, schema, true);
+            // The expected data is written without the run id, so the rows are compared without it too
+            rows = RunNamespace.strip(rows, payload);
+            // Fetches are timed by DbUtils; this covers the comparison work on the rows
+            long validateStart = System.nanoTime();
+            boolean persistenceValid = ValidationUtils.validateTablePersistence(rows, expectation);
+
+            if (!persistenceValid) {
+                result.getFailureSummary().add(String.format("%s persistence violation", table));
+            }
+            result.addCheck(new CheckResult(Kind.PERSISTENCE, CheckId.of(table), CheckStatus.of(persistenceValid), expectation, rows.size()));
+
+            // If it should persist and it does, perform deeper validation
+            if ("PERSIST".equals(expectation) && !rows.isEmpty()) {
+                ExpectedRowStore expectedRows = ExpectedRowStore.forTable(table, schema);
+                ValidationPlan plan = ValidationPlan.forSchema(table, schema);
+                for (Map<String, Object> row : rows) {
+                    Map<String, Object> exp = expectedRows.match(row);
+                    if (exp == null) {
+                        result.addCheck(new CheckResult(Kind.ROW_MATCH, CheckId.of(table), CheckStatus.FAIL, "Expected row", "Not found"));
+                        continue;
+                    }
+
+                    // JSON columns are converted once per row and shared by every path read from them
+                    ParsedRow actualRow = new ParsedRow(row);
+                    ParsedRow expectedRow = new ParsedRow(exp);
+
+                    for (ValidationPlan.ColumnCheck check : plan.getColumnChecks()) {
+                        String col = check.getColumn();
+                        CheckId id = CheckId.of(table, col);
+                        // JSON column with field-level validation defined in schema
+                        if (check.isJson()) {
+                            List<Mismatch> jsonErrors = ValidationUtils.validateJsonColumn(
+                                expectedRow, actualRow, col, check.getRequired(), check.getIgnored());
+
+                            // Show individual required attribute results if defined
+                            if (!check.getRequired().isEmpty()) {
+                                for (JsonPath path : check.getRequired()) {
+                                    Mismatch error = find(jsonErrors, path.getPath());
+                                    if (error != null) {
+                                        result.addCheck(jsonFailure(id, error));
+                                    } else {
+                                        result.addCheck(new CheckResult(Kind.JSON_PATH, id.at(path.getPath()), CheckStatus.PASS, "Match", actualRow.value(col, path)));
+                                    }
+                                }
+                            } else if (jsonErrors.isEmpty()) {
+                                result.addCheck(new CheckResult(Kind.JSON_PATH, id, CheckStatus.PASS, "Valid JSON", "Valid JSON"));
+                            } else {
+                                for (Mismatch jsonError : jsonErrors) {
+                                    result.addCheck(jsonFailure(id, jsonError));
+                                }
+                            }
+                            // A failing path the required list does not cover still fails the scenario
+                            if (!jsonErrors.isEmpty()) {
+                                result.setFailed(true);
+                            }
+                            continue;
+                        }
+
+                        // Nested "column.path" or a regular column, with the nullable_presence rule already resolved
+                        Object expectedValue = check.read(expectedRow, actualRow);
+                        Object actualValue = check.read(actualRow, actualRow);
+                        boolean colMatch = check.matches(expectedValue, actualValue);
+                        result.addCheck(new CheckResult(Kind.COLUMN, id, CheckStatus.of(colMatch),
+                                check.isPresenceOnly() ? check.display(expectedValue) : expectedValue,
+                                check.isPresenceOnly() ? check.display(actualValue) : actualValue));
+                    }
+
+                    // Null presence checks: failures first, then the passing ones
+                    ValidationPlan.NullCheck[] nullChecks = plan.getNullChecks();
+                    for (ValidationPlan.NullCheck nc : nullChecks) {
+                        Object actualValue = row.get(nc.getColumn());
+                        if (!nc.passes(actualValue)) {
+                            result.addCheck(new CheckResult(Kind.NULL_CHECK, CheckId.of(table, nc.getColumn()), CheckStatus.FAIL, nc.getExpectation(), actualValue));
+                        }
+                    }
+                    for (ValidationPlan.NullCheck nc : nullChecks) {
+                        Object actualValue = row.get(nc.getColumn());
+                        if (nc.passes(actualValue)) {
+                            result.addCheck(new CheckResult(Kind.NULL_CHECK, CheckId.of(table, nc.getColumn()), CheckStatus.PASS, nc.getExpectation(), actualValue));
+                        }
+                    }
+                }
+            }
+            timed(run, PhaseMetrics.VALIDATE, table, "", System.nanoTime() - validateStart);
+        }
+
+        // 4. SCENARIO-SPECIFIC EXCEPTION PERSISTENCE CHECK
+        if (payload.getCheck_exception_persistence() != null) {
+            for (String table : payload.getCheck_exception_persistence()) {
+                Object lookupValue = payload.getLookup_ids().get("order_id");
+                String[] tableNames = resolver.namesFor(table);
+                long count = 0;
+
+                for (String tableName : tableNames) {
+                    String sql = String.format("SELECT COUNT(*) FROM %s WHERE order_id = ? AND exception IS NOT NULL", tableName);
+                    long fetchStart = System.nanoTime();
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setObject(1, lookupValue);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            if (rs.next()) {
+                                count = rs.getLong(1);
+                                PhaseMetrics.record(PhaseMetrics.FETCH, table, "count", System.nanoTime() - fetchStart);
+                                break; 
+                            }
+                        }
+                    } catch (SQLException e) {
+                        // Table might not exist with this prefix, continue
+                        PhaseMetrics.record(PhaseMetrics.FETCH, table, "error", System.nanoTime() - fetchStart);
+                    }
+                }
+
+                result.addCheck(new CheckResult(Kind.EXCEPTION_PERSISTENCE, CheckId.of(table), CheckStatus.of(count > 0), null, count));
+            }
+        }
+    }
+
+    /** Records a phase sample in the run's histograms and adds it to the scenario's own breakdown. */
+    private static void timed(ScenarioRun run, String phase, String table, String outcome, long nanos) {
+        PhaseMetrics.record(phase, table, outcome, nanos);
+        run.result.addPhaseMs(phase, nanos / 1_000_000.0);
+    }
+
+    private static Mismatch find(List<Mismatch> errors, String path) {
+        for (Mismatch error : errors) {
+            if (path.equals(error.path())) return error;
+        }
+        return null;
+    }
+
+    private static CheckResult jsonFailure(CheckId column, Mismatch error) {
+        return new CheckResult(Kind.JSON_PATH, column.at(error.path()), CheckStatus.FAIL,
+                error.expected(), error.error() != null ? error.error() : error.actual());
+    }
+
+    /** Completes the scenario's result; rendering happens when the result is delivered. */
+    ScenarioResult finish(ScenarioRun run) {
+        run.result.setDurationMs((System.nanoTime() - run.startNanos) / 1_000_000);
+        return run.result;
+    }
+
+    private static void banner(String text) {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println(text);
+        System.out.println("=".repeat(80));
+    }
+
+    private static void section(String title) {
+        System.out.println("\nTABLE : " + title);
+        System.out.println("-".repeat(80));
+    }
+}
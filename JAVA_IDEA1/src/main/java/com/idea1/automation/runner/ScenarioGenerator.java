@@ -0,0 +1,114 @@
+package com.idea1.automation.runner;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.utils.PayloadStream;
+import com.idea1.automation.utils.PayloadTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Expands one scenario into many unique ones for load and soak runs, written as JSON Lines that the Runner streams.
+ * Lookup ids without placeholders get a "-&lt;seq&gt;" suffix, and every string in the scenario equal to an original
+ * lookup value follows it, so an event's id and orderId stay consistent with the lookups the checks use.
+ * Lookup ids and the test_case_id may also use placeholders themselves (see PayloadTemplate). Time placeholders
+ * are left in place and filled in when each scenario is sent.
+ *
+ * Usage: java -jar automation.jar generate --from TC_001 --count 10000 [--in payloads/event_payloads.json]
+ *        [--out payloads/generated.jsonl] [--start 1]
+ */
+public class ScenarioGenerator {
+    private static final ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    public static void main(String[] args) {
+        try {
+            String from = null;
+            String in = Runner.PAYLOADS;
+            String out = "payloads/generated.jsonl";
+            long count = 0;
+            long start = 1;
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+                String value = args[++i];
+                switch (arg) {
+                    case "--from": from = value; break;
+                    case "--in": in = value; break;
+                    case "--out": out = value; break;
+                    case "--count": count = Long.parseLong(value); break;
+                    case "--start": start = Long.parseLong(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            if (from == null || count < 1) {
+                throw new IllegalArgumentException("Usage: generate --from TEST_CASE_ID --count N [--in FILE] [--out FILE] [--start N]");
+            }
+            generate(in, from, count, start, out);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Writes count instances of scenario from, numbered start.., to out; returns the number written. */
+    public static long generate(String in, String from, long count, long start, String out) throws IOException {
+        EventPayload template = find(in, from);
+        Map<String, Object> scenario = mapper.convertValue(template, new TypeReference<Map<String, Object>>() {});
+        Map<String, Object> literalLookups = template.getLookup_ids() != null ? template.getLookup_ids() : new LinkedHashMap<>();
+
+        // Zero-padded so generated ids sort in generation order
+        String seq = "{{SEQ:%0" + String.valueOf(start + count - 1).length() + "d}}";
+        Map<String, Object> lookupSpec = new LinkedHashMap<>();
+        literalLookups.forEach((name, value) ->
+                lookupSpec.put(name, value instanceof String && !((String) value).contains("{{") ? value + "-" + seq : value));
+        PayloadTemplate lookups = PayloadTemplate.compile(lookupSpec);
+
+        Object id = scenario.get("test_case_id");
+        if (id instanceof String && !((String) id).contains("{{")) scenario.put("test_case_id", id + "-" + seq);
+        scenario.remove("lookup_ids");
+        PayloadTemplate body = PayloadTemplate.compile(scenario, literalLookups);
+
+        long began = System.currentTimeMillis();
+        File target = new File(out);
+        if (target.getParentFile() != null) target.getParentFile().mkdirs();
+        try (SequenceWriter writer = mapper.writer().withRootValueSeparator("\n").writeValues(target)) {
+            for (long n = start; n < start + count; n++) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> ids = (Map<String, Object>) lookups.render(n, null, true);
+                @SuppressWarnings("unchecked")
+                Map<String, Object> rendered = (Map<String, Object>) body.render(n, ids, true);
+                writer.write(withLookups(rendered, ids));
+            }
+        }
+        long ms = Math.max(1, System.currentTimeMillis() - began);
+        System.out.printf("   [GENERATE] Wrote %d scenario(s) from %s to %s in %d ms (%.0f scenarios/s, %d slot(s) each)%n",
+                count, from, out, ms, count * 1000.0 / ms, lookups.getSlotCount() + body.getSlotCount());
+        return count;
+    }
+
+    private static EventPayload find(String in, String testCaseId) throws IOException {
+        try (PayloadStream payloads = PayloadStream.open(in)) {
+            while (payloads.hasNext()) {
+                EventPayload payload = payloads.next();
+                if (testCaseId.equals(payload.getTest_case_id())) return payload;
+            }
+        }
+        throw new IllegalArgumentException("No scenario " + testCaseId + " in " + in);
+    }
+
+    /** The rendered scenario with its lookup_ids back after event_type, where scenarios usually keep them. */
+    private static Map<String, Object> withLookups(Map<String, Object> rendered, Map<String, Object> ids) {
+        Map<String, Object> scenario = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : rendered.entrySet()) {
+            scenario.put(e.getKey(), e.getValue());
+            if (e.getKey().equals("event_type")) scenario.put("lookup_ids", ids);
+        }
+        scenario.putIfAbsent("lookup_ids", ids);
+        return scenario;
+    }
+}
@@ -0,0 +1,230 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+import com.idea1.automation.utils.ConnectionPool;
+import com.idea1.automation.utils.PgRowNotifier;
+
+import java.sql.Connection;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Pipelined mode: a trigger thread keeps sending events while a watcher thread polls every outstanding
+ * scenario on one connection and the workers validate scenarios whose rows have appeared.
+ * Back-pressure: at most window scenarios are between trigger and delivery, and the hand-off to validation
+ * is a bounded queue, so a slow validation stage eventually holds back the watcher and then the trigger.
+ */
+class ScenarioPipeline {
+    private static final ScenarioRun END = new ScenarioRun(new EventPayload(), -1);
+    /** Offered to the watch queue by row notifications, only to cut the watcher's wait short */
+    private static final ScenarioRun WAKE = new ScenarioRun(new EventPayload(), -1);
+
+    private final ConnectionPool connections;
+    private final ScenarioExecutor executor;
+    private final ExecutorService workers;
+    private final int concurrency;
+    private final Semaphore window;
+    private final BlockingQueue<ScenarioRun> toValidate;
+    private final BlockingQueue<ScenarioRun> toWatch = new LinkedBlockingQueue<>();
+    private final BlockingQueue<ScenarioResult> completed = new LinkedBlockingQueue<>();
+    private final AtomicInteger triggered = new AtomicInteger();
+    private final AtomicReference<Throwable> fatal = new AtomicReference<>();
+    private volatile boolean triggerDone;
+
+    ScenarioPipeline(ConnectionPool connections, ScenarioExecutor executor, ExecutorService workers, int concurrency, int window, int validationQueue) {
+        this.connections = connections;
+        this.executor = executor;
+        this.workers = workers;
+        this.concurrency = concurrency;
+        this.window = new Semaphore(Math.max(1, window));
+        this.toValidate = new ArrayBlockingQueue<>(Math.max(1, validationQueue));
+    }
+
+    void run(Iterator<EventPayload> payloads, Consumer<ScenarioResult> sink) throws Exception {
+        Thread trigger = daemon("pipeline-trigger", () -> triggerLoop(payloads));
+        Thread watcher = daemon("pipeline-watcher", this::watchLoop);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(this::validateLoop);
+        }
+        trigger.start();
+        watcher.start();
+
+        // Deliver in input order; a result leaves the window only once it has been handed to the sink
+        Map<Integer, ScenarioResult> reorder = new HashMap<>();
+        int next = 0;
+        try {
+            while (!triggerDone || next < triggered.get()) {
+                ScenarioResult result = completed.poll(200, TimeUnit.MILLISECONDS);
+                if (fatal.get() != null) {
+                    throw new IllegalStateException("Pipeline stage failed", fatal.get());
+                }
+                if (result == null) continue;
+                reorder.put(result.getIndex(), result);
+                while (reorder.containsKey(next)) {
+                    sink.accept(reorder.remove(next++));
+                    window.release();
+                }
+            }
+        } finally {
+            trigger.interrupt();
+            watcher.interrupt();
+        }
+    }
+
+    private void triggerLoop(Iterator<EventPayload> payloads) {
+        try {
+            int index = 0;
+            while (payloads.hasNext()) {
+                window.acquire();
+                EventPayload payload = payloads.next();
+                int scenarioIndex = index++;
+                triggered.incrementAndGet();
+                long start = System.nanoTime();
+                ScenarioRun run;
+                try {
+                    run = executor.begin(payload, scenarioIndex);
+                } catch (Exception e) {
+                    // Fails this scenario only, as plain mode does; it still leaves the window on delivery
+                    completed.put(ScenarioEngine.abortedResult(payload, scenarioIndex, e, start));
+                    continue;
+                }
+                if (executor.trigger(run)) {
+                    toWatch.put(run);
+                } else {
+                    toValidate.put(run);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            fatal.compareAndSet(null, t);
+        } finally {
+            triggerDone = true;
+        }
+    }
+
+    private void watchLoop() {
+        List<Watched> active = new ArrayList<>();
+        try (Connection conn = connections.borrow()) {
+            while (!(triggerDone && toWatch.isEmpty() && active.isEmpty())) {
+                long now = System.nanoTime();
+                long nextDue = now + TimeUnit.MILLISECONDS.toNanos(200);
+                Iterator<Watched> it = active.iterator();
+                while (it.hasNext()) {
+                    Watched w = it.next();
+                    if (w.dueNanos > now && !w.woken) {
+                        nextDue = Math.min(nextDue, w.dueNanos);
+                        continue;
+                    }
+                    if (w.state == null) {
+                        // Async send still on its way; polling starts once it is confirmed
+                        if (!w.run.pendingSend.isDone()) {
+                            w.dueNanos = now + TimeUnit.MILLISECONDS.toNanos(10);
+                            nextDue = Math.min(nextDue, w.dueNanos);
+                            continue;
+                        }
+                        if (!executor.confirmSent(w.run)) {
+                            it.remove();
+                            toValidate.put(w.run);
+                            continue;
+                        }
+                        w.state = executor.getAwaiter().start(w.run.payload, w.run.triggeredAtNanos);
+                        subscribe(w);
+                    }
+                    w.woken = false;
+                    boolean done;
+                    try {
+                        done = w.state.poll(conn);
+                    } catch (Exception e) {
+                        System.err.println("   [ERROR] Polling failed for " + w.run.payload.getTest_case_id() + ": " + e.getMessage());
+                        done = true;
+                    }
+                    if (done) {
+                        PersistenceAwaiter.AwaitResult r = w.state.result();
+                        executor.recordAwait(w.run, r.getWaitedMs(), r.getTimeToPersistMs(), r.getTimedOutTables());
+                        w.subscriptions.forEach(PgRowNotifier.Subscription::close);
+                        it.remove();
+                        toValidate.put(w.run);
+                        continue;
+                    }
+                    long sleepMs = Math.min(w.delayMs, w.state.millisUntilNextDeadline());
+                    w.delayMs = Math.min(w.delayMs * 2, Math.max(1, executor.getConfig().getAwaitMaxPollMs()));
+                    w.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sleepMs);
+                    nextDue = Math.min(nextDue, w.dueNanos);
+                }
+
+                long waitNanos = nextDue - System.nanoTime();
+                ScenarioRun arrived = waitNanos > 0 ? toWatch.poll(waitNanos, TimeUnit.NANOSECONDS) : toWatch.poll();
+                while (arrived != null) {
+                    if (arrived != WAKE) {
+                        Watched w = new Watched(arrived, arrived.pendingSend == null ? executor.getAwaiter().start(arrived.payload, arrived.triggeredAtNanos) : null);
+                        if (w.state != null) subscribe(w);
+                        active.add(w);
+                    }
+                    arrived = toWatch.poll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            fatal.compareAndSet(null, t);
+        } finally {
+            try {
+                for (int i = 0; i < concurrency; i++) {
+                    toValidate.put(END);
+                }
+            } catch (InterruptedException e) {
+                // Only happens when the run is being torn down; closing the engine stops the workers
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Hooks the scenario up to row notifications; with them the backoff starts at the slow fallback interval. */
+    private void subscribe(Watched w) {
+        w.subscriptions = w.state.subscribe(() -> {
+            w.woken = true;
+            toWatch.offer(WAKE);
+        });
+        w.delayMs = executor.getAwaiter().initialPollMs(!w.subscriptions.isEmpty());
+    }
+
+    private void validateLoop() {
+        try {
+            while (true) {
+                ScenarioRun run = toValidate.take();
+                if (run == END) return;
+                completed.put(ScenarioEngine.runGuarded(connections, run.payload, run.result.getIndex(), conn -> {
+                    executor.validate(conn, run, null);
+                    return executor.finish(run);
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread daemon(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static class Watched {
+        final ScenarioRun run;
+        PersistenceAwaiter.AwaitState state;
+        List<PgRowNotifier.Subscription> subscriptions = Collections.emptyList();
+        volatile boolean woken;
+        long delayMs;
+        long dueNanos;
+
+        Watched(ScenarioRun run, PersistenceAwaiter.AwaitState state) {
+            this.run = run;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mutable state of one scenario while it moves through the trigger, await and validation stages.
+ * Only one thread works on a run at a time.
+ */
+class ScenarioRun {
+    final EventPayload payload;
+    final ScenarioResult result = new ScenarioResult();
+    final long startNanos = System.nanoTime();
+    // {{SEQ}} of this scenario: its payload file position, or the engine index when that is unknown
+    final long seq;
+    CompletableFuture<Void> pendingSend;
+    long sendStartNanos;
+    long triggeredAtNanos;
+
+    ScenarioRun(EventPayload payload, int index) {
+        this.payload = payload;
+        this.seq = seq(payload, index);
+        result.setIndex(index);
+        result.setTest_case_id(payload.getTest_case_id());
+        result.setScenario_name(payload.getScenario_name());
+        result.setEvent_type(payload.getEvent_type());
+    }
+
+    static long seq(EventPayload payload, int index) {
+        return payload.getFile_position() >= 0 ? payload.getFile_position() : index;
+    }
+}
@@ -0,0 +1,183 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+import com.idea1.automation.model.ShardManifest;
+import com.idea1.automation.utils.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Combines the shards of a sharded run into the report, results JSON and JUnit file a single run would have written.
+ * Reads every reports/idea1_shard-i-of-N.json manifest and the journal it names, puts the results back into
+ * payload order, and checks each scenario was run by the shard that owns it. A shard run with --cases, --tag or
+ * --order-id only owns the scenarios its selection picked, so the others are not reported missing.
+ *
+ * Usage: java -jar automation.jar merge [dir]   (dir defaults to reports; copy every shard's reports there first)
+ */
+public class ShardMerger {
+    private static final Pattern MANIFEST = Pattern.compile("idea1_shard-(\\d+)-of-(\\d+)\\.json");
+
+    public static void main(String[] args) {
+        try {
+            merge(args.length > 0 ? args[0] : "reports");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void merge(String dir) throws IOException {
+        List<ShardManifest> shards = loadManifests(Paths.get(dir));
+        int count = shards.get(0).getShard_count();
+        DbConfig dbConfig = JsonUtils.loadJson("config/db_config.json", DbConfig.class);
+
+        List<Map<String, ScenarioResult>> journaled = loadJournals(Paths.get(dir), shards);
+        List<ScenarioResult> results = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        // Only ids and lookups are needed to put the results in payload order
+        String payloadPath = shards.get(0).getPayloads() != null ? shards.get(0).getPayloads() : Runner.PAYLOADS;
+        List<Set<String>> selections = loadSelections(payloadPath, shards);
+        try (PayloadStream payloads = PayloadStream.openHeaders(payloadPath)) {
+            while (payloads.hasNext()) {
+                EventPayload payload = payloads.next();
+                int owner = ShardSpec.shardOf(payload, count);
+                Set<String> selection = selections.get(owner - 1);
+                if (selection != null && !selection.contains(payload.getTest_case_id())) continue;
+                ScenarioResult r = journaled.get(owner - 1).get(payload.getTest_case_id());
+                if (r == null) {
+                    missing.add(payload.getTest_case_id() + " (shard " + owner + "/" + count + ")");
+                    continue;
+                }
+                r.setIndex(results.size());
+                results.add(r);
+            }
+        }
+
+        RunSummary summary = new RunSummary();
+        long wallClockMs = 0;
+        for (ShardManifest m : shards) wallClockMs = Math.max(wallClockMs, m.getWall_clock_ms());
+        String reportPath = Paths.get(dir, "idea1_report.html").toString();
+        String resultsPath = Paths.get(dir, "idea1_results.json").toString();
+        String junitPath = Paths.get(dir, "idea1_junit.xml").toString();
+        try (ReportWriter report = new ReportWriter(reportPath);
+             ResultExporter exporter = new ResultExporter(resultsPath, junitPath, "idea1")) {
+            report.write(ReportUtils.getHtmlHeader(dbConfig.getJiraBaseUrl(), dbConfig.getJiraProjectKey()));
+            report.write("<div class=\"summary-cards\" id=\"summary-cards\"></div>\n");
+            report.write("<div class=\"layout\">\n<aside class=\"sidebar\">\n<h3>Test Scenarios</h3>\n</aside>\n<main class=\"content\">\n");
+            report.write(ReportUtils.getShardBlock(shards, missing));
+            report.write("<div class=\"case-viewport\" id=\"case-viewport\"></div>\n");
+            for (ScenarioResult r : results) {
+                report.writeScenario(r);
+                exporter.add(r);
+                summary.add(r);
+            }
+            // Shards run side by side, so the suite took as long as the slowest one
+            summary.setWallClockMs(wallClockMs);
+
+            List<Map<String, Object>> cards = new ArrayList<>();
+            cards.add(ReportUtils.summaryCard("Total Scenarios", summary.getTotalCases(), null));
+            cards.add(ReportUtils.summaryCard("Scenarios Passed", summary.getPassedScenarios(), "pass"));
+            cards.add(ReportUtils.summaryCard("Scenarios Failed", summary.getFailedScenarios(), "fail"));
+            if (!missing.isEmpty()) cards.add(ReportUtils.summaryCard("Missing From Shards", missing.size(), "fail"));
+            cards.add(ReportUtils.summaryCard("Wall Clock / Serial", String.format("%.1fs / %.1fs", summary.getWallClockMs() / 1000.0, summary.getSerialMs() / 1000.0), null));
+            cards.add(ReportUtils.summaryCard(String.format("Speedup (%d shards)", count), String.format("%.2fx", summary.getSpeedup()), null));
+            cards.add(ReportUtils.summaryCard("Time-to-Persist Avg / Max", String.format("%d / %d ms", summary.getAvgTimeToPersistMs(), summary.getMaxTimeToPersistMs()), null));
+            report.finish(cards);
+            exporter.finish(summary.getWallClockMs());
+        }
+
+        Runner.banner(String.format("MERGED RUN SUMMARY (%d shards)\nSCENARIOS : %d (passed %d, failed %d, missing %d)\nWALL CLOCK: %.1fs (slowest shard)\nSERIAL    : %.1fs (sum of scenario times)\nSPEEDUP   : %.2fx\nPERSIST   : avg %d ms, max %d ms",
+                count, summary.getTotalCases(), summary.getPassedScenarios(), summary.getFailedScenarios(), missing.size(),
+                summary.getWallClockMs() / 1000.0, summary.getSerialMs() / 1000.0, summary.getSpeedup(),
+                summary.getAvgTimeToPersistMs(), summary.getMaxTimeToPersistMs()));
+        for (ShardManifest m : shards) {
+            System.out.printf("   [SHARD] %d/%d: %d scenario(s), %d failed, %.1fs with %d worker(s), %.1f events/s via %s%n",
+                    m.getShard_index(), m.getShard_count(), m.getScenarios(), m.getFailed(), m.getWall_clock_ms() / 1000.0,
+                    m.getConcurrency(), m.getEvents_per_second(), m.getTransport());
+        }
+        if (!missing.isEmpty()) {
+            System.err.printf("   [SHARD] %d scenario(s) have no result in their shard's journal: %s%n", missing.size(),
+                    String.join(", ", missing.subList(0, Math.min(20, missing.size()))) + (missing.size() > 20 ? ", ..." : ""));
+        }
+        System.out.println("   [REPORT] Merged report: " + reportPath);
+        System.out.println("   [REPORT] Results exported to " + resultsPath + " and " + junitPath);
+    }
+
+    /**
+     * The manifests of one sharded run, by shard index. When the directory holds manifests of runs with different
+     * shard counts, the most recently finished run wins. Fails when any of its shards has no manifest.
+     */
+    private static List<ShardManifest> loadManifests(Path dir) throws IOException {
+        Map<Integer, Map<Integer, ShardManifest>> byCount = new HashMap<>();
+        Map<Integer, Long> latest = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "idea1_shard-*-of-*.json")) {
+            for (Path file : files) {
+                Matcher m = MANIFEST.matcher(file.getFileName().toString());
+                if (!m.matches()) continue;
+                ShardManifest manifest = JsonUtils.loadJson(file.toString(), ShardManifest.class);
+                byCount.computeIfAbsent(manifest.getShard_count(), k -> new TreeMap<>()).put(manifest.getShard_index(), manifest);
+                latest.merge(manifest.getShard_count(), manifest.getFinished_at(), Math::max);
+            }
+        }
+        if (byCount.isEmpty()) {
+            throw new IllegalStateException("No shard manifests (idea1_shard-i-of-N.json) found in " + dir);
+        }
+        int count = Collections.max(latest.entrySet(), Map.Entry.comparingByValue()).getKey();
+        if (byCount.size() > 1) {
+            System.err.println("   [SHARD] Manifests for several shard counts in " + dir + "; merging the latest run, " + count + " shards");
+        }
+        Map<Integer, ShardManifest> shards = byCount.get(count);
+        List<Integer> absent = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            if (!shards.containsKey(i)) absent.add(i);
+        }
+        if (!absent.isEmpty()) {
+            throw new IllegalStateException("Shard(s) " + absent + " of " + count + " have not finished (no manifest in " + dir + ")");
+        }
+        return new ArrayList<>(shards.values());
+    }
+
+    /**
+     * The test_case_ids each shard selected, indexed by shard_index - 1; null for a shard that ran every scenario
+     * it owns. The selection is looked up through the payload file's index, as the shard itself did.
+     */
+    static List<Set<String>> loadSelections(String payloadPath, List<ShardManifest> shards) throws IOException {
+        List<Set<String>> selections = new ArrayList<>(Collections.nCopies(shards.size(), null));
+        PayloadIndex index = null;
+        for (ShardManifest m : shards) {
+            if (m.getCases() == null && m.getTags() == null && m.getOrder_ids() == null) continue;
+            if (index == null) index = PayloadIndex.forFile(payloadPath);
+            Set<String> ids = new HashSet<>();
+            for (PayloadIndex.Entry e : index.select(orEmpty(m.getCases()), orEmpty(m.getTags()), orEmpty(m.getOrder_ids()))) {
+                ids.add(e.getTest_case_id());
+            }
+            selections.set(m.getShard_index() - 1, ids);
+        }
+        return selections;
+    }
+
+    private static List<String> orEmpty(List<String> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+
+    /** Journals indexed by shard_index - 1. */
+    private static List<Map<String, ScenarioResult>> loadJournals(Path dir, List<ShardManifest> shards) throws IOException {
+        List<Map<String, ScenarioResult>> journaled = new ArrayList<>(Collections.nCopies(shards.size(), null));
+        for (ShardManifest m : shards) {
+            Path journal = dir.resolve(m.getJournal());
+            if (!Files.exists(journal)) {
+                throw new IllegalStateException("Journal of shard " + m.getShard_index() + "/" + m.getShard_count() + " not found: " + journal);
+            }
+            journaled.set(m.getShard_index() - 1, ResultJournal.load(journal.toString()));
+        }
+        return journaled;
+    }
+}
@@ -0,0 +1,111 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.EventPayload;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * Which part of the suite a Runner owns when the suite is split across JVMs: shard i of N, counted from 1.
+ * A scenario goes to the shard picked by the CRC32 of its order_id lookup, or of its test_case_id when it has none,
+ * so every shard computes the same partition from the same payload file, and scenarios about one order never run
+ * against each other on different shards.
+ */
+public class ShardSpec {
+    /** The whole suite in one run. */
+    public static final ShardSpec NONE = new ShardSpec(1, 1);
+
+    private final int index;
+    private final int count;
+
+    public ShardSpec(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard must be i/N with 1 <= i <= N but got: " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /** Parses "i/N", e.g. "2/4". */
+    public static ShardSpec parse(String value) {
+        int slash = value.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("--shard expects i/N (e.g. 2/4) but got: " + value);
+        }
+        try {
+            return new ShardSpec(Integer.parseInt(value.substring(0, slash).trim()), Integer.parseInt(value.substring(slash + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--shard expects i/N (e.g. 2/4) but got: " + value);
+        }
+    }
+
+    public boolean isSharded() { return count > 1; }
+    public int getIndex() { return index; }
+    public int getCount() { return count; }
+
+    /** The 1-based shard a scenario belongs to out of count. */
+    public static int shardOf(EventPayload payload, int count) {
+        CRC32 crc = new CRC32();
+        crc.update(keyOf(payload).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % count) + 1;
+    }
+
+    static String keyOf(EventPayload payload) {
+        Map<String, Object> lookups = payload.getLookup_ids();
+        Object orderId = lookups != null ? lookups.get("order_id") : null;
+        if (orderId != null && !orderId.toString().isEmpty()) return "order_id:" + orderId;
+        return "test_case_id:" + payload.getTest_case_id();
+    }
+
+    public boolean owns(EventPayload payload) {
+        return !isSharded() || shardOf(payload, count) == index;
+    }
+
+    /** This shard's scenarios, in payload order, read from payloads as the result is iterated. */
+    public Iterator<EventPayload> select(Iterator<EventPayload> payloads) {
+        if (!isSharded()) return payloads;
+        return new Iterator<EventPayload>() {
+            private EventPayload next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && payloads.hasNext()) {
+                    EventPayload payload = payloads.next();
+                    if (owns(payload)) next = payload;
+                }
+                return next != null;
+            }
+
+            @Override
+            public EventPayload next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                EventPayload payload = next;
+                next = null;
+                return payload;
+            }
+        };
+    }
+
+    /** Output path for this shard: "reports/idea1_report.html" becomes "reports/idea1_report.shard-2-of-4.html". */
+    public String path(String path) {
+        if (!isSharded()) return path;
+        int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        int dot = path.lastIndexOf('.');
+        String suffix = ".shard-" + index + "-of-" + count;
+        return dot > slash ? path.substring(0, dot) + suffix + path.substring(dot) : path + suffix;
+    }
+
+    /** Where this shard writes its ShardManifest, e.g. reports/idea1_shard-2-of-4.json. */
+    public String manifestPath(String dir) {
+        return Paths.get(dir, "idea1_shard-" + index + "-of-" + count + ".json").toString();
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
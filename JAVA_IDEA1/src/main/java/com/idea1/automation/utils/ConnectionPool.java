@@ -0,0 +1,229 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.DbConfig;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small bounded JDBC pool. Connections are created through DbUtils.getConnection, validated on borrow,
+ * and handed out as proxies whose close() returns them to the pool instead of closing the socket.
+ * Against Azure SQL over TLS the handshake dominates, so the pool is pre-warmed to its minimum size.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final DbConfig config;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final int validationTimeoutSec;
+
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong totalCreateNanos = new AtomicLong();
+    private final AtomicLong maxCreateNanos = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private volatile boolean closed;
+
+    public ConnectionPool(DbConfig config, int minSize, int maxSize, long borrowTimeoutMs, int validationTimeoutSec) {
+        this.config = config;
+        this.maxSize = Math.max(1, maxSize);
+        this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /** Opens connections up to the minimum size so the first scenarios do not pay for the handshake. */
+    public void warmUp() throws SQLException {
+        while (total.get() < minSize) {
+            idle.offerLast(create());
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout when all connections are in use.
+     * Closing the returned connection gives it back to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException(String.format("Timed out after %d ms waiting for a pooled connection (%d active)", borrowTimeoutMs, active.get()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+
+        try {
+            Connection conn = idle.pollFirst();
+            while (conn != null && !isValid(conn)) {
+                validationFailures.incrementAndGet();
+                discard(conn);
+                conn = idle.pollFirst();
+            }
+            if (conn == null) {
+                conn = create();
+            }
+            long waited = System.nanoTime() - waitStart;
+            borrows.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            active.incrementAndGet();
+            return wrap(conn);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolMetrics metrics() {
+        PoolMetrics m = new PoolMetrics();
+        m.minSize = minSize;
+        m.maxSize = maxSize;
+        m.active = active.get();
+        m.idle = idle.size();
+        m.created = created.get();
+        m.borrows = borrows.get();
+        m.validationFailures = validationFailures.get();
+        m.avgWaitMs = m.borrows > 0 ? totalWaitNanos.get() / m.borrows / 1_000_000.0 : 0;
+        m.maxWaitMs = maxWaitNanos.get() / 1_000_000.0;
+        m.avgCreateMs = m.created > 0 ? totalCreateNanos.get() / m.created / 1_000_000.0 : 0;
+        m.maxCreateMs = maxCreateNanos.get() / 1_000_000.0;
+        return m;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            discard(conn);
+        }
+    }
+
+    private Connection create() throws SQLException {
+        long start = System.nanoTime();
+        Connection conn = DbUtils.getConnection(config);
+        long elapsed = System.nanoTime() - start;
+        created.incrementAndGet();
+        totalCreateNanos.addAndGet(elapsed);
+        maxCreateNanos.accumulateAndGet(elapsed, Math::max);
+        total.incrementAndGet();
+        return conn;
+    }
+
+    private boolean isValid(Connection conn) {
+        try {
+            return conn.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection conn) {
+        total.decrementAndGet();
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("   [POOL] Failed to close connection: " + e.getMessage());
+        }
+    }
+
+    private void release(Connection conn) {
+        active.decrementAndGet();
+        try {
+            if (closed || conn.isClosed()) {
+                discard(conn);
+                return;
+            }
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            idle.offerFirst(conn);
+        } catch (SQLException e) {
+            discard(conn);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection wrap(Connection target) {
+        boolean[] returned = {false};
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            synchronized (returned) {
+                                if (!returned[0]) {
+                                    returned[0] = true;
+                                    release(target);
+                                }
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned[0] || target.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled[" + target + "]";
+                        default:
+                            if (returned[0]) throw new SQLException("Connection has been returned to the pool");
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    public static class PoolMetrics {
+        private int minSize;
+        private int maxSize;
+        private int active;
+        private int idle;
+        private long created;
+        private long borrows;
+        private long validationFailures;
+        private double avgWaitMs;
+        private double maxWaitMs;
+        private double avgCreateMs;
+        private double maxCreateMs;
+
+        public int getMinSize() { return minSize; }
+        public int getMaxSize() { return maxSize; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public long getCreated() { return created; }
+        public long getBorrows() { return borrows; }
+        public long getValidationFailures() { return validationFailures; }
+        public double getAvgWaitMs() { return avgWaitMs; }
+        public double getMaxWaitMs() { return maxWaitMs; }
+        public double getAvgCreateMs() { return avgCreateMs; }
+        public double getMaxCreateMs() { return maxCreateMs; }
+
+        @Override
+        public String toString() {
+            return String.format("size %d-%d, active %d, idle %d, created %d (avg %.1f ms, max %.1f ms), borrows %d (avg wait %.2f ms, max %.2f ms), validation failures %d",
+                    minSize, maxSize, active, idle, created, avgCreateMs, maxCreateMs, borrows, avgWaitMs, maxWaitMs, validationFailures);
+        }
+    }
+}
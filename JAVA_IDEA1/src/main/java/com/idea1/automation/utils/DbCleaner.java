@@ -0,0 +1,231 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.TableSchema;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Pre-test cleanup of every table in table_schema.json (except those with "cleanup": false), in one of three modes:
+ *
+ *   all       DELETE every row, then run the configured seed statements (the historical behaviour)
+ *   truncate  TRUNCATE, falling back to DELETE where the database refuses it (foreign keys, permissions)
+ *   scoped    DELETE only the rows whose primary_lookup value belongs to a scenario of this run, in JDBC batches;
+ *             rows of other runs sharing the database are left alone
+ *
+ * With cleanupParallel each table is cleaned on its own pooled connection. Every table reports its method,
+ * row count and time, and a failure on one table does not stop the others.
+ */
+public class DbCleaner {
+    public static final String ALL = "all";
+    public static final String TRUNCATE = "truncate";
+    public static final String SCOPED = "scoped";
+
+    private DbCleaner() { }
+
+    /**
+     * Cleans the schema tables. scope holds, per lookup column, the values of this run's scenarios; only scoped
+     * mode reads it.
+     */
+    public static List<TableCleanup> clean(ConnectionPool pool, DbConfig config, Map<String, TableSchema> schemas,
+                                           TableResolver resolver, Map<String, Set<Object>> scope) throws SQLException {
+        String mode = config.getCleanupMode();
+        if (!ALL.equals(mode) && !TRUNCATE.equals(mode) && !SCOPED.equals(mode)) {
+            throw new IllegalArgumentException("cleanupMode must be all, truncate or scoped but got: " + mode);
+        }
+        List<String> tables = new ArrayList<>();
+        for (Map.Entry<String, TableSchema> e : schemas.entrySet()) {
+            if (e.getValue().getCleanup() == null || e.getValue().getCleanup()) tables.add(e.getKey());
+        }
+
+        List<TableCleanup> results = new ArrayList<>();
+        int threads = config.isCleanupParallel() ? Math.min(tables.size(), pool.metrics().getMaxSize()) : 1;
+        if (threads <= 1) {
+            try (Connection conn = pool.borrow()) {
+                for (String table : tables) {
+                    results.add(cleanTable(conn, config, table, schemas.get(table), resolver, scope));
+                }
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "idea1-cleanup");
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                List<Future<TableCleanup>> futures = new ArrayList<>();
+                for (String table : tables) {
+                    futures.add(executor.submit(() -> {
+                        try (Connection conn = pool.borrow()) {
+                            return cleanTable(conn, config, table, schemas.get(table), resolver, scope);
+                        }
+                    }));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        results.add(futures.get(i).get());
+                    } catch (ExecutionException e) {
+                        TableCleanup failed = new TableCleanup(tables.get(i));
+                        failed.error = e.getCause().getMessage();
+                        results.add(failed);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted during cleanup", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        List<String> seeds = config.getCleanupSeedStatements();
+        if ((ALL.equals(mode) || TRUNCATE.equals(mode)) && seeds != null && !seeds.isEmpty()) {
+            results.add(seed(pool, seeds));
+        }
+        return results;
+    }
+
+    private static TableCleanup cleanTable(Connection conn, DbConfig config, String table, TableSchema schema,
+                                           TableResolver resolver, Map<String, Set<Object>> scope) {
+        TableCleanup result = new TableCleanup(table);
+        long start = System.nanoTime();
+        String[] names = resolver.namesFor(table);
+        if (names.length == 0) {
+            result.method = "skipped";
+            result.error = "table not found";
+        }
+        // Without database metadata the resolver offers the historical candidates; the first that works is the table
+        for (String name : names) {
+            result.physical = name;
+            result.error = null;
+            try {
+                switch (config.getCleanupMode()) {
+                    case SCOPED:
+                        deleteScoped(conn, config, name, schema, scope, result);
+                        break;
+                    case TRUNCATE:
+                        truncate(conn, name, result);
+                        break;
+                    default:
+                        deleteAll(conn, name, result);
+                }
+                break;
+            } catch (SQLException e) {
+                result.error = e.getMessage();
+            }
+        }
+        result.ms = (System.nanoTime() - start) / 1_000_000;
+        if (result.error != null) {
+            System.err.printf("   [CLEANUP ERROR] %s: %s%n", table, result.error);
+        } else {
+            System.out.printf("   [CLEANUP] %s: %s, %s in %d ms%n", result.physical, result.method,
+                    result.rows >= 0 ? result.rows + " row(s)" : "row count n/a", result.ms);
+        }
+        return result;
+    }
+
+    private static void deleteAll(Connection conn, String table, TableCleanup result) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            result.rows = st.executeUpdate("DELETE FROM " + table);
+            result.method = "delete";
+        }
+    }
+
+    private static void truncate(Connection conn, String table, TableCleanup result) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("TRUNCATE TABLE " + table);
+            result.rows = -1;
+            result.method = "truncate";
+        } catch (SQLException e) {
+            if (!conn.getAutoCommit()) conn.rollback();
+            deleteAll(conn, table, result);
+            result.method = "delete (truncate refused: " + e.getMessage().split("\n")[0] + ")";
+        }
+    }
+
+    private static void deleteScoped(Connection conn, DbConfig config, String table, TableSchema schema,
+                                     Map<String, Set<Object>> scope, TableCleanup result) throws SQLException {
+        String column = schema.getPrimary_lookup();
+        Set<Object> values = column != null ? scope.get(column) : null;
+        result.method = "scoped delete";
+        if (values == null || values.isEmpty()) {
+            result.rows = 0;
+            result.method = column == null ? "skipped (no primary_lookup)" : "skipped (no " + column + " in this run)";
+            return;
+        }
+        int batchSize = Math.max(1, config.getCleanupBatchSize());
+        long rows = 0;
+        int pending = 0;
+        int batches = 0;
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + table + " WHERE " + column + " = ?")) {
+            for (Object value : values) {
+                ps.setObject(1, value);
+                ps.addBatch();
+                if (++pending == batchSize) {
+                    rows += sum(ps.executeBatch());
+                    batches++;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                rows += sum(ps.executeBatch());
+                batches++;
+            }
+        }
+        result.rows = rows;
+        result.method = String.format("scoped delete, %d key(s) in %d batch(es)", values.size(), batches);
+    }
+
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int c : counts) {
+            if (c > 0) total += c;
+        }
+        return total;
+    }
+
+    /** Fixture rows the suite expects after a full wipe (cleanupSeedStatements). */
+    private static TableCleanup seed(ConnectionPool pool, List<String> statements) throws SQLException {
+        TableCleanup result = new TableCleanup("(seed statements)");
+        result.method = statements.size() + " seed statement(s)";
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow(); Statement st = conn.createStatement()) {
+            for (String sql : statements) {
+                try {
+                    result.rows += st.executeUpdate(sql);
+                } catch (SQLException e) {
+                    // Typically the fixture row survived because its table is not cleaned; the others still run
+                    result.error = (result.error == null ? "" : result.error + "; ") + e.getMessage().split("\n")[0];
+                }
+            }
+        }
+        result.ms = (System.nanoTime() - start) / 1_000_000;
+        if (result.error != null) {
+            System.err.println("   [CLEANUP ERROR] Seed statements: " + result.error);
+        }
+        return result;
+    }
+
+    public static class TableCleanup {
+        private final String table;
+        private String physical;
+        private String method;
+        private long rows;
+        private long ms;
+        private String error;
+
+        TableCleanup(String table) {
+            this.table = table;
+        }
+
+        public String getTable() { return table; }
+        public String getPhysical() { return physical; }
+        public String getMethod() { return method; }
+        /** Rows removed, or -1 when the method does not report them (TRUNCATE). */
+        public long getRows() { return rows; }
+        public long getMs() { return ms; }
+        public String getError() { return error; }
+    }
+}
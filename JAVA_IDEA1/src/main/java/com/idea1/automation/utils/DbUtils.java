@@ -1,15 +1,11 @@
 package com.idea1.automation.utils;
 
 import com.idea1.automation.model.DbConfig;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import com.idea1.automation.model.TableSchema;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.List;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
 
 public class DbUtils {
     public static Connection getConnection(DbConfig config) throws SQLException {
@@ -21,6 +17,26 @@ public class DbUtils {
         return DriverManager.getConnection(url);
     }
 
+    /** True when getConnection targets PostgreSQL: the default host/port URL or a jdbc:postgresql connection string. */
+    public static boolean isPostgres(DbConfig config) {
+        String url = config.getDbConnectionString();
+        return url == null || url.isEmpty() || url.startsWith("jdbc:postgresql:");
+    }
+
+    /**
+     * Builds and pre-warms a pool for the run. Unset sizes follow the worker count:
+     * one connection per worker plus one for cleanup and other control queries.
+     */
+    public static ConnectionPool createPool(DbConfig config) throws SQLException {
+        int max = config.getPoolMaxSize() > 0 ? config.getPoolMaxSize() : config.getConcurrency() + 1;
+        int min = config.getPoolMinSize() >= 0 ? config.getPoolMinSize() : Math.min(max, config.getConcurrency());
+        ConnectionPool pool = new ConnectionPool(config, min, max, config.getPoolBorrowTimeoutMs(), config.getPoolValidationTimeoutSec());
+        long start = System.nanoTime();
+        pool.warmUp();
+        System.out.printf("   [POOL] Warmed %d connection(s) in %d ms (max %d)%n", min, (System.nanoTime() - start) / 1_000_000, max);
+        return pool;
+    }
+
     public static void deleteTableData(Connection conn, List<String> tables, String lookupCol, Object lookupValue) throws SQLException {
         if (tables == null || tables.isEmpty()) return;
         
@@ -37,22 +53,191 @@ public class DbUtils {
         }
     }
     
-    public static void deleteallTableData(Connection conn) throws SQLException {
-        
-            String sql = "delete from dcc.dcc_job_queue;\r\n"
-            		+ "delete from dcc.dcc_job_queue_arch;\r\n"
-            		+ "delete from dcc.dcc_active_queue;\r\n"
-            		+ "delete from dcc.dcc_audit;\r\n"
-            		+ "delete from dcc.dcc_event_consumption_stats;\r\n"
-            		+ "delete from dcc.dcc_event_handled;\r\n"
-            		+ "delete from dcc.dcc_ord_rist_items;\r\n"
-            		+ "insert into  dcc.dcc_customer_details values ('59001008',true,'col-dcc1008','7674','2025-10-31 16:57:52.196353')";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {                
-                int rowsDeleted = pstmt.executeUpdate();
-                System.out.printf("   [CLEANUP] Deleted %d rows from database got deleted", rowsDeleted);
+    public static List<Map<String, Object>> fetchRows(Connection conn, String table, String lookup, Object value, TableSchema schema) throws SQLException {
+        return fetchRows(conn, table, lookup, value, schema, true);
+    }
+
+    public static List<Map<String, Object>> fetchRows(Connection conn, String table, String lookup, Object value, TableSchema schema, boolean verbose) throws SQLException {
+        // Try both with and without dcc. prefix if it fails
+        return fetchRows(conn, TableResolver.candidates(table), table, lookup, value, schema, verbose);
+    }
+
+    public static List<Map<String, Object>> fetchRows(Connection conn, TableResolver resolver, String table, String lookup, Object value, TableSchema schema, boolean verbose) throws SQLException {
+        return fetchRows(conn, resolver.namesFor(table), table, lookup, value, schema, verbose);
+    }
+
+    /**
+     * Fetches the rows for one lookup value, trying the given physical table names in turn.
+     * Pass verbose=false from polling loops so each attempt does not print SQL to the console.
+     */
+    public static List<Map<String, Object>> fetchRows(Connection conn, String[] tableNames, String table, String lookup, Object value, TableSchema schema, boolean verbose) throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        SQLException lastEx = null;
+        if (tableNames.length == 0 && verbose) {
+            System.err.println("   [SQL ERROR] Table " + table + " does not exist in the database (see resolver report)");
+        }
+
+        for (String tableName : tableNames) {
+            String cols = columnList(lookup, schema);
+            String sql = String.format("SELECT %s FROM %s WHERE %s = ?", cols, tableName, lookup);
+            if (verbose) System.out.println("   [DEBUG] Executing: " + sql + " with value: " + value);
+            long start = System.nanoTime();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                if (value == null) {
+                    stmt.setNull(1, Types.VARCHAR);
+                } else {
+                    stmt.setObject(1, value);
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        Map<String, Object> row = mapRow(rs, meta);
+                        if (verbose && row.isEmpty()) {
+                            System.out.println("   [DEBUG] Row found but no columns were mapped correctly.");
+                        } else if (verbose) {
+                            System.out.println("   [DEBUG] Row mapped columns: " + row.keySet());
+                        }
+                        rows.add(row);
+                    }
+                    PhaseMetrics.record(PhaseMetrics.FETCH, table, rows.isEmpty() ? "empty" : "hit", System.nanoTime() - start);
+                    if (!rows.isEmpty()) return rows; // Success!
+                }
             } catch (SQLException e) {
-                System.err.printf("   [CLEANUP ERROR] Failed to delete ");
-                // Don't throw exception, just log and continue for other tables
+                // Failed prefix attempts are timed too; on a database without the resolver they are most of the cost
+                PhaseMetrics.record(PhaseMetrics.FETCH, table, "error", System.nanoTime() - start);
+                lastEx = e;
+                if (verbose) System.out.println("   [DEBUG] Attempt with " + tableName + " failed: " + e.getMessage());
+                // Continue to next table name attempt
             }
+        }
+        
+        if (lastEx != null && verbose) {
+            System.err.println("   [SQL ERROR] Fetch failed for table " + table + ": " + lastEx.getMessage());
+        }
+        return rows;
+    }
+
+    /**
+     * Fetches the rows for many lookup values of one physical table and groups them by lookup value.
+     * Values are sent in chunks of at most chunkSize parameters so SQL Server's 2100 parameter limit is never hit;
+     * on PostgreSQL an all-string chunk is bound as a single array with = ANY(?).
+     * Keys are batchKey(lookup value), so numeric ids in payloads match varchar columns and CHAR padding or NUMERIC
+     * scale do not hide a row. Rows the database matched but no key claims (case-insensitive collations) are
+     * attributed by a case-insensitive key when that is unique; otherwise the values left without rows are
+     * re-checked with the single-row query. Fetch times are recorded under the logical table, as fetchRows does, so both modes share one series.
+     */
+    public static Map<String, List<Map<String, Object>>> fetchRowsBatch(Connection conn, String table, String tableName, String lookup, Collection<?> values, TableSchema schema, int chunkSize) throws SQLException {
+        Map<String, List<Map<String, Object>>> rowsByKey = new HashMap<>();
+        List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        distinct.remove(null);
+        if (distinct.isEmpty()) return rowsByKey;
+
+        Map<String, Object> requested = new LinkedHashMap<>();
+        Map<String, String> byFoldedKey = new HashMap<>();
+        for (Object value : distinct) {
+            String key = batchKey(value);
+            requested.putIfAbsent(key, value);
+            // Two requested keys differing only in case cannot be told apart once folded
+            byFoldedKey.merge(key.toLowerCase(Locale.ROOT), key, (a, b) -> a.equals(b) ? a : "");
+        }
+        boolean unattributed = false;
+
+        String cols = columnList(lookup, schema);
+        boolean postgres = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres");
+        int size = Math.max(1, chunkSize);
+
+        for (int from = 0; from < distinct.size(); from += size) {
+            List<Object> chunk = distinct.subList(from, Math.min(from + size, distinct.size()));
+            boolean arrayBinding = postgres && chunk.stream().allMatch(v -> v instanceof String);
+            String sql = arrayBinding
+                    ? String.format("SELECT %s FROM %s WHERE %s = ANY(?)", cols, tableName, lookup)
+                    : String.format("SELECT %s FROM %s WHERE %s IN (%s)", cols, tableName, lookup, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            long start = System.nanoTime();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                if (arrayBinding) {
+                    stmt.setArray(1, conn.createArrayOf("varchar", chunk.toArray()));
+                } else {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setObject(i + 1, chunk.get(i));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        String key = batchKey(rs.getObject(lookup));
+                        if (!requested.containsKey(key)) {
+                            String folded = byFoldedKey.get(key.toLowerCase(Locale.ROOT));
+                            if (folded == null || folded.isEmpty()) {
+                                unattributed = true;
+                                continue;
+                            }
+                            key = folded;
+                        }
+                        rowsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(mapRow(rs, meta));
+                    }
+                }
+            }
+            PhaseMetrics.record(PhaseMetrics.FETCH, table, "batch", System.nanoTime() - start);
+        }
+
+        if (unattributed) {
+            for (Map.Entry<String, Object> e : requested.entrySet()) {
+                if (rowsByKey.containsKey(e.getKey())) continue;
+                List<Map<String, Object>> rows = fetchRows(conn, new String[]{tableName}, table, lookup, e.getValue(), schema, false);
+                if (!rows.isEmpty()) rowsByKey.put(e.getKey(), rows);
+            }
+        }
+        return rowsByKey;
+    }
+
+    /**
+     * Key under which fetchRowsBatch groups rows: strings are trimmed (CHAR padding) and numbers, or decimal
+     * strings, lose trailing zeros, so 42, "42", "42.0" and NUMERIC 42.00 share a key. Use it on both sides.
+     * Integer strings are left alone so "007" and "7" stay distinct in varchar columns.
+     */
+    public static String batchKey(Object value) {
+        if (value == null) return "null";
+        String text = value.toString().trim();
+        if (value instanceof Number || text.matches("[+-]?\\d+\\.\\d+")) {
+            try {
+                return new BigDecimal(text).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return text; // NaN and infinities
+            }
+        }
+        return text;
+    }
+
+    /** Explicit column list (lookup, mandatory and JSON columns) to avoid metadata s_1 issues, or * without a schema. */
+    private static String columnList(String lookup, TableSchema schema) {
+        if (schema == null) return "*";
+        Set<String> allCols = new LinkedHashSet<>();
+        allCols.add(lookup);
+        if (schema.getMandatory_columns() != null) allCols.addAll(schema.getMandatory_columns());
+        if (schema.getJson_columns() != null) allCols.addAll(schema.getJson_columns().keySet());
+        // Remove any nulls or empty strings
+        allCols.remove(null);
+        allCols.remove("");
+        return allCols.isEmpty() ? "*" : String.join(", ", allCols);
+    }
+
+    private static Map<String, Object> mapRow(ResultSet rs, ResultSetMetaData meta) throws SQLException {
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            // Try multiple ways to get the column name
+            String colName = meta.getColumnLabel(i);
+            // Fallback to getColumnName
+            if (colName == null || colName.toLowerCase().matches("s_?\\d+")) {
+                String name = meta.getColumnName(i);
+                if (name != null && !name.toLowerCase().matches("s_?\\d+")) {
+                    colName = name;
+                }
+            }
+            if (colName != null) {
+                row.put(colName, rs.getObject(i));
+            }
+        }
+        return row;
     }
 }
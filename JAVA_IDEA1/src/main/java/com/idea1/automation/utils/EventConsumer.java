@@ -0,0 +1,39 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.TableSchema;
+
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Stands in for the downstream service when events go through the memory transport: it receives each event
+ * on a consumer thread and writes the rows that service would have written. Set memoryConsumer to the class
+ * name of an implementation with a public no-argument constructor; the default replays the expected rows.
+ */
+public interface EventConsumer {
+
+    /** Handles one event. conn is the consumer thread's own connection, in auto-commit mode. */
+    void consume(Connection conn, EventPayload scenario, JsonNode event) throws Exception;
+
+    /** Called once before the first event. */
+    default void init(DbConfig config, TableResolver resolver, Map<String, TableSchema> schemas) { }
+
+    static EventConsumer create(DbConfig config, TableResolver resolver, Map<String, TableSchema> schemas) {
+        EventConsumer consumer;
+        String className = config.getMemoryConsumer();
+        if (className == null || className.isEmpty()) {
+            consumer = new ExpectedRowsConsumer();
+        } else {
+            try {
+                consumer = (EventConsumer) Class.forName(className).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalArgumentException("Cannot create memoryConsumer " + className + ": " + e, e);
+            }
+        }
+        consumer.init(config, resolver, schemas);
+        return consumer;
+    }
+}
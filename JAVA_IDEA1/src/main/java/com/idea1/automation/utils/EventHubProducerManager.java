@@ -0,0 +1,298 @@
+package com.idea1.automation.utils;
+
+import com.azure.core.amqp.AmqpTransportType;
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.EventDataBatch;
+import com.azure.messaging.eventhubs.EventHubClientBuilder;
+import com.azure.messaging.eventhubs.EventHubProducerClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One Event Hub producer for the whole run. Scenario events are queued and a single sender thread packs
+ * everything waiting into EventDataBatches up to the hub's size limit, so concurrent workers share both
+ * the AMQP connection and the sends. A payload that does not fit into an empty batch is split: CloudEvent
+ * arrays are halved recursively until every part fits, and the payload counts as sent when all parts are.
+ * This is the "eventhub" EventTransport.
+ */
+public class EventHubProducerManager implements EventTransport {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Pending STOP = new Pending(null, null, null);
+
+    private final String eventHubName;
+    private final EventHubProducerClient client;
+    private final long lingerMs;
+    private final Semaphore inFlight;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // Held while checking closed and queueing, so nothing can be queued behind STOP
+    private final Object queueLock = new Object();
+    private final Thread sender;
+
+    private final SendMetrics.Recorder recorder = new SendMetrics.Recorder("eventhub");
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong splits = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+    private double fillRatioSum;
+    private long firstSendNanos;
+    private long lastSendNanos;
+    private volatile boolean closed;
+
+    private EventHubProducerManager(DbConfig config) {
+        this.eventHubName = config.getEventHubName();
+        this.lingerMs = Math.max(0, config.getEventHubLingerMs());
+        this.inFlight = new Semaphore(Math.max(1, config.getEventHubMaxInFlight()));
+        if (config.getEventHubConnectionString() == null || eventHubName == null) {
+            System.err.println("Event Hub configuration missing. Skipping event trigger.");
+            this.client = null;
+            this.sender = null;
+            return;
+        }
+        this.client = new EventHubClientBuilder()
+                .connectionString(config.getEventHubConnectionString(), eventHubName)
+                .transportType(AmqpTransportType.AMQP_WEB_SOCKETS)
+                .buildProducerClient();
+        this.sender = new Thread(this::sendLoop, "eventhub-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    /** Opens the run's producer. Without Event Hub configuration every send completes immediately as a no-op. */
+    public static EventHubProducerManager open(DbConfig config) {
+        return new EventHubProducerManager(config);
+    }
+
+    /**
+     * Queues a payload and returns a future that completes once every part of it has been sent.
+     * Blocks while eventHubMaxInFlight payloads are already waiting, which bounds async mode.
+     */
+    @Override
+    public CompletableFuture<Void> submit(EventPayload scenario) throws Exception {
+        if (closed) throw new IllegalStateException("Event Hub producer is closed");
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (client == null) {
+            future.complete(null);
+            return future;
+        }
+        JsonNode node = mapper.valueToTree(scenario.getEvent_payload());
+        byte[] body = mapper.writeValueAsBytes(node);
+        inFlight.acquire();
+        future.whenComplete((v, e) -> inFlight.release());
+        recorder.track(future, body.length);
+        try {
+            synchronized (queueLock) {
+                if (closed) throw new IllegalStateException("Event Hub producer is closed");
+                queue.put(new Pending(node, body, new Group(future)));
+            }
+        } catch (Exception e) {
+            // Releases the permit and settles the tracked future; nothing else would ever complete it
+            future.completeExceptionally(e);
+            throw e;
+        }
+        return future;
+    }
+
+    public boolean isEnabled() { return client != null; }
+
+    public String getEventHubName() { return eventHubName; }
+
+    @Override
+    public String getName() { return "eventhub"; }
+
+    @Override
+    public synchronized SendMetrics metrics() {
+        SendMetrics m = recorder.snapshot();
+        m.batched = true;
+        m.events = events.get();
+        m.batches = batches.get();
+        m.bytes = bytes.get();
+        m.splits = splits.get();
+        m.avgSendMs = m.batches > 0 ? sendNanos.get() / m.batches / 1_000_000.0 : 0;
+        m.avgFillRatio = m.batches > 0 ? fillRatioSum / m.batches : 0;
+        long span = lastSendNanos - firstSendNanos;
+        m.eventsPerSecond = span > 0 ? m.events * 1_000_000_000.0 / span : m.events;
+        return m;
+    }
+
+    /** Sends everything still queued, then closes the connection. */
+    @Override
+    public void close() {
+        synchronized (queueLock) {
+            if (closed) return;
+            closed = true;
+            if (sender != null) queue.add(STOP);
+        }
+        if (sender != null) {
+            try {
+                sender.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            failLeftovers();
+            client.close();
+        }
+    }
+
+    private void sendLoop() {
+        Deque<Pending> backlog = new ArrayDeque<>();
+        boolean stopping = false;
+        while (!stopping || !backlog.isEmpty()) {
+            Pending first;
+            try {
+                first = !backlog.isEmpty() ? backlog.pollFirst() : queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == STOP) {
+                stopping = true;
+                continue;
+            }
+
+            List<Pending> packed = new ArrayList<>();
+            EventDataBatch batch;
+            try {
+                batch = client.createBatch();
+                if (!batch.tryAdd(first.event())) {
+                    split(first, backlog);
+                    continue;
+                }
+                packed.add(first);
+
+                long lingerDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (true) {
+                    Pending next = backlog.pollFirst();
+                    if (next == null && !stopping) {
+                        long remaining = lingerDeadline - System.nanoTime();
+                        next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    }
+                    if (next == null) break;
+                    if (next == STOP) {
+                        stopping = true;
+                        continue;
+                    }
+                    if (!batch.tryAdd(next.event())) {
+                        backlog.addFirst(next);
+                        break;
+                    }
+                    packed.add(next);
+                }
+            } catch (InterruptedException e) {
+                fail(first, e);
+                break;
+            } catch (RuntimeException e) {
+                fail(packed.isEmpty() ? Collections.singletonList(first) : packed, e);
+                continue;
+            }
+            sendBatch(batch, packed);
+        }
+        // Anything left behind after an interrupt must not leave callers waiting forever
+        for (Pending p : backlog) fail(p, new IllegalStateException("Event Hub producer stopped"));
+        failLeftovers();
+    }
+
+    private void failLeftovers() {
+        Pending leftover;
+        while ((leftover = queue.poll()) != null) {
+            if (leftover != STOP) fail(leftover, new IllegalStateException("Event Hub producer stopped"));
+        }
+    }
+
+    private void sendBatch(EventDataBatch batch, List<Pending> packed) {
+        long start = System.nanoTime();
+        try {
+            client.send(batch);
+        } catch (RuntimeException e) {
+            System.err.println("   [ERROR] Failed to send batch of " + packed.size() + " event(s): " + e.getMessage());
+            fail(packed, e);
+            return;
+        }
+        long end = System.nanoTime();
+        synchronized (this) {
+            if (firstSendNanos == 0) firstSendNanos = start;
+            lastSendNanos = end;
+            fillRatioSum += batch.getMaxSizeInBytes() > 0 ? (double) batch.getSizeInBytes() / batch.getMaxSizeInBytes() : 0;
+        }
+        batches.incrementAndGet();
+        events.addAndGet(packed.size());
+        bytes.addAndGet(batch.getSizeInBytes());
+        sendNanos.addAndGet(end - start);
+        System.out.printf("   [EVENT] Sent batch of %d event(s), %d bytes to Event Hub: %s%n", packed.size(), batch.getSizeInBytes(), eventHubName);
+        for (Pending p : packed) {
+            p.group.partSent();
+        }
+    }
+
+    /** Replaces an oversized payload with its two halves at the front of the backlog, or fails it if it cannot be split. */
+    private void split(Pending p, Deque<Pending> backlog) {
+        if (!(p.node instanceof ArrayNode) || p.node.size() < 2) {
+            fail(p, new IllegalStateException(String.format("Event is too large for a single batch (%d bytes)", p.body.length)));
+            return;
+        }
+        ArrayNode left = mapper.createArrayNode();
+        ArrayNode right = mapper.createArrayNode();
+        for (int i = 0; i < p.node.size(); i++) {
+            (i < p.node.size() / 2 ? left : right).add(p.node.get(i));
+        }
+        try {
+            p.group.addPart();
+            backlog.addFirst(new Pending(right, mapper.writeValueAsBytes(right), p.group));
+            backlog.addFirst(new Pending(left, mapper.writeValueAsBytes(left), p.group));
+            splits.incrementAndGet();
+        } catch (Exception e) {
+            fail(p, e);
+        }
+    }
+
+    private void fail(Pending p, Throwable e) {
+        fail(Collections.singletonList(p), e);
+    }
+
+    private void fail(List<Pending> pending, Throwable e) {
+        for (Pending p : pending) {
+            p.group.future.completeExceptionally(e);
+        }
+    }
+
+    private static class Pending {
+        final JsonNode node;
+        final byte[] body;
+        final Group group;
+
+        Pending(JsonNode node, byte[] body, Group group) {
+            this.node = node;
+            this.body = body;
+            this.group = group;
+        }
+
+        EventData event() {
+            return new EventData(body);
+        }
+    }
+
+    /** Completion of one submitted payload, which may have been split into several events. */
+    private static class Group {
+        final CompletableFuture<Void> future;
+        final AtomicInteger remaining = new AtomicInteger(1);
+
+        Group(CompletableFuture<Void> future) {
+            this.future = future;
+        }
+
+        void addPart() {
+            remaining.incrementAndGet();
+        }
+
+        void partSent() {
+            if (remaining.decrementAndGet() == 0) future.complete(null);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.TableSchema;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Where scenario events go. One transport is opened per run and shared by every worker, selected with the
+ * eventTransport config key: "eventhub" (Azure Event Hub, the default), "http" (POST to an endpoint),
+ * "memory" (an in-process queue drained by an EventConsumer that writes to the local DB) or "file"
+ * (append-only JSONL). The last two let the whole trigger, persist and validate loop run offline.
+ */
+public interface EventTransport extends AutoCloseable {
+
+    /**
+     * Hands over the scenario's event_payload and returns a future that completes once the transport has
+     * accepted it. May block to bound the number of payloads in flight.
+     */
+    CompletableFuture<Void> submit(EventPayload scenario) throws Exception;
+
+    /** Submits and waits for the confirmation. */
+    default void send(EventPayload scenario) throws Exception {
+        try {
+            submit(scenario).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new Exception(cause);
+        }
+    }
+
+    /** The eventTransport name, used in logs and the report. */
+    String getName();
+
+    SendMetrics metrics();
+
+    /** Flushes whatever is still queued. Implementations restore the interrupt flag rather than throw InterruptedException. */
+    @Override
+    void close() throws IOException;
+
+    /** Opens the configured transport. The memory transport needs the resolver and schemas for its consumer. */
+    static EventTransport open(DbConfig config, TableResolver resolver, Map<String, TableSchema> schemas) throws IOException {
+        String name = config.getEventTransport() == null ? "eventhub" : config.getEventTransport().toLowerCase(Locale.ROOT);
+        switch (name) {
+            case "eventhub":
+                return EventHubProducerManager.open(config);
+            case "http":
+                return HttpEventTransport.open(config);
+            case "memory":
+                return InMemoryEventTransport.open(config, EventConsumer.create(config, resolver, schemas));
+            case "file":
+                return FileEventTransport.open(config);
+            default:
+                throw new IllegalArgumentException("Unknown eventTransport: " + config.getEventTransport() + " (expected eventhub, http, memory or file)");
+        }
+    }
+}
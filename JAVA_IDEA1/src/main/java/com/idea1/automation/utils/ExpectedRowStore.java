@@ -0,0 +1,86 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.TableSchema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expected rows of one table, loaded once per run and indexed by (primary_lookup, secondary_lookup).
+ * Keys compare with Objects.equals like matchExpectedRow, and every key keeps all its rows in file order,
+ * so tables with many rows per key (audit_logs) are supported and match() still returns the first one.
+ */
+public class ExpectedRowStore {
+    private static final Map<String, ExpectedRowStore> CACHE = new ConcurrentHashMap<>();
+
+    private final String table;
+    private final String primaryLookup;
+    private final String secondaryLookup;
+    private final List<Map<String, Object>> rows;
+    private final Map<List<Object>, List<Map<String, Object>>> index = new HashMap<>();
+    private final Map<String, List<Map<String, Object>>> byPrimary = new HashMap<>();
+
+    private ExpectedRowStore(String table, TableSchema schema, List<Map<String, Object>> rows) {
+        this.table = table;
+        this.primaryLookup = schema.getPrimary_lookup();
+        this.secondaryLookup = schema.getSecondary_lookup();
+        this.rows = Collections.unmodifiableList(rows);
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> unmodifiable = Collections.unmodifiableMap(row);
+            index.computeIfAbsent(keyOf(row), k -> new ArrayList<>()).add(unmodifiable);
+            byPrimary.computeIfAbsent(String.valueOf(row.get(primaryLookup)), k -> new ArrayList<>()).add(unmodifiable);
+        }
+    }
+
+    /** Returns the store for a table, reading and indexing its expected data file on first use only. */
+    public static ExpectedRowStore forTable(String table, TableSchema schema) throws IOException {
+        try {
+            return CACHE.computeIfAbsent(table, t -> {
+                try {
+                    ExpectedRowStore store = new ExpectedRowStore(t, schema, JsonUtils.loadExpectedRows(t));
+                    System.out.printf("   [EXPECTED] Loaded %d rows for %s (%d keys)%n", store.size(), t, store.keyCount());
+                    return store;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Drops every loaded table so the next lookup re-reads the files. */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /** First expected row with the same lookup key as the actual row, or null. Same result as matchExpectedRow. */
+    public Map<String, Object> match(Map<String, Object> actual) {
+        List<Map<String, Object>> candidates = index.get(keyOf(actual));
+        return candidates == null ? null : candidates.get(0);
+    }
+
+    /** Every expected row sharing the actual row's lookup key, in file order. */
+    public List<Map<String, Object>> matchAll(Map<String, Object> actual) {
+        return index.getOrDefault(keyOf(actual), Collections.emptyList());
+    }
+
+    /** Every expected row whose primary lookup has this value (compared as text), in file order. */
+    public List<Map<String, Object>> forPrimary(Object value) {
+        return byPrimary.getOrDefault(String.valueOf(value), Collections.emptyList());
+    }
+
+    public String getTable() { return table; }
+    public List<Map<String, Object>> getRows() { return rows; }
+    public int size() { return rows.size(); }
+    public int keyCount() { return index.size(); }
+
+    private List<Object> keyOf(Map<String, Object> row) {
+        // Arrays.asList allows nulls and compares element-wise with Objects.equals
+        return secondaryLookup != null
+                ? Arrays.asList(row.get(primaryLookup), row.get(secondaryLookup))
+                : Collections.singletonList(row.get(primaryLookup));
+    }
+}
@@ -0,0 +1,78 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.TableSchema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Default memory-transport consumer: behaves like a downstream service that always does the right thing by
+ * inserting the scenario's expected rows (those whose primary lookup matches the scenario's lookup id) into
+ * every PERSIST table. NOT_PERSIST tables are left alone. What is left to measure is the harness itself.
+ */
+public class ExpectedRowsConsumer implements EventConsumer {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private TableResolver resolver;
+    private Map<String, TableSchema> schemas;
+    private boolean postgres;
+
+    @Override
+    public void init(DbConfig config, TableResolver resolver, Map<String, TableSchema> schemas) {
+        this.resolver = resolver;
+        this.schemas = schemas;
+        this.postgres = DbUtils.isPostgres(config);
+    }
+
+    @Override
+    public void consume(Connection conn, EventPayload scenario, JsonNode event) throws Exception {
+        for (Map.Entry<String, String> e : ValidationUtils.resolveTableExpectations(scenario).entrySet()) {
+            TableSchema schema = schemas.get(e.getKey());
+            if (!"PERSIST".equals(e.getValue()) || schema == null) continue;
+            String physical = resolver.resolve(e.getKey());
+            Object lookupValue = scenario.getLookup_ids() != null ? scenario.getLookup_ids().get(schema.getPrimary_lookup()) : null;
+            if (physical == null || lookupValue == null) continue;
+            // Expected rows carry the plain ids; an isolated run's service would write them with the run's ids
+            Object writtenValue = RunNamespace.writtenLookups(scenario).get(schema.getPrimary_lookup());
+            for (Map<String, Object> row : ExpectedRowStore.forTable(e.getKey(), schema).forPrimary(writtenValue)) {
+                insert(conn, physical, RunNamespace.namespaceRow(row, scenario));
+            }
+        }
+    }
+
+    private void insert(Connection conn, String table, Map<String, Object> row) throws SQLException {
+        List<String> columns = new ArrayList<>(row.keySet());
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = row.get(columns.get(i));
+                if (value instanceof Map || value instanceof List) {
+                    value = toJson(value);
+                }
+                if (value instanceof String && postgres) {
+                    // Let the server cast text to the column type (jsonb, timestamp, uuid, ...)
+                    ps.setObject(i + 1, value, Types.OTHER);
+                } else {
+                    ps.setObject(i + 1, value);
+                }
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (Exception e) {
+            return String.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Appends every event as one JSONL line {"test_case_id", "event_type", "sent_at", "event"} to transportFilePath.
+ * A send is confirmed once the line is in the file (not fsynced; the file is forced once on close).
+ * Nothing consumes the file during the run, so it suits measuring the send path and capturing the exact
+ * events of a run for replay; PERSIST tables will time out unless something else fills them.
+ */
+public class FileEventTransport implements EventTransport {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+    private final SendMetrics.Recorder recorder = new SendMetrics.Recorder("file");
+    private boolean closed;
+
+    private FileEventTransport(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public static FileEventTransport open(DbConfig config) throws IOException {
+        FileEventTransport transport = new FileEventTransport(Paths.get(config.getTransportFilePath()));
+        System.out.println("   [TRANSPORT] file: appending events to " + transport.path);
+        return transport;
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> submit(EventPayload scenario) throws IOException {
+        if (closed) throw new IllegalStateException("file transport is closed");
+        buffer.reset();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("test_case_id", scenario.getTest_case_id());
+            gen.writeStringField("event_type", scenario.getEvent_type());
+            gen.writeNumberField("sent_at", System.currentTimeMillis());
+            gen.writeFieldName("event");
+            mapper.writeValue(gen, scenario.getEvent_payload());
+            gen.writeEndObject();
+        }
+        buffer.write('\n');
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        recorder.track(future, buffer.size());
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            future.complete(null);
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public String getName() { return "file"; }
+
+    public Path getPath() { return path; }
+
+    @Override
+    public SendMetrics metrics() {
+        return recorder.snapshot();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
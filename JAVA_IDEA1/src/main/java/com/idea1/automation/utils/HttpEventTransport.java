@@ -0,0 +1,106 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * POSTs each event_payload as application/json to httpEndpoint, the same request OTF's EventTrigger makes,
+ * but on one shared HttpClient with asynchronous sends. Any non-2xx status fails the send. At most
+ * eventHubMaxInFlight requests are outstanding; further submits block.
+ */
+public class HttpEventTransport implements EventTransport {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Pattern ENDPOINT = Pattern.compile("Endpoint=([^;]+)");
+
+    private final URI endpoint;
+    private final Duration timeout;
+    private final HttpClient client;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final SendMetrics.Recorder recorder = new SendMetrics.Recorder("http");
+    private volatile boolean closed;
+
+    private HttpEventTransport(URI endpoint, DbConfig config) {
+        this.endpoint = endpoint;
+        this.timeout = Duration.ofMillis(Math.max(1, config.getHttpTimeoutMs()));
+        this.maxInFlight = Math.max(1, config.getEventHubMaxInFlight());
+        this.inFlight = new Semaphore(maxInFlight);
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    public static HttpEventTransport open(DbConfig config) {
+        HttpEventTransport transport = new HttpEventTransport(URI.create(endpointOf(config)), config);
+        System.out.println("   [TRANSPORT] http: posting events to " + transport.endpoint);
+        return transport;
+    }
+
+    /** httpEndpoint, or the Endpoint= part of eventHubConnectionString as OTF does it. */
+    static String endpointOf(DbConfig config) {
+        String value = config.getHttpEndpoint() != null ? config.getHttpEndpoint() : config.getEventHubConnectionString();
+        if (value == null) {
+            throw new IllegalArgumentException("http transport needs httpEndpoint");
+        }
+        if (value.startsWith("http")) return value;
+        Matcher m = ENDPOINT.matcher(value);
+        if (m.find()) return m.group(1);
+        throw new IllegalArgumentException("Unsupported endpoint for http transport: " + value);
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(EventPayload scenario) throws Exception {
+        if (closed) throw new IllegalStateException("http transport is closed");
+        byte[] body = mapper.writeValueAsBytes(scenario.getEvent_payload());
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        inFlight.acquire();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        recorder.track(future, body.length);
+        future.whenComplete((v, e) -> inFlight.release());
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, e) -> {
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else if (response.statusCode() / 100 != 2) {
+                future.completeExceptionally(new IllegalStateException("HTTP " + response.statusCode() + " from " + endpoint + ": " + response.body()));
+            } else {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public String getName() { return "http"; }
+
+    @Override
+    public SendMetrics metrics() {
+        return recorder.snapshot();
+    }
+
+    /** Waits for the outstanding requests; the client itself has nothing to close on Java 17. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        // Every permit back means no request is outstanding
+        try {
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
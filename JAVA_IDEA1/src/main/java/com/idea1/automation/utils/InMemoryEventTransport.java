@@ -0,0 +1,184 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process broker. A submit is confirmed as soon as the event is on the queue, like a broker ack, and
+ * memoryConsumerThreads threads then hand each event to the EventConsumer, each on its own DB connection.
+ * The queue is bounded by memoryQueueCapacity, so a slow consumer pushes back on the workers.
+ * Closing waits at most memoryDrainTimeoutMs for the queue to drain.
+ */
+public class InMemoryEventTransport implements EventTransport {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Delivery STOP = new Delivery(null, null);
+
+    private final BlockingQueue<Delivery> queue;
+    private final EventConsumer consumer;
+    private final List<Thread> threads = new ArrayList<>();
+    private final SendMetrics.Recorder recorder = new SendMetrics.Recorder("memory");
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong consumeFailures = new AtomicLong();
+    private final AtomicLong consumeNanos = new AtomicLong();
+    private final long drainTimeoutMs;
+    private volatile boolean closed;
+
+    private InMemoryEventTransport(DbConfig config, EventConsumer consumer) throws SQLException {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getMemoryQueueCapacity()));
+        this.consumer = consumer;
+        this.drainTimeoutMs = Math.max(0, config.getMemoryDrainTimeoutMs());
+        int count = Math.max(1, config.getMemoryConsumerThreads());
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection conn = DbUtils.getConnection(config);
+                conn.setAutoCommit(true);
+                connections.add(conn);
+            }
+        } catch (SQLException e) {
+            for (Connection conn : connections) {
+                try { conn.close(); } catch (SQLException ignored) { }
+            }
+            throw e;
+        }
+        for (int i = 0; i < count; i++) {
+            Connection conn = connections.get(i);
+            Thread t = new Thread(() -> consumeLoop(conn), "memory-consumer-" + (i + 1));
+            t.setDaemon(true);
+            threads.add(t);
+        }
+        threads.forEach(Thread::start);
+        System.out.printf("   [TRANSPORT] memory: %d consumer thread(s) using %s%n", count, consumer.getClass().getSimpleName());
+    }
+
+    public static InMemoryEventTransport open(DbConfig config, EventConsumer consumer) throws IOException {
+        try {
+            return new InMemoryEventTransport(config, consumer);
+        } catch (SQLException e) {
+            throw new IOException("memory transport could not open its consumer connections: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(EventPayload scenario) throws Exception {
+        if (closed) throw new IllegalStateException("memory transport is closed");
+        JsonNode event = mapper.valueToTree(scenario.getEvent_payload());
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        recorder.track(future, 0);
+        queue.put(new Delivery(scenario, event));
+        future.complete(null);
+        return future;
+    }
+
+    @Override
+    public String getName() { return "memory"; }
+
+    @Override
+    public SendMetrics metrics() {
+        return recorder.snapshot();
+    }
+
+    public long getConsumed() { return consumed.get(); }
+    public long getConsumeFailures() { return consumeFailures.get(); }
+
+    @Override
+    public String toString() {
+        long n = consumed.get();
+        return String.format("memory consumer: %d event(s) consumed, %d failure(s), avg %.2f ms, %d still queued",
+                n, consumeFailures.get(), n > 0 ? consumeNanos.get() / (double) n / 1_000_000.0 : 0, queue.size());
+    }
+
+    /**
+     * Lets the consumers drain the queue, then closes their connections. A consumer that is still busy after
+     * memoryDrainTimeoutMs is interrupted and the events left on the queue are reported as unconsumed.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        try {
+            // A full queue with a dead consumer would block put forever, so the stop markers share the deadline
+            for (int i = 0; i < threads.size(); i++) {
+                if (!queue.offer(STOP, remainingNanos(deadline), TimeUnit.NANOSECONDS)) break;
+            }
+            for (Thread t : threads) {
+                TimeUnit.NANOSECONDS.timedJoin(t, remainingNanos(deadline));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Thread> busy = new ArrayList<>();
+        for (Thread t : threads) {
+            if (t.isAlive()) busy.add(t);
+        }
+        if (busy.isEmpty()) return;
+        // Drain before interrupting, so a woken consumer finds its stop marker rather than the next event
+        List<Delivery> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.removeIf(d -> d == STOP);
+        busy.forEach(t -> queue.offer(STOP));
+        busy.forEach(Thread::interrupt);
+        List<String> ids = new ArrayList<>();
+        for (Delivery d : left) {
+            if (ids.size() == 10) break;
+            ids.add(d.scenario.getTest_case_id());
+        }
+        System.err.printf("   [TRANSPORT] memory consumer did not finish within %d ms: %d thread(s) still busy, %d event(s) left unconsumed%s%n",
+                drainTimeoutMs, busy.size(), left.size(), ids.isEmpty() ? "" : " " + ids + (left.size() > ids.size() ? " ..." : ""));
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private void consumeLoop(Connection conn) {
+        try {
+            while (true) {
+                Delivery d = queue.take();
+                if (d == STOP) break;
+                long start = System.nanoTime();
+                try {
+                    consumer.consume(conn, d.scenario, d.event);
+                    consumed.incrementAndGet();
+                } catch (Exception e) {
+                    consumeFailures.incrementAndGet();
+                    System.err.println("   [TRANSPORT] Consumer failed for " + d.scenario.getTest_case_id() + ": " + e.getMessage());
+                }
+                consumeNanos.addAndGet(System.nanoTime() - start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // Consumer is done with it
+            }
+        }
+    }
+
+    private static class Delivery {
+        final EventPayload scenario;
+        final JsonNode event;
+
+        Delivery(EventPayload scenario, JsonNode event) {
+            this.scenario = scenario;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dotted path such as "data.items.0.sku", split and classified once and then reused for every row.
+ * Resolution follows the rules getNestedValue always had: string-encoded JSON is read as JSON, numeric keys
+ * index into arrays, and a non-numeric key on an array reads the first element's field. Paths resolve against a
+ * tree from parse(), which has already parsed every string-encoded JSON value, so resolving never parses.
+ */
+public final class JsonPath {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<String, JsonPath> CACHE = new ConcurrentHashMap<>();
+
+    private final String path;
+    private final String[] keys;
+    private final boolean[] numeric;
+    private final int[] indexes;
+
+    private JsonPath(String path) {
+        this.path = path;
+        this.keys = path.split("\\.");
+        this.numeric = new boolean[keys.length];
+        this.indexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            try {
+                indexes[i] = Integer.parseInt(keys[i]);
+                numeric[i] = true;
+            } catch (NumberFormatException e) {
+                numeric[i] = false;
+            }
+        }
+    }
+
+    /** The compiled path, shared by every caller using the same string. */
+    public static JsonPath of(String path) {
+        return CACHE.computeIfAbsent(path, JsonPath::new);
+    }
+
+    public static List<JsonPath> compileAll(Collection<String> paths) {
+        if (paths == null || paths.isEmpty()) return Collections.emptyList();
+        List<JsonPath> compiled = new ArrayList<>(paths.size());
+        for (String p : paths) compiled.add(of(p));
+        return Collections.unmodifiableList(compiled);
+    }
+
+    /**
+     * Converts a column value to a tree with string-encoded JSON parsed up front, at any depth, so no path parses
+     * it again. A JsonNode argument is not modified; containers holding a parsed string are copied.
+     */
+    public static JsonNode parse(Object value) {
+        if (value == null) return null;
+        return parseNested(value instanceof JsonNode ? (JsonNode) value : mapper.valueToTree(value));
+    }
+
+    public String getPath() { return path; }
+
+    /** The node at this path, or null if any step is missing. */
+    public JsonNode resolve(JsonNode root) {
+        JsonNode node = root;
+        for (int i = 0; i < keys.length && node != null; i++) {
+            node = step(node, i);
+        }
+        return node;
+    }
+
+    /** The value at this path as getNestedValue returns it: text, number, boolean, a container node, or null. */
+    public Object value(JsonNode root) {
+        JsonNode node = resolve(root);
+        if (node == null || node.isNull()) return null;
+        if (node.isTextual()) return node.asText();
+        if (node.isNumber()) return node.numberValue();
+        if (node.isBoolean()) return node.asBoolean();
+        return node;
+    }
+
+    /** True if every step exists as an object field (no array or string-JSON handling, as checkRequiredJsonPaths did). */
+    public boolean isPresentIn(JsonNode root) {
+        JsonNode ref = root;
+        for (String key : keys) {
+            if (ref == null || !ref.isObject() || !ref.has(key)) return false;
+            ref = ref.get(key);
+        }
+        return true;
+    }
+
+    /** Removes the field at this path when every parent step is an object. */
+    public void removeFrom(JsonNode root) {
+        if (root == null || !root.isObject()) return;
+        ObjectNode ref = (ObjectNode) root;
+        for (int i = 0; i < keys.length - 1; i++) {
+            JsonNode next = ref.get(keys[i]);
+            if (next == null || !next.isObject()) return;
+            ref = (ObjectNode) next;
+        }
+        ref.remove(keys[keys.length - 1]);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private JsonNode step(JsonNode node, int i) {
+        if (node.isObject()) {
+            return node.get(keys[i]);
+        }
+        if (node.isArray()) {
+            if (numeric[i]) {
+                return indexes[i] >= 0 && indexes[i] < node.size() ? node.get(indexes[i]) : null;
+            }
+            // Not a numeric index, try accessing the first element implicitly
+            if (node.size() > 0) {
+                JsonNode first = node.get(0);
+                if (first.isObject() && first.has(keys[i])) {
+                    return first.get(keys[i]);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static JsonNode parseNested(JsonNode node) {
+        if (node.isTextual()) {
+            JsonNode parsed = parseText(node);
+            return parsed == node ? node : parseNested(parsed);
+        }
+        if (node.isObject()) {
+            ObjectNode copy = null;
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode parsed = parseNested(field.getValue());
+                if (parsed != field.getValue()) {
+                    if (copy == null) copy = mapper.createObjectNode().setAll((ObjectNode) node);
+                    copy.set(field.getKey(), parsed);
+                }
+            }
+            return copy != null ? copy : node;
+        }
+        if (node.isArray()) {
+            ArrayNode copy = null;
+            for (int i = 0; i < node.size(); i++) {
+                JsonNode parsed = parseNested(node.get(i));
+                if (parsed != node.get(i)) {
+                    if (copy == null) copy = mapper.createArrayNode().addAll((ArrayNode) node);
+                    copy.set(i, parsed);
+                }
+            }
+            return copy != null ? copy : node;
+        }
+        return node;
+    }
+
+    private static JsonNode parseText(JsonNode node) {
+        if (node == null || !node.isTextual()) return node;
+        String text = node.asText().trim();
+        if ((text.startsWith("{") && text.endsWith("}")) || (text.startsWith("[") && text.endsWith("]"))) {
+            try {
+                return mapper.readTree(text);
+            } catch (Exception ignored) {
+                // Not valid JSON, continue as TextNode
+            }
+        }
+        return node;
+    }
+}
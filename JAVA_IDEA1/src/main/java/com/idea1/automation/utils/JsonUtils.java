@@ -2,26 +2,23 @@ package com.idea1.automation.utils;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.idea1.automation.model.EventPayload;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 public class JsonUtils {
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    /** The whole scenario file as a list; the Runner iterates a PayloadStream instead so large files are never held at once. */
     public static List<EventPayload> loadEventPayloads(String path) throws IOException {
-        JsonNode node = mapper.readTree(new File(path));
-        if (node.isArray()) {
-            return mapper.convertValue(node, new TypeReference<List<EventPayload>>() {});
-        } else {
-            EventPayload single = mapper.convertValue(node, EventPayload.class);
-            return Collections.singletonList(single);
+        List<EventPayload> payloads = new ArrayList<>();
+        try (PayloadStream stream = PayloadStream.open(path)) {
+            stream.forEachRemaining(payloads::add);
         }
+        return payloads;
     }
 
     public static <T> T loadJson(String path, Class<T> clazz) throws IOException {
@@ -32,6 +29,13 @@ public class JsonUtils {
         return mapper.readValue(new File(path), typeReference);
     }
 
+    /** Writes value as indented JSON, creating the parent directories. */
+    public static void writeJson(String path, Object value) throws IOException {
+        File file = new File(path);
+        if (file.getParentFile() != null) file.getParentFile().mkdirs();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, value);
+    }
+
     public static List<Map<String, Object>> loadExpectedRows(String table) throws IOException {
         String path = "expected/tables/" + table + "_expected_data.json";
         return mapper.readValue(new File(path), new TypeReference<List<Map<String, Object>>>() {});
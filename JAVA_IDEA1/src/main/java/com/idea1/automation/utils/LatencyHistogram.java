@@ -0,0 +1,92 @@
+package com.idea1.automation.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in microseconds. Values below 64 µs get a bucket each; above that every power of two
+ * is split into 32 buckets, so a percentile is never off by more than about 3% and the whole range up to days
+ * fits in under 2000 counters. Recording is safe from any number of threads.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int BUCKETS = LINEAR + 57 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1_000);
+    }
+
+    public void recordMicros(long micros) {
+        long v = Math.max(0, micros);
+        counts.incrementAndGet(index(v));
+        count.increment();
+        sumMicros.add(v);
+        maxMicros.accumulate(v);
+    }
+
+    public Snapshot snapshot() {
+        Snapshot s = new Snapshot();
+        s.count = count.sum();
+        s.sumMs = sumMicros.sum() / 1000.0;
+        s.maxMs = maxMicros.get() / 1000.0;
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        s.p50Ms = percentile(copy, total, 0.50, maxMicros.get());
+        s.p95Ms = percentile(copy, total, 0.95, maxMicros.get());
+        s.p99Ms = percentile(copy, total, 0.99, maxMicros.get());
+        return s;
+    }
+
+    /** Upper bound of the bucket holding the q-th value, capped at the maximum seen, in ms. */
+    private static double percentile(long[] counts, long total, double q, long max) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max) / 1000.0;
+        }
+        return max / 1000.0;
+    }
+
+    static int index(long v) {
+        if (v < LINEAR) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - 5;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) (v >> shift) - SUB_BUCKETS;
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR) return index;
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public static class Snapshot {
+        private long count;
+        private double sumMs;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+        private double maxMs;
+
+        public long getCount() { return count; }
+        public double getSumMs() { return sumMs; }
+        public double getMeanMs() { return count > 0 ? sumMs / count : 0; }
+        public double getP50Ms() { return p50Ms; }
+        public double getP95Ms() { return p95Ms; }
+        public double getP99Ms() { return p99Ms; }
+        public double getMaxMs() { return maxMs; }
+    }
+}
@@ -0,0 +1,59 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A row whose JSON columns are converted at most once, however many paths are read from them.
+ * Not thread-safe; create one per row being validated.
+ */
+public class ParsedRow {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, Object> row;
+    private final Map<String, JsonNode> trees = new HashMap<>();
+    private final Map<String, JsonNode> documents = new HashMap<>();
+
+    public ParsedRow(Map<String, Object> row) {
+        this.row = row;
+    }
+
+    public Object get(String column) {
+        return row.get(column);
+    }
+
+    public boolean containsKey(String column) {
+        return row.containsKey(column);
+    }
+
+    public Map<String, Object> getRow() { return row; }
+
+    /** The column value as a tree, exactly as valueToTree gives it (string-encoded JSON stays a string). */
+    public JsonNode tree(String column) {
+        if (!trees.containsKey(column)) {
+            Object value = row.get(column);
+            trees.put(column, value == null ? null : mapper.valueToTree(value));
+        }
+        return trees.get(column);
+    }
+
+    /** The column value with string-encoded JSON parsed, for path lookups. */
+    public JsonNode document(String column) {
+        if (!documents.containsKey(column)) {
+            documents.put(column, JsonPath.parse(tree(column)));
+        }
+        return documents.get(column);
+    }
+
+    /** Same result as ValidationUtils.getNestedValue(get(column), path), without re-parsing the column. */
+    public Object value(String column, JsonPath path) {
+        try {
+            return path.value(document(column));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
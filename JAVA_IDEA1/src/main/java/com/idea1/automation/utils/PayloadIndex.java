@@ -0,0 +1,168 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Byte offsets of every scenario in a payload file, kept next to it as &lt;file&gt;.idx so that a rerun of a few
+ * scenarios can seek straight to them (PayloadStream.open(path, entries)) instead of parsing the whole suite.
+ * The index records the size and modification time of the file it was built from and is rebuilt when either changes.
+ */
+public class PayloadIndex {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private long source_size;
+    private long source_modified;
+    private List<Entry> entries = new ArrayList<>();
+
+    public long getSource_size() { return source_size; }
+    public void setSource_size(long source_size) { this.source_size = source_size; }
+    public long getSource_modified() { return source_modified; }
+    public void setSource_modified(long source_modified) { this.source_modified = source_modified; }
+    public List<Entry> getEntries() { return entries; }
+    public void setEntries(List<Entry> entries) { this.entries = entries; }
+
+    /** The index of the payload file at path: read from path.idx while it still matches the file, else built and saved. */
+    public static PayloadIndex forFile(String path) throws IOException {
+        Path source = Paths.get(path);
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        Path idx = Paths.get(path + ".idx");
+        if (Files.exists(idx)) {
+            try {
+                PayloadIndex index = mapper.readValue(idx.toFile(), PayloadIndex.class);
+                if (index.source_size == size && index.source_modified == modified) {
+                    index.number();
+                    System.out.printf("   [INDEX] Using %s (%d scenario(s))%n", idx, index.entries.size());
+                    return index;
+                }
+                System.out.println("   [INDEX] " + path + " changed since it was indexed; rebuilding " + idx);
+            } catch (IOException e) {
+                System.err.println("   [INDEX] Ignoring unreadable " + idx + ": " + e.getMessage());
+            }
+        }
+        long start = System.currentTimeMillis();
+        PayloadIndex index = build(path);
+        index.number();
+        // Size and time are taken before the scan, so a file rewritten meanwhile gets reindexed on the next run
+        index.source_size = size;
+        index.source_modified = modified;
+        try {
+            mapper.writeValue(idx.toFile(), index);
+        } catch (IOException e) {
+            System.err.println("   [INDEX] Could not save " + idx + " (it will be rebuilt next time): " + e.getMessage());
+        }
+        System.out.printf("   [INDEX] Indexed %d scenario(s) of %s in %d ms%n", index.entries.size(), path, System.currentTimeMillis() - start);
+        return index;
+    }
+
+    /**
+     * The scenarios whose test_case_id is in cases, whose order_id lookup is in orderIds, or that carry one of tags,
+     * in file order. Empty filters match nothing.
+     */
+    public List<Entry> select(Collection<String> cases, Collection<String> tags, Collection<String> orderIds) {
+        List<Entry> selected = new ArrayList<>();
+        for (Entry e : entries) {
+            if (cases.contains(e.test_case_id) || (e.order_id != null && orderIds.contains(e.order_id))
+                    || (e.tags != null && e.tags.stream().anyMatch(tags::contains))) {
+                selected.add(e);
+            }
+        }
+        return selected;
+    }
+
+    /** Whether some scenario of the file has this test_case_id. */
+    public boolean contains(String testCaseId) {
+        for (Entry e : entries) {
+            if (testCaseId.equals(e.test_case_id)) return true;
+        }
+        return false;
+    }
+
+    /** Entries are saved in file order, so their positions are not stored but renumbered on load. */
+    private void number() {
+        for (int i = 0; i < entries.size(); i++) entries.get(i).position = i;
+    }
+
+    private static PayloadIndex build(String path) throws IOException {
+        PayloadIndex index = new PayloadIndex();
+        try (JsonParser parser = mapper.getFactory().createParser(new File(path))) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) token = parser.nextToken();
+            while (token == JsonToken.START_OBJECT) {
+                long offset = parser.getTokenLocation().getByteOffset();
+                Entry entry = readEntry(parser);
+                // The parser is on the scenario's closing brace
+                entry.length = (int) (parser.getTokenLocation().getByteOffset() + 1 - offset);
+                entry.offset = offset;
+                index.entries.add(entry);
+                token = parser.nextToken();
+            }
+            if (token != null && token != JsonToken.END_ARRAY) {
+                throw new IOException("Expected a scenario object after scenario " + index.entries.size() + " of " + path + " but found " + token);
+            }
+        }
+        return index;
+    }
+
+    /** Picks test_case_id, tags and lookup_ids.order_id out of one scenario; everything else is skipped unread. */
+    private static Entry readEntry(JsonParser parser) throws IOException {
+        Entry entry = new Entry();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("test_case_id") && value.isScalarValue()) {
+                entry.test_case_id = parser.getText();
+            } else if (field.equals("tags") && value == JsonToken.START_ARRAY) {
+                entry.tags = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken().isScalarValue()) entry.tags.add(parser.getText());
+                    else parser.skipChildren();
+                }
+            } else if (field.equals("lookup_ids") && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String lookup = parser.getCurrentName();
+                    JsonToken v = parser.nextToken();
+                    if (lookup.equals("order_id") && v.isScalarValue() && v != JsonToken.VALUE_NULL) entry.order_id = parser.getText();
+                    else parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return entry;
+    }
+
+    public static class Entry {
+        private String test_case_id;
+        private String order_id;
+        private List<String> tags;
+        private long offset;
+        private int length;
+        @JsonIgnore
+        private int position;
+
+        public String getTest_case_id() { return test_case_id; }
+        public void setTest_case_id(String test_case_id) { this.test_case_id = test_case_id; }
+        public String getOrder_id() { return order_id; }
+        public void setOrder_id(String order_id) { this.order_id = order_id; }
+        public List<String> getTags() { return tags; }
+        public void setTags(List<String> tags) { this.tags = tags; }
+        public long getOffset() { return offset; }
+        public void setOffset(long offset) { this.offset = offset; }
+        public int getLength() { return length; }
+        public void setLength(int length) { this.length = length; }
+        public int getPosition() { return position; }
+    }
+}
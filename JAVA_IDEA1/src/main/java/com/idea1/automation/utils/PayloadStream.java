@@ -0,0 +1,184 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.model.EventPayload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Reads a scenario file one EventPayload at a time with Jackson's streaming parser, so only the scenario being
+ * handed out is in memory however large the file is. Accepts a top-level array, JSON Lines (one object per line)
+ * or a single object.
+ *
+ * openHeaders gives the same scenarios without their event_payload, which the parser skips without building it:
+ * a cheap first pass for counting scenarios and collecting the tables they touch.
+ *
+ * Given PayloadIndex entries, only those scenarios are read, each by seeking a FileChannel to its offset.
+ * Either way every payload is stamped with its position in the file (file_position), so a scenario keeps its
+ * {{SEQ}} whether it runs in the full suite, a shard, a --cases rerun or a resumed run.
+ */
+public class PayloadStream implements Iterator<EventPayload>, AutoCloseable {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectMapper headerMapper = new ObjectMapper().addMixIn(EventPayload.class, HeaderOnly.class);
+
+    private final String path;
+    private final ObjectMapper reader;
+    private final JsonParser parser;
+    private final boolean array;
+    // Set instead of the parser when reading indexed scenarios
+    private final FileChannel channel;
+    private final List<PayloadIndex.Entry> entries;
+    private EventPayload next;
+    private int read;
+    private boolean done;
+
+    private PayloadStream(String path, ObjectMapper reader) throws IOException {
+        this.path = path;
+        this.reader = reader;
+        this.channel = null;
+        this.entries = null;
+        this.parser = reader.getFactory().createParser(new File(path));
+        JsonToken first = parser.nextToken();
+        this.array = first == JsonToken.START_ARRAY;
+        if (first == null) {
+            done = true;
+            parser.close();
+        } else if (first != JsonToken.START_ARRAY && first != JsonToken.START_OBJECT) {
+            parser.close();
+            throw new IOException(path + " must hold a JSON array, JSON Lines or a single object, but starts with " + first);
+        }
+        if (!array && !done) {
+            // Already on the first object's START_OBJECT
+            next = readCurrent();
+        }
+    }
+
+    private PayloadStream(String path, ObjectMapper reader, List<PayloadIndex.Entry> entries) throws IOException {
+        this.path = path;
+        this.reader = reader;
+        this.parser = null;
+        this.array = false;
+        this.entries = entries;
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+    }
+
+    /** Every scenario of the file, in file order. */
+    public static PayloadStream open(String path) throws IOException {
+        return new PayloadStream(path, mapper);
+    }
+
+    /** Every scenario of the file without its event_payload. */
+    public static PayloadStream openHeaders(String path) throws IOException {
+        return new PayloadStream(path, headerMapper);
+    }
+
+    /** The indexed scenarios of the file, in the order given. */
+    public static PayloadStream open(String path, List<PayloadIndex.Entry> entries) throws IOException {
+        return new PayloadStream(path, mapper, entries);
+    }
+
+    /** The indexed scenarios of the file without their event_payload. */
+    public static PayloadStream openHeaders(String path, List<PayloadIndex.Entry> entries) throws IOException {
+        return new PayloadStream(path, headerMapper, entries);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                if (channel != null) {
+                    readIndexed();
+                    return next != null;
+                }
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT) {
+                    next = readCurrent();
+                } else if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                    done = true;
+                    parser.close();
+                } else {
+                    throw new IOException("Expected a scenario object after scenario " + read + " of " + path + " but found " + token);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public EventPayload next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        EventPayload payload = next;
+        next = null;
+        return payload;
+    }
+
+    /** Scenarios parsed so far. */
+    public int getRead() { return read; }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        if (parser != null) parser.close();
+        if (channel != null) channel.close();
+    }
+
+    private void readIndexed() throws IOException {
+        if (read == entries.size()) {
+            close();
+            return;
+        }
+        PayloadIndex.Entry entry = entries.get(read);
+        ByteBuffer buffer = ByteBuffer.allocate(entry.getLength());
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, entry.getOffset() + buffer.position()) < 0) break;
+        }
+        EventPayload payload;
+        try {
+            if (buffer.hasRemaining()) throw new IOException("the file ends before the scenario");
+            payload = reader.readValue(buffer.array(), EventPayload.class);
+            payload.setFile_position(entry.getPosition());
+            if (!Objects.equals(payload.getTest_case_id(), entry.getTest_case_id())) {
+                throw new IOException("found scenario " + payload.getTest_case_id() + " there");
+            }
+        } catch (IOException e) {
+            throw new IOException(path + " no longer matches its index at byte " + entry.getOffset() + " (expected scenario "
+                    + entry.getTest_case_id() + ", " + e.getMessage() + "); delete " + path + ".idx to rebuild it", e);
+        }
+        read++;
+        next = payload;
+    }
+
+    private EventPayload readCurrent() throws IOException {
+        try {
+            EventPayload payload = reader.readValue(parser, EventPayload.class);
+            payload.setFile_position(read++);
+            return payload;
+        } catch (IOException e) {
+            throw new IOException("Scenario " + (read + 1) + " of " + path + " could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    /** Binding rules for openHeaders: the event body is skipped token by token instead of being built. */
+    private abstract static class HeaderOnly {
+        @JsonIgnore
+        abstract Object getEvent_payload();
+
+        @JsonIgnore
+        abstract void setEvent_payload(Object event_payload);
+    }
+}
@@ -0,0 +1,283 @@
+package com.idea1.automation.utils;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An event payload compiled once into the placeholder slots it contains, so it can be rendered many times without
+ * walking and testing every string again. Strings may be a single placeholder, which renders as the raw value
+ * (numbers stay numbers), or mix text and placeholders ("ord-{{SEQ:%06d}}"). Unknown placeholders are left as written.
+ *
+ *   {{CURRENT_TIMESTAMP_ISO}}   render time, ISO-8601 (Instant.toString)
+ *   {{TIMESTAMP:pattern}}       render time in UTC with a DateTimeFormatter pattern
+ *   {{EPOCH_MILLIS}}            render time in milliseconds
+ *   {{SEQ}} / {{SEQ:%06d}}      sequence number of the rendered instance, optionally String.format-ted
+ *   {{UUID}}                    random UUID
+ *   {{RANDOM:a|b|c}}            one of the listed values
+ *   {{LOOKUP:name}}             the instance's lookup_ids value; {{ORDER_ID}} and {{EVENT_ID}} are shorthands
+ *   {{RUN_ID}}                  the id of an isolated run (RunNamespace), empty otherwise
+ *
+ * Every slot of one render sees the same time. Subtrees without slots are shared between renders, not copied.
+ * Rendering with keepTimestamps fills everything but the time placeholders, for scenarios that are sent later.
+ */
+public class PayloadTemplate {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final Node root;
+    private final int slotCount;
+
+    private PayloadTemplate(Node root, int slotCount) {
+        this.root = root;
+        this.slotCount = slotCount;
+    }
+
+    public static PayloadTemplate compile(Object payload) {
+        return compile(payload, Collections.emptyMap());
+    }
+
+    /**
+     * Compiles payload; any string equal to one of the literal lookup values becomes a {{LOOKUP:name}} slot, so a
+     * scenario written against fixed ids follows the ids each instance is rendered with.
+     */
+    public static PayloadTemplate compile(Object payload, Map<String, Object> literalLookups) {
+        Map<String, String> lookupByValue = new HashMap<>();
+        literalLookups.forEach((name, value) -> {
+            if (value instanceof String && !((String) value).isEmpty()) lookupByValue.putIfAbsent((String) value, name);
+        });
+        int[] slots = new int[1];
+        Node root = compileNode(payload, lookupByValue, slots);
+        return new PayloadTemplate(root, slots[0]);
+    }
+
+    public int getSlotCount() { return slotCount; }
+
+    /** A new payload with every slot filled for instance seq; lookups may be null when no slot refers to them. */
+    public Object render(long seq, Map<String, Object> lookups) {
+        return render(seq, lookups, false);
+    }
+
+    public Object render(long seq, Map<String, Object> lookups, boolean keepTimestamps) {
+        return root.render(new Context(seq, lookups, keepTimestamps));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node compileNode(Object value, Map<String, String> lookupByValue, int[] slots) {
+        if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            String[] keys = new String[map.size()];
+            Node[] children = new Node[map.size()];
+            boolean dynamic = false;
+            int i = 0;
+            for (Map.Entry<String, Object> e : map.entrySet()) {
+                keys[i] = e.getKey();
+                children[i] = compileNode(e.getValue(), lookupByValue, slots);
+                dynamic |= !(children[i] instanceof Const);
+                i++;
+            }
+            return dynamic ? new MapNode(keys, children) : new Const(value);
+        }
+        if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            Node[] children = new Node[list.size()];
+            boolean dynamic = false;
+            for (int i = 0; i < children.length; i++) {
+                children[i] = compileNode(list.get(i), lookupByValue, slots);
+                dynamic |= !(children[i] instanceof Const);
+            }
+            return dynamic ? new ListNode(children) : new Const(value);
+        }
+        if (value instanceof String) {
+            return compileString((String) value, lookupByValue, slots);
+        }
+        return new Const(value);
+    }
+
+    private static Node compileString(String s, Map<String, String> lookupByValue, int[] slots) {
+        String lookup = lookupByValue.get(s);
+        if (lookup != null) {
+            slots[0]++;
+            return new LookupSlot(lookup);
+        }
+        if (!s.contains(OPEN)) return new Const(s);
+        List<Node> parts = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int at = 0;
+        while (at < s.length()) {
+            int open = s.indexOf(OPEN, at);
+            int close = open < 0 ? -1 : s.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                text.append(s, at, s.length());
+                break;
+            }
+            String raw = s.substring(open, close + CLOSE.length());
+            Node slot = slotFor(s.substring(open + OPEN.length(), close), raw);
+            text.append(s, at, open);
+            if (slot == null) {
+                text.append(raw);
+            } else {
+                if (text.length() > 0) parts.add(new Const(text.toString()));
+                text.setLength(0);
+                parts.add(slot);
+                slots[0]++;
+            }
+            at = close + CLOSE.length();
+        }
+        if (parts.isEmpty()) return new Const(s);
+        if (text.length() > 0) parts.add(new Const(text.toString()));
+        return parts.size() == 1 ? parts.get(0) : new Concat(parts.toArray(new Node[0]));
+    }
+
+    /** The slot for the text between the braces, or null when it is not a known placeholder. */
+    private static Node slotFor(String spec, String raw) {
+        int colon = spec.indexOf(':');
+        String name = (colon < 0 ? spec : spec.substring(0, colon)).trim();
+        String arg = colon < 0 ? null : spec.substring(colon + 1);
+        switch (name) {
+            case "CURRENT_TIMESTAMP_ISO":
+                return c -> c.keepTimestamps ? raw : c.now().toString();
+            case "TIMESTAMP":
+                if (arg == null) return c -> c.keepTimestamps ? raw : c.now().toString();
+                DateTimeFormatter format = DateTimeFormatter.ofPattern(arg).withZone(ZoneOffset.UTC);
+                return c -> c.keepTimestamps ? raw : format.format(c.now());
+            case "EPOCH_MILLIS":
+                return c -> c.keepTimestamps ? raw : c.now().toEpochMilli();
+            case "SEQ":
+                if (arg == null) return c -> c.seq;
+                String pattern = arg;
+                if (pattern.matches("%0[1-9][0-9]?d")) {
+                    // The usual zero-padded form, without String.format's parsing on every render
+                    int width = Integer.parseInt(pattern.substring(2, pattern.length() - 1));
+                    return c -> zeroPad(c.seq, width);
+                }
+                try {
+                    String.format(pattern, 0L);
+                } catch (IllegalFormatException e) {
+                    throw new IllegalArgumentException("{{SEQ:" + arg + "}} is not a valid format for a number: " + e.getMessage());
+                }
+                return c -> String.format(pattern, c.seq);
+            case "UUID":
+                return c -> randomUuid().toString();
+            case "RANDOM":
+                if (arg == null) return null;
+                String[] choices = arg.split("\\|", -1);
+                return c -> choices[ThreadLocalRandom.current().nextInt(choices.length)];
+            case "LOOKUP":
+                return arg == null ? null : new LookupSlot(arg.trim());
+            case "ORDER_ID":
+                return new LookupSlot("order_id");
+            case "EVENT_ID":
+                return new LookupSlot("event_id");
+            case "RUN_ID":
+                return c -> RunNamespace.getRunId();
+            default:
+                return null;
+        }
+    }
+
+    private static String zeroPad(long n, int width) {
+        String digits = Long.toString(n);
+        if (digits.length() >= width || n < 0) return n < 0 ? String.format("%0" + width + "d", n) : digits;
+        StringBuilder sb = new StringBuilder(width);
+        for (int i = digits.length(); i < width; i++) sb.append('0');
+        return sb.append(digits).toString();
+    }
+
+    /** A version 4 UUID from ThreadLocalRandom, which unlike UUID.randomUUID does not contend on SecureRandom. */
+    private static UUID randomUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(most, least);
+    }
+
+    private static final class Context {
+        final long seq;
+        final Map<String, Object> lookups;
+        final boolean keepTimestamps;
+        private Instant now;
+
+        Context(long seq, Map<String, Object> lookups, boolean keepTimestamps) {
+            this.seq = seq;
+            this.lookups = lookups;
+            this.keepTimestamps = keepTimestamps;
+        }
+
+        Instant now() {
+            if (now == null) now = Instant.now();
+            return now;
+        }
+    }
+
+    private interface Node {
+        Object render(Context c);
+    }
+
+    private static final class Const implements Node {
+        private final Object value;
+
+        Const(Object value) { this.value = value; }
+
+        @Override
+        public Object render(Context c) { return value; }
+    }
+
+    private static final class LookupSlot implements Node {
+        private final String name;
+
+        LookupSlot(String name) { this.name = name; }
+
+        @Override
+        public Object render(Context c) {
+            Object value = c.lookups == null ? null : c.lookups.get(name);
+            if (value == null) throw new IllegalStateException("Payload refers to lookup_ids." + name + ", which the scenario does not define");
+            return value;
+        }
+    }
+
+    private static final class Concat implements Node {
+        private final Node[] parts;
+
+        Concat(Node[] parts) { this.parts = parts; }
+
+        @Override
+        public Object render(Context c) {
+            StringBuilder sb = new StringBuilder();
+            for (Node part : parts) sb.append(part.render(c));
+            return sb.toString();
+        }
+    }
+
+    private static final class MapNode implements Node {
+        private final String[] keys;
+        private final Node[] children;
+
+        MapNode(String[] keys, Node[] children) {
+            this.keys = keys;
+            this.children = children;
+        }
+
+        @Override
+        public Object render(Context c) {
+            Map<String, Object> map = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], children[i].render(c));
+            return map;
+        }
+    }
+
+    private static final class ListNode implements Node {
+        private final Node[] children;
+
+        ListNode(Node[] children) { this.children = children; }
+
+        @Override
+        public Object render(Context c) {
+            List<Object> list = new ArrayList<>(children.length);
+            for (Node child : children) list.add(child.render(c));
+            return list;
+        }
+    }
+}
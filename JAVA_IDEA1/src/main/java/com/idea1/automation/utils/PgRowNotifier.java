@@ -0,0 +1,203 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.TableSchema;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Push-based row arrival for PostgreSQL. AFTER INSERT OR UPDATE triggers on the watched tables pg_notify
+ * "logical table TAB lookup value", and one listener connection wakes whoever subscribed to that pair.
+ * A notification is only a hint to poll now: callers still confirm the rows with a query, and keep a slow
+ * fallback poll in case a notification is missed or the listener dies.
+ * <p>
+ * The channel, function and trigger names carry a tag of their own, so concurrent runs and shards against
+ * the same database each install, hear and drop only their own objects.
+ */
+public class PgRowNotifier implements AutoCloseable {
+    public static final String CHANNEL = "idea1_rows";
+    private static final String FUNCTION = "idea1_notify_row";
+    private static final int MAX_IDENTIFIER = 63;
+
+    private final DbConfig config;
+    private final Connection conn;
+    private final PGConnection pg;
+    private final String tag = RunNamespace.generateId();
+    private final String channel = CHANNEL + "_" + tag;
+    private final String function = FUNCTION + "_" + tag;
+    private final Map<String, String> triggers = new LinkedHashMap<>();
+    private final Map<String, List<Runnable>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+    private final Thread listener;
+    private volatile boolean running = true;
+
+    private PgRowNotifier(DbConfig config, Connection conn) throws SQLException {
+        this.config = config;
+        this.conn = conn;
+        this.pg = conn.unwrap(PGConnection.class);
+        this.listener = new Thread(this::listen, "pg-row-notifier");
+        this.listener.setDaemon(true);
+    }
+
+    /**
+     * Installs the triggers and starts listening when pgNotify is on and the target is PostgreSQL.
+     * Returns null, and the run keeps plain polling, when it is off or the triggers cannot be installed.
+     */
+    public static PgRowNotifier startIfEnabled(DbConfig config, TableResolver resolver, Map<String, TableSchema> schemas) {
+        if (!config.isPgNotify()) return null;
+        if (!DbUtils.isPostgres(config)) {
+            System.err.println("   [NOTIFY] pgNotify needs a PostgreSQL target; falling back to polling.");
+            return null;
+        }
+        if (!resolver.isAvailable()) {
+            System.err.println("   [NOTIFY] Table metadata unavailable, cannot place triggers; falling back to polling.");
+            return null;
+        }
+        Connection conn = null;
+        try {
+            conn = DbUtils.getConnection(config);
+            conn.setAutoCommit(true);
+            PgRowNotifier notifier = new PgRowNotifier(config, conn);
+            notifier.install(resolver, schemas);
+            notifier.listener.start();
+            System.out.printf("   [NOTIFY] Listening on '%s' for %d table(s)%n", notifier.channel, notifier.triggers.size());
+            return notifier;
+        } catch (SQLException e) {
+            System.err.println("   [NOTIFY] Could not set up LISTEN/NOTIFY, falling back to polling: " + e.getMessage());
+            if (conn != null) {
+                try { conn.close(); } catch (SQLException ignored) { }
+            }
+            return null;
+        }
+    }
+
+    /** Calls onRow (on the listener thread, so it must not block) whenever a row with this lookup value changes. */
+    public Subscription subscribe(String table, Object lookupValue, Runnable onRow) {
+        String key = key(table, String.valueOf(lookupValue));
+        subscribers.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(onRow);
+        return new Subscription(key, onRow);
+    }
+
+    /** Whether rows of this logical table are announced. */
+    public boolean watches(String table) {
+        return triggers.containsKey(table);
+    }
+
+    public boolean isRunning() { return running; }
+    public long getReceived() { return received.get(); }
+    public long getMatched() { return matched.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("tables=%d, notifications=%d, matched=%d, listener=%s",
+                triggers.size(), received.get(), matched.get(), running ? "up" : "down");
+    }
+
+    private void install(TableResolver resolver, Map<String, TableSchema> schemas) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE OR REPLACE FUNCTION " + function + "() RETURNS trigger AS $$\n" +
+                    "BEGIN\n" +
+                    "  PERFORM pg_notify('" + channel + "', TG_ARGV[0] || E'\\t' || coalesce(to_jsonb(NEW) ->> TG_ARGV[1], ''));\n" +
+                    "  RETURN NEW;\n" +
+                    "END $$ LANGUAGE plpgsql");
+            for (Map.Entry<String, TableSchema> e : new TreeMap<>(schemas).entrySet()) {
+                String physical = resolver.resolve(e.getKey());
+                if (physical == null || e.getValue() == null || e.getValue().getPrimary_lookup() == null) continue;
+                String trigger = "idea1_notify_" + tag + "_" + e.getKey().replaceAll("[^A-Za-z0-9_]", "_");
+                if (trigger.length() > MAX_IDENTIFIER) trigger = trigger.substring(0, MAX_IDENTIFIER);
+                st.execute("DROP TRIGGER IF EXISTS " + trigger + " ON " + physical);
+                // EXECUTE PROCEDURE rather than FUNCTION keeps this working on servers before 11
+                st.execute("CREATE TRIGGER " + trigger + " AFTER INSERT OR UPDATE ON " + physical +
+                        " FOR EACH ROW EXECUTE PROCEDURE " + function + "(" + literal(e.getKey()) + ", " + literal(e.getValue().getPrimary_lookup()) + ")");
+                triggers.put(e.getKey(), trigger + " ON " + physical);
+            }
+            st.execute("LISTEN " + channel);
+        }
+    }
+
+    private void listen() {
+        try {
+            while (running) {
+                PGNotification[] notifications = pg.getNotifications(500);
+                if (notifications == null) continue;
+                for (PGNotification n : notifications) {
+                    if (!channel.equals(n.getName())) continue;
+                    received.incrementAndGet();
+                    List<Runnable> targets = subscribers.get(n.getParameter());
+                    if (targets == null) continue;
+                    matched.incrementAndGet();
+                    for (Runnable target : targets) {
+                        target.run();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            if (running) {
+                System.err.println("   [NOTIFY] Listener stopped, waits fall back to polling: " + e.getMessage());
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            listener.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!config.isPgNotifyKeepTriggers()) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("UNLISTEN " + channel);
+                for (String trigger : triggers.values()) {
+                    st.execute("DROP TRIGGER IF EXISTS " + trigger);
+                }
+                st.execute("DROP FUNCTION IF EXISTS " + function + "()");
+            } catch (SQLException e) {
+                System.err.println("   [NOTIFY] Could not remove triggers: " + e.getMessage());
+            }
+        }
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // Closing at the end of the run; nothing left to do with it
+        }
+    }
+
+    private static String key(String table, String value) {
+        return table + '\t' + value;
+    }
+
+    private static String literal(String s) {
+        return "'" + s.replace("'", "''") + "'";
+    }
+
+    public class Subscription implements AutoCloseable {
+        private final String key;
+        private final Runnable onRow;
+
+        private Subscription(String key, Runnable onRow) {
+            this.key = key;
+            this.onRow = onRow;
+        }
+
+        @Override
+        public void close() {
+            subscribers.computeIfPresent(key, (k, list) -> {
+                list.remove(onRow);
+                return list.isEmpty() ? null : list;
+            });
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where a run spends its time: one LatencyHistogram per phase, table and outcome, filled from the worker threads
+ * and exported at the end of the run as JSON, Prometheus text format and the report's timing panel.
+ * Like the expected-row cache this is run-wide static state, so DbUtils can record fetches without a handle.
+ */
+public final class PhaseMetrics {
+    public static final String PLACEHOLDERS = "placeholders";
+    public static final String SEND = "send";
+    public static final String AWAIT = "await";
+    public static final String FETCH = "fetch";
+    public static final String VALIDATE = "validate";
+    public static final String RENDER = "render";
+
+    /** Pipeline order, used to sort the exports. */
+    private static final List<String> ORDER = List.of(PLACEHOLDERS, SEND, AWAIT, FETCH, VALIDATE, RENDER);
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<Key, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private PhaseMetrics() { }
+
+    public static void record(String phase, long nanos) {
+        record(phase, "", "", nanos);
+    }
+
+    /** Records one sample. table and outcome may be empty when the phase is per scenario. */
+    public static void record(String phase, String table, String outcome, long nanos) {
+        HISTOGRAMS.computeIfAbsent(new Key(phase, table == null ? "" : table, outcome == null ? "" : outcome), k -> new LatencyHistogram())
+                .recordNanos(nanos);
+    }
+
+    public static void reset() {
+        HISTOGRAMS.clear();
+    }
+
+    /** Every series recorded so far, in pipeline order and then by table and outcome. */
+    public static List<Series> snapshot() {
+        List<Series> series = new ArrayList<>();
+        for (Map.Entry<Key, LatencyHistogram> e : HISTOGRAMS.entrySet()) {
+            series.add(new Series(e.getKey().phase, e.getKey().table, e.getKey().outcome, e.getValue().snapshot()));
+        }
+        series.sort(Comparator.comparingInt((Series s) -> rank(s.phase))
+                .thenComparing(s -> s.phase).thenComparing(s -> s.table).thenComparing(s -> s.outcome));
+        return series;
+    }
+
+    public static void writeJson(List<Series> series, String path) throws IOException {
+        Path p = prepare(path);
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(Files.newOutputStream(p), JsonEncoding.UTF8)) {
+            gen.useDefaultPrettyPrinter();
+            gen.writeStartObject();
+            gen.writeNumberField("generated_at", System.currentTimeMillis());
+            gen.writeArrayFieldStart("phases");
+            for (Series s : series) {
+                LatencyHistogram.Snapshot h = s.histogram;
+                gen.writeStartObject();
+                gen.writeStringField("phase", s.phase);
+                if (!s.table.isEmpty()) gen.writeStringField("table", s.table);
+                if (!s.outcome.isEmpty()) gen.writeStringField("outcome", s.outcome);
+                gen.writeNumberField("count", h.getCount());
+                gen.writeNumberField("total_ms", round(h.getSumMs()));
+                gen.writeNumberField("mean_ms", round(h.getMeanMs()));
+                gen.writeNumberField("p50_ms", round(h.getP50Ms()));
+                gen.writeNumberField("p95_ms", round(h.getP95Ms()));
+                gen.writeNumberField("p99_ms", round(h.getP99Ms()));
+                gen.writeNumberField("max_ms", round(h.getMaxMs()));
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    /** Prometheus text exposition format: one summary (quantiles, sum, count) plus a max gauge per series. */
+    public static void writePrometheus(List<Series> series, String path) throws IOException {
+        Path p = prepare(path);
+        try (Writer out = Files.newBufferedWriter(p, StandardCharsets.UTF_8)) {
+            out.write("# HELP idea1_phase_duration_seconds Time spent in each phase of a scenario run.\n");
+            out.write("# TYPE idea1_phase_duration_seconds summary\n");
+            for (Series s : series) {
+                LatencyHistogram.Snapshot h = s.histogram;
+                String labels = s.labels();
+                out.write(sample("idea1_phase_duration_seconds", labels, "quantile=\"0.5\"", h.getP50Ms()));
+                out.write(sample("idea1_phase_duration_seconds", labels, "quantile=\"0.95\"", h.getP95Ms()));
+                out.write(sample("idea1_phase_duration_seconds", labels, "quantile=\"0.99\"", h.getP99Ms()));
+                out.write(sample("idea1_phase_duration_seconds_sum", labels, null, h.getSumMs()));
+                out.write("idea1_phase_duration_seconds_count{" + labels + "} " + h.getCount() + "\n");
+            }
+            out.write("# HELP idea1_phase_duration_max_seconds Slowest single sample of each phase.\n");
+            out.write("# TYPE idea1_phase_duration_max_seconds gauge\n");
+            for (Series s : series) {
+                out.write(sample("idea1_phase_duration_max_seconds", s.labels(), null, s.histogram.getMaxMs()));
+            }
+        }
+    }
+
+    private static String sample(String name, String labels, String extra, double ms) {
+        String all = extra == null ? labels : labels + "," + extra;
+        return name + "{" + all + "} " + (ms / 1000.0) + "\n";
+    }
+
+    private static Path prepare(String path) throws IOException {
+        Path p = Paths.get(path);
+        if (p.getParent() != null) Files.createDirectories(p.getParent());
+        return p;
+    }
+
+    private static double round(double ms) {
+        return Math.round(ms * 1000) / 1000.0;
+    }
+
+    private static int rank(String phase) {
+        int i = ORDER.indexOf(phase);
+        return i < 0 ? ORDER.size() : i;
+    }
+
+    private record Key(String phase, String table, String outcome) { }
+
+    public static class Series {
+        private final String phase;
+        private final String table;
+        private final String outcome;
+        private final LatencyHistogram.Snapshot histogram;
+
+        Series(String phase, String table, String outcome, LatencyHistogram.Snapshot histogram) {
+            this.phase = phase;
+            this.table = table;
+            this.outcome = outcome;
+            this.histogram = histogram;
+        }
+
+        public String getPhase() { return phase; }
+        public String getTable() { return table; }
+        public String getOutcome() { return outcome; }
+        public LatencyHistogram.Snapshot getHistogram() { return histogram; }
+
+        String labels() {
+            StringBuilder sb = new StringBuilder("phase=\"").append(escape(phase)).append('"');
+            if (!table.isEmpty()) sb.append(",table=\"").append(escape(table)).append('"');
+            if (!outcome.isEmpty()) sb.append(",outcome=\"").append(escape(outcome)).append('"');
+            return sb.toString();
+        }
+
+        private static String escape(String s) {
+            return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+}
@@ -1,10 +1,22 @@
 package com.idea1.automation.utils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.model.CheckResult;
+import com.idea1.automation.model.ScenarioResult;
+import com.idea1.automation.model.ShardManifest;
+
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class ReportUtils {
+    private static final ObjectMapper mapper = new ObjectMapper();
 
     public static String getHtmlHeader(String jiraBaseUrl, String jiraProjectKey) {
         return "<html>\n" +
@@ -81,9 +93,12 @@ public class ReportUtils {
                 "  box-shadow: 0 2px 8px rgba(0,0,0,0.05);\n" +
                 "  position: sticky;\n" +
                 "  top: 20px;\n" +
-                "  max-height: calc(100vh - 160px);\n" +
-                "  overflow-y: auto;\n" +
+                "  height: calc(100vh - 160px);\n" +
+                "  display: flex;\n" +
+                "  flex-direction: column;\n" +
                 "}\n" +
+                ".sidebar-list { flex: 1; min-height: 0; overflow-y: auto; }\n" +
+                ".sidebar-list .case-link { height: 36px; margin: 0; padding: 8px 15px; white-space: nowrap; overflow: hidden; text-overflow: ellipsis; }\n" +
                 ".case-link {\n" +
                 "  display: block;\n" +
                 "  padding: 10px 15px;\n" +
@@ -104,7 +119,12 @@ public class ReportUtils {
                 "  box-shadow: 0 2px 8px rgba(0,0,0,0.05);\n" +
                 "  overflow: hidden;\n" +
                 "}\n" +
-                ".case summary {\n" +
+                ".case-viewport { height: calc(100vh - 160px); overflow-y: auto; margin-bottom: 20px; }\n" +
+                ".case-spacer { position: relative; }\n" +
+                ".case-window { position: absolute; top: 0; left: 0; right: 0; }\n" +
+                ".case-slot { padding-bottom: 20px; }\n" +
+                ".case-slot .case { margin-bottom: 0; }\n" +
+                ".case-summary {\n" +
                 "  padding: 15px 20px;\n" +
                 "  cursor: pointer;\n" +
                 "  background: var(--panel-soft);\n" +
@@ -226,55 +246,328 @@ public class ReportUtils {
                 "</script>\n" +
                 "<script>\n" +
                 "document.addEventListener('DOMContentLoaded', function(){\n" +
-                "  function buildSidebar(){\n" +
-                "    var sidebar = document.querySelector('.sidebar'); if(!sidebar) return; sidebar.innerHTML = '<h3>Test Scenarios</h3>';\n" +
-                "    var cases = document.querySelectorAll('.case');\n" +
-                "    cases.forEach(function(c){ if(c.style.display==='none') return; var id = c.id.replace('case-',''); var titleEl = c.querySelector('.case-title'); var title = titleEl ? titleEl.innerText : id; var statusEl = c.querySelector('.status'); var status = 'pass'; if(statusEl){ if(statusEl.classList.contains('fail')) status='fail'; else if(statusEl.classList.contains('pass')) status='pass'; else status='skip'; } var a = document.createElement('a'); a.className = 'case-link ' + status; a.id = 'link-' + id; a.href = '#case-' + id; a.innerText = title + ' ('+id+')'; a.addEventListener('click', function(e){ e.preventDefault(); var d = document.getElementById('case-' + id); if(d) d.open = true; d.scrollIntoView({behavior:'smooth', block:'start'}); }); sidebar.appendChild(a); });\n" +
-                "  }\n" +
+                "  // Scenarios arrive as JSON: an index (id, name, status) and chunks of case data parsed on first use.\n" +
+                "  // Only the cards and sidebar links in view exist in the DOM, so the page opens the same way for 10 or 10,000 scenarios.\n" +
+                "  function readJson(id){ var el = document.getElementById(id); return el ? JSON.parse(el.textContent) : null; }\n" +
+                "  function esc(v){ return v == null ? '' : String(v).replace(/&/g,'&amp;').replace(/</g,'&lt;').replace(/>/g,'&gt;').replace(/\"/g,'&quot;'); }\n" +
+                "  var index = readJson('report-index') || { chunkSize: 1, cases: [], counts: {} };\n" +
+                "  var chunkEls = document.querySelectorAll('script.report-chunk');\n" +
+                "  var chunks = [];\n" +
+                "  function caseData(pos){ var k = Math.floor(pos / index.chunkSize); if(!chunks[k]) chunks[k] = JSON.parse(chunkEls[k].textContent); return chunks[k][pos % index.chunkSize]; }\n" +
+                "\n" +
+                "  var viewport = document.getElementById('case-viewport');\n" +
+                "  var sidebar = document.querySelector('.sidebar');\n" +
+                "  var CASE_H = 72, LINK_H = 36, OVERSCAN = 600;\n" +
+                "  var view = [], tops = [0];\n" +
+                "  var heights = {}, open = {}, shown = {}, stepFilter = {};\n" +
+                "\n" +
                 "  function applyFilter(filter){\n" +
-                "    document.querySelectorAll('.case').forEach(function(c){ var statusEl = c.querySelector('.status'); var status = 'pass'; if(statusEl){ if(statusEl.classList.contains('fail')) status='fail'; else if(statusEl.classList.contains('pass')) status='pass'; else status='skip'; } c.style.display = (filter==='all' || filter===status) ? '' : 'none'; });\n" +
+                "    view = [];\n" +
+                "    index.cases.forEach(function(c, pos){ if(filter==='all' || c[2]===filter) view.push(pos); });\n" +
                 "    document.querySelectorAll('.filter-btn').forEach(function(b){ b.classList.toggle('active', b.getAttribute('data-filter')===filter); });\n" +
-                "    buildSidebar();\n" +
+                "    layout();\n" +
+                "    if(viewport) viewport.scrollTop = 0;\n" +
+                "    if(sideList) sideList.scrollTop = 0;\n" +
+                "    renderCases(); renderSidebar();\n" +
+                "  }\n" +
+                "  function layout(){\n" +
+                "    tops = new Array(view.length + 1); tops[0] = 0;\n" +
+                "    for(var i = 0; i < view.length; i++) tops[i + 1] = tops[i] + (heights[view[i]] || CASE_H);\n" +
+                "  }\n" +
+                "  // First view position whose card ends below y\n" +
+                "  function firstBelow(y){ var lo = 0, hi = view.length; while(lo < hi){ var mid = (lo + hi) >> 1; if(tops[mid + 1] <= y) lo = mid + 1; else hi = mid; } return lo; }\n" +
+                "\n" +
+                "  var spacer, win;\n" +
+                "  if(viewport){\n" +
+                "    spacer = document.createElement('div'); spacer.className = 'case-spacer';\n" +
+                "    win = document.createElement('div'); win.className = 'case-window';\n" +
+                "    spacer.appendChild(win); viewport.appendChild(spacer);\n" +
+                "  }\n" +
+                "  function renderCases(){\n" +
+                "    if(!viewport) return;\n" +
+                "    spacer.style.height = tops[view.length] + 'px';\n" +
+                "    var top = viewport.scrollTop, first = firstBelow(Math.max(0, top - OVERSCAN)), last = first, html = [];\n" +
+                "    while(last < view.length && tops[last] < top + viewport.clientHeight + OVERSCAN){ html.push(caseHtml(view[last])); last++; }\n" +
+                "    win.style.transform = 'translateY(' + tops[first] + 'px)';\n" +
+                "    win.innerHTML = html.join('');\n" +
+                "    // Cards are measured once drawn; when an estimate was off the offsets are rebuilt and the window redrawn\n" +
+                "    var changed = false;\n" +
+                "    Array.prototype.forEach.call(win.children, function(el){ var pos = +el.getAttribute('data-pos'); if(heights[pos] !== el.offsetHeight){ heights[pos] = el.offsetHeight; changed = true; } });\n" +
+                "    if(changed){ layout(); spacer.style.height = tops[view.length] + 'px'; win.style.transform = 'translateY(' + tops[first] + 'px)'; }\n" +
+                "  }\n" +
+                "  function caseHtml(pos){\n" +
+                "    var c = index.cases[pos], id = esc(c[0]);\n" +
+                "    var h = '<div class=\"case-slot\" data-pos=\"' + pos + '\"><div class=\"case\" id=\"case-' + id + '\">' +\n" +
+                "      '<div class=\"case-summary\" data-toggle=\"' + pos + '\"><span class=\"case-id\">' + id + '</span><span class=\"case-title\">' + esc(c[1]) + '</span>' +\n" +
+                "      '<span class=\"status ' + c[2] + '\">' + c[2].toUpperCase() + '</span></div>';\n" +
+                "    if(open[pos]) h += '<div class=\"case-body\">' + caseBody(pos, caseData(pos)) + '</div>';\n" +
+                "    return h + '</div></div>';\n" +
+                "  }\n" +
+                "  function caseBody(pos, d){\n" +
+                "    if(d.ab != null) return '<div class=\"step\"><p class=\"fail\">Scenario aborted: ' + esc(d.ab) + '</p></div>';\n" +
+                "    var h = \"<div class='step'><div class='step-title'>Pre-test DB Cleanup</div><p>Database was cleared at test start (one-time).</p></div>\";\n" +
+                "    h += '<div class=\"step\"><div class=\"step-title\">Step 2: Event Trigger</div>';\n" +
+                "    if(d.tr==='pass') h += '<p class=\"pass\">Successfully triggered <b>' + esc(d.ev) + '</b> event to Event Hub</p>';\n" +
+                "    else if(d.tr==='skip') h += '<p class=\"pass\">Event trigger was <b>SKIPPED</b> via config</p>';\n" +
+                "    else if(d.tr==='fail') h += '<p class=\"fail\">Failed to trigger event: ' + esc(d.tm) + '</p>';\n" +
+                "    if(d.w != null){\n" +
+                "      h += '<p>Waited <b>' + d.w + ' ms</b> for processing; rows persisted after <b>' + (d.p >= 0 ? d.p + ' ms' : 'n/a') + '</b>';\n" +
+                "      if(d.to) h += ' (timed out: ' + esc(d.to.join(', ')) + ')';\n" +
+                "      h += '</p>';\n" +
+                "    }\n" +
+                "    h += '</div><div class=\"step\"><div class=\"step-title\">Step 3: Database Validation</div>';\n" +
+                "    var f = stepFilter[pos] || 'all';\n" +
+                "    h += \"<div class='step-controls'><button class='step-toggle' data-pos='\" + pos + \"'>\" + (shown[pos] ? 'Hide' : 'Show') + ' Validation (' + d.c.length + \")</button><div class='step-filters'>\";\n" +
+                "    [['all','All'],['pass','Passed'],['fail','Failed'],['skip','Skipped']].forEach(function(o){ h += \"<button class='step-filter\" + (f===o[0] ? ' active' : '') + \"' data-pos='\" + pos + \"' data-filter='\" + o[0] + \"'>\" + o[1] + '</button>'; });\n" +
+                "    h += '</div></div>';\n" +
+                "    // The validation table is only built while it is shown\n" +
+                "    if(shown[pos]){\n" +
+                "      h += \"<div class='validation-container'><table class='validation-table'><thead><tr><th>Table</th><th>Column</th><th>Expected</th><th>Actual</th><th>Result</th></tr></thead><tbody>\";\n" +
+                "      d.c.forEach(function(r){\n" +
+                "        if(f!=='all' && r[4]!==f) return;\n" +
+                "        h += '<tr><td>' + esc(r[0]) + '</td>' + (r[1]==null ? \"<td colspan='3'>\" + esc(r[2]) + '</td>' : '<td>' + esc(r[1]) + '</td><td>' + esc(r[2]) + '</td><td>' + esc(r[3]) + '</td>') +\n" +
+                "          \"<td class='\" + r[4] + \"'>\" + r[4].toUpperCase() + '</td></tr>';\n" +
+                "      });\n" +
+                "      h += '</tbody></table></div>';\n" +
+                "    }\n" +
+                "    if(d.st==='fail') h += \"<button class='btn-jira' data-pos='\" + pos + \"'>Raise a Defect</button>\";\n" +
+                "    return h + '</div>';\n" +
                 "  }\n" +
-                "  document.querySelectorAll('.filter-btn').forEach(function(b){ b.addEventListener('click', function(){ applyFilter(b.getAttribute('data-filter')); }); });\n" +
+                "  function rerender(pos){ delete heights[pos]; layout(); renderCases(); }\n" +
                 "\n" +
-                "  // Step-level controls: toggle and per-step filters\n" +
-                "  document.addEventListener('click', function(e){\n" +
-                "    try {\n" +
-                "      if(e.target && e.target.classList && e.target.classList.contains('step-toggle')){\n" +
-                "        var target = e.target.getAttribute('data-target');\n" +
-                "        var el = document.getElementById(target);\n" +
-                "        if(el) el.style.display = (el.style.display==='none' || el.style.display==='') ? 'block' : 'none';\n" +
-                "        e.preventDefault();\n" +
-                "      }\n" +
-                "      if(e.target && e.target.classList && e.target.classList.contains('step-filter')){\n" +
-                "        var target = e.target.getAttribute('data-target');\n" +
-                "        var filter = e.target.getAttribute('data-filter');\n" +
-                "        var parent = e.target.parentElement;\n" +
-                "        if(parent){ parent.querySelectorAll('.step-filter').forEach(function(b){ b.classList.toggle('active', b===e.target); }); }\n" +
-                "        applyStepFilter(target, filter);\n" +
-                "        e.preventDefault();\n" +
-                "      }\n" +
-                "    } catch(err) { console.error(err); }\n" +
+                "  var sideList, sideSpacer, sideWin;\n" +
+                "  if(sidebar){\n" +
+                "    sideList = document.createElement('div'); sideList.className = 'sidebar-list';\n" +
+                "    sideSpacer = document.createElement('div'); sideSpacer.className = 'case-spacer';\n" +
+                "    sideWin = document.createElement('div'); sideWin.className = 'case-window';\n" +
+                "    sideSpacer.appendChild(sideWin); sideList.appendChild(sideSpacer); sidebar.appendChild(sideList);\n" +
+                "  }\n" +
+                "  function renderSidebar(){\n" +
+                "    if(!sidebar) return;\n" +
+                "    sideSpacer.style.height = view.length * LINK_H + 'px';\n" +
+                "    var first = Math.max(0, Math.floor(sideList.scrollTop / LINK_H) - 10), last = Math.min(view.length, first + Math.ceil(sideList.clientHeight / LINK_H) + 20), html = [];\n" +
+                "    for(var i = first; i < last; i++){ var c = index.cases[view[i]]; html.push('<a class=\"case-link ' + c[2] + '\" href=\"#case-' + esc(c[0]) + '\" data-view=\"' + i + '\" title=\"' + esc(c[1]) + '\">' + esc(c[1]) + ' (' + esc(c[0]) + ')</a>'); }\n" +
+                "    sideWin.style.transform = 'translateY(' + first * LINK_H + 'px)';\n" +
+                "    sideWin.innerHTML = html.join('');\n" +
+                "  }\n" +
+                "  function reveal(i){\n" +
+                "    if(i < 0 || i >= view.length || !viewport) return;\n" +
+                "    open[view[i]] = true; delete heights[view[i]]; layout();\n" +
+                "    // Drawing measures the cards around i, which can move it; the second pass lands on its final offset\n" +
+                "    viewport.scrollTop = tops[i]; renderCases();\n" +
+                "    viewport.scrollTop = tops[i]; renderCases();\n" +
+                "    viewport.scrollIntoView({ behavior: 'smooth', block: 'start' });\n" +
+                "  }\n" +
+                "\n" +
+                "  function onScroll(el, render){ var queued = false; el.addEventListener('scroll', function(){ if(queued) return; queued = true; requestAnimationFrame(function(){ queued = false; render(); }); }); }\n" +
+                "  if(viewport) onScroll(viewport, renderCases);\n" +
+                "  if(sideList) onScroll(sideList, renderSidebar);\n" +
+                "  window.addEventListener('resize', function(){ renderCases(); renderSidebar(); });\n" +
+                "\n" +
+                "  if(sideList) sideList.addEventListener('click', function(e){\n" +
+                "    var a = e.target.closest('.case-link'); if(!a) return;\n" +
+                "    e.preventDefault(); reveal(+a.getAttribute('data-view'));\n" +
+                "  });\n" +
+                "  if(viewport) viewport.addEventListener('click', function(e){\n" +
+                "    var t = e.target.closest('[data-toggle], .step-toggle, .step-filter, .btn-jira'); if(!t) return;\n" +
+                "    var pos = +(t.getAttribute('data-toggle') || t.getAttribute('data-pos'));\n" +
+                "    if(t.hasAttribute('data-toggle')) open[pos] = !open[pos];\n" +
+                "    else if(t.classList.contains('step-toggle')) shown[pos] = !shown[pos];\n" +
+                "    else if(t.classList.contains('step-filter')){ stepFilter[pos] = t.getAttribute('data-filter'); shown[pos] = true; }\n" +
+                "    else { var d = caseData(pos); raiseJiraDefect(d.id, d.name, d.d); return; }\n" +
+                "    e.preventDefault(); rerender(pos);\n" +
+                "  });\n" +
+                "  document.querySelectorAll('.filter-btn').forEach(function(b){\n" +
+                "    var f = b.getAttribute('data-filter'), n = f==='all' ? index.cases.length : (index.counts[f] || 0);\n" +
+                "    b.innerText = b.innerText + ' (' + n + ')';\n" +
+                "    b.addEventListener('click', function(){ applyFilter(f); });\n" +
                 "  });\n" +
                 "\n" +
-                "  function applyStepFilter(containerId, filter){\n" +
-                "    var container = document.getElementById(containerId);\n" +
-                "    if(!container) return;\n" +
-                "    container.querySelectorAll('table.validation-table tbody tr').forEach(function(tr){\n" +
-                "      var lastTd = tr.querySelector('td:last-child');\n" +
-                "      var cls = lastTd ? lastTd.className : '';\n" +
-                "      var status = 'pass';\n" +
-                "      if(cls.indexOf('fail')!==-1) status='fail'; else if(cls.indexOf('skip')!==-1) status='skip';\n" +
-                "      tr.style.display = (filter==='all' || filter===status) ? '' : 'none';\n" +
-                "    });\n" +
+                "  function renderSummary(){\n" +
+                "    var data = readJson('report-summary'); var host = document.getElementById('summary-cards');\n" +
+                "    if(!data || !host) return;\n" +
+                "    data.cards.forEach(function(c){ var card = document.createElement('div'); card.className = 'card' + (c.cls ? ' ' + c.cls : ''); var h = document.createElement('h3'); h.innerText = c.title; var v = document.createElement('div'); v.className = 'value'; v.innerText = c.value; card.appendChild(h); card.appendChild(v); host.appendChild(card); });\n" +
                 "  }\n" +
                 "\n" +
-                "  buildSidebar();\n" +
+                "  renderSummary();\n" +
+                "  applyFilter('all');\n" +
+                "  if(location.hash.indexOf('#case-')===0){ var target = decodeURIComponent(location.hash.substring(6)); reveal(view.findIndex(function(pos){ return index.cases[pos][0]===target; })); }\n" +
                 "});\n" +
                 "</script>\n";
     }
 
+    /** Summary figures as a JSON data block; the page script turns each entry into a card in #summary-cards. */
+    public static String getSummaryDataBlock(List<Map<String, Object>> cards) {
+        return "<script type=\"application/json\" id=\"report-summary\">" + scriptJson(Collections.singletonMap("cards", cards)) + "</script>\n";
+    }
+
+    /** One summary card entry for getSummaryDataBlock; cls is "pass", "fail" or null. */
+    public static Map<String, Object> summaryCard(String title, Object value, String cls) {
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("title", title);
+        card.put("value", String.valueOf(value));
+        if (cls != null) card.put("cls", cls);
+        return card;
+    }
+
+    public static String getTableResolutionBlock(TableResolver resolver) {
+        StringBuilder sb = new StringBuilder("<div class='step'><div class='step-title'>Table Resolution</div>");
+        if (!resolver.isAvailable()) {
+            return sb.append("<p class='skip'>Database metadata was unavailable; tables are resolved by prefix probing.</p></div>\n").toString();
+        }
+        sb.append(String.format("<p>%d table(s) resolved from database metadata.</p>", resolver.getResolved().size()));
+        if (!resolver.getUnresolved().isEmpty()) {
+            sb.append(String.format("<p class='fail'>Not found in the database: <b>%s</b></p>", String.join(", ", resolver.getUnresolved())));
+        }
+        for (Map.Entry<String, List<String>> e : resolver.getAmbiguous().entrySet()) {
+            sb.append(String.format("<p class='fail'>Ambiguous: <b>%s</b> exists as %s; qualify it in table_schema.json or set the connection's schema.</p>",
+                    escapeHtml(e.getKey()), escapeHtml(String.join(", ", e.getValue()))));
+        }
+        return sb.append("</div>\n").toString();
+    }
+
+    /** What the pre-test cleanup did to each table: method, rows removed and time. */
+    public static String getCleanupBlock(String mode, boolean parallel, long wallMs, List<DbCleaner.TableCleanup> tables) {
+        StringBuilder sb = new StringBuilder("<div class='step'><div class='step-title'>Pre-test DB Cleanup</div>");
+        long rows = 0;
+        for (DbCleaner.TableCleanup t : tables) rows += Math.max(0, t.getRows());
+        sb.append(String.format("<p>Mode <b>%s</b>%s: %d row(s) removed in %d ms.</p>",
+                escapeHtml(mode), parallel ? ", one connection per table" : "", rows, wallMs));
+        sb.append("<table class='fail-table'><tr><th>Table</th><th>Physical Table</th><th>Method</th><th>Rows</th><th>Time</th><th>Status</th></tr>");
+        for (DbCleaner.TableCleanup t : tables) {
+            sb.append(String.format("<tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td><td>%d ms</td><td class='%s'>%s</td></tr>",
+                    escapeHtml(t.getTable()), t.getPhysical() != null ? escapeHtml(t.getPhysical()) : "-", escapeHtml(String.valueOf(t.getMethod())),
+                    t.getRows() >= 0 ? String.valueOf(t.getRows()) : "n/a", t.getMs(),
+                    t.getError() == null ? "pass" : "fail", t.getError() == null ? "OK" : escapeHtml(t.getError())));
+        }
+        return sb.append("</table></div>\n").toString();
+    }
+
+    /** Database error messages can quote SQL, so text from outside the framework is escaped. */
+    private static String escapeHtml(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#39;");
+    }
+
+    public static String getPoolMetricsBlock(ConnectionPool.PoolMetrics m) {
+        return String.format("<div class='step'><div class='step-title'>Connection Pool</div>" +
+                "<table class='fail-table'><tr><th>Size (min-max)</th><th>Connections Created</th><th>Creation Latency (avg / max)</th><th>Borrows</th><th>Borrow Wait (avg / max)</th><th>Active / Idle</th><th>Validation Failures</th></tr>" +
+                "<tr><td>%d-%d</td><td>%d</td><td>%.1f / %.1f ms</td><td>%d</td><td>%.2f / %.2f ms</td><td>%d / %d</td><td>%d</td></tr></table></div>\n",
+                m.getMinSize(), m.getMaxSize(), m.getCreated(), m.getAvgCreateMs(), m.getMaxCreateMs(), m.getBorrows(),
+                m.getAvgWaitMs(), m.getMaxWaitMs(), m.getActive(), m.getIdle(), m.getValidationFailures());
+    }
+
+    public static String getSendMetricsBlock(SendMetrics m) {
+        if (!m.isBatched()) {
+            return String.format("<div class='step'><div class='step-title'>Event Transport: %s</div>" +
+                    "<table class='fail-table'><tr><th>Payloads</th><th>Events Sent</th><th>Bytes</th><th>Throughput</th><th>Latency (avg)</th><th>Latency (max)</th><th>Failures</th></tr>" +
+                    "<tr><td>%d</td><td>%d</td><td>%d</td><td>%.1f events/s</td><td>%.2f ms</td><td>%.2f ms</td><td>%d</td></tr></table></div>\n",
+                    m.getTransport(), m.getPayloads(), m.getEvents(), m.getBytes(), m.getEventsPerSecond(),
+                    m.getAvgLatencyMs(), m.getMaxLatencyMs(), m.getFailures());
+        }
+        return String.format("<div class='step'><div class='step-title'>Event Transport: %s</div>" +
+                "<table class='fail-table'><tr><th>Payloads</th><th>Events Sent</th><th>Batches</th><th>Throughput</th><th>Batch Fill (avg)</th><th>Send Latency (avg)</th><th>Latency (avg / max)</th><th>Split Payloads</th><th>Failures</th></tr>" +
+                "<tr><td>%d</td><td>%d</td><td>%d</td><td>%.1f events/s</td><td>%.1f%%</td><td>%.1f ms</td><td>%.1f / %.1f ms</td><td>%d</td><td>%d</td></tr></table></div>\n",
+                m.getTransport(), m.getPayloads(), m.getEvents(), m.getBatches(), m.getEventsPerSecond(), m.getAvgFillRatio() * 100,
+                m.getAvgSendMs(), m.getAvgLatencyMs(), m.getMaxLatencyMs(), m.getSplits(), m.getFailures());
+    }
+
+    /** The shards a merged report was built from, each linking to its own report, and any scenarios no shard reported. */
+    public static String getShardBlock(List<ShardManifest> shards, List<String> missing) {
+        StringBuilder sb = new StringBuilder("<div class='step'><div class='step-title'>Shards</div>");
+        sb.append("<table class='fail-table'><tr><th>Shard</th><th>Scenarios</th><th>Passed</th><th>Failed</th><th>Wall Clock</th><th>Workers</th><th>Transport</th><th>Report</th></tr>");
+        for (ShardManifest m : shards) {
+            sb.append(String.format("<tr><td>%d/%d</td><td>%d</td><td>%d</td><td>%d</td><td>%.1fs</td><td>%d</td><td>%s (%.1f events/s)</td><td><a href='%s'>%s</a></td></tr>",
+                    m.getShard_index(), m.getShard_count(), m.getScenarios(), m.getPassed(), m.getFailed(), m.getWall_clock_ms() / 1000.0,
+                    m.getConcurrency(), escapeHtml(String.valueOf(m.getTransport())), m.getEvents_per_second(),
+                    escapeHtml(String.valueOf(m.getReport())), escapeHtml(String.valueOf(m.getReport()))));
+        }
+        sb.append("</table>");
+        if (!missing.isEmpty()) {
+            sb.append(String.format("<p class='fail'>%d scenario(s) have no result in their shard's journal: <b>%s</b></p>", missing.size(), escapeHtml(String.join(", ", missing))));
+        }
+        return sb.append("</div>\n").toString();
+    }
+
+    /** Per-phase latency percentiles from PhaseMetrics; fetch and validate rows are split by table and outcome. */
+    public static String getTimingBlock(List<PhaseMetrics.Series> timings) {
+        StringBuilder sb = new StringBuilder("<div class='step'><div class='step-title'>Phase Timings</div>");
+        if (timings.isEmpty()) {
+            return sb.append("<p>No timings recorded.</p></div>\n").toString();
+        }
+        sb.append("<table class='fail-table'><tr><th>Phase</th><th>Table</th><th>Outcome</th><th>Count</th><th>p50</th><th>p95</th><th>p99</th><th>Max</th><th>Total</th></tr>");
+        for (PhaseMetrics.Series s : timings) {
+            LatencyHistogram.Snapshot h = s.getHistogram();
+            sb.append(String.format("<tr><td>%s</td><td>%s</td><td>%s</td><td>%d</td><td>%.2f ms</td><td>%.2f ms</td><td>%.2f ms</td><td>%.2f ms</td><td>%.1f ms</td></tr>",
+                    s.getPhase(), s.getTable(), s.getOutcome(), h.getCount(), h.getP50Ms(), h.getP95Ms(), h.getP99Ms(), h.getMaxMs(), h.getSumMs()));
+        }
+        return sb.append("</table></div>\n").toString();
+    }
+
+    /**
+     * One scenario as report data: what the page script needs to draw its card, with check values already
+     * rendered to text. Keys are kept short since a large suite embeds thousands of these.
+     */
+    public static Map<String, Object> getScenarioData(ScenarioResult r) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", r.getTest_case_id());
+        data.put("name", r.getScenario_name());
+        data.put("st", r.isFailed() ? "fail" : "pass");
+        if (r.getAbortMessage() != null) {
+            data.put("ab", r.getAbortMessage());
+            return data;
+        }
+        data.put("ev", r.getEvent_type());
+        if (r.getTriggerStatus() != null) data.put("tr", r.getTriggerStatus().cssClass());
+        if (r.getTriggerMessage() != null) data.put("tm", r.getTriggerMessage());
+        if (r.getWaitedMs() >= 0) {
+            data.put("w", r.getWaitedMs());
+            data.put("p", r.getTimeToPersistMs());
+            if (!r.getTimedOutTables().isEmpty()) data.put("to", r.getTimedOutTables());
+        }
+        // [table, column, expected, actual, status]; a null column is a schema row spanning column to actual
+        List<Object[]> checks = new ArrayList<>(r.getChecks().size());
+        StringBuilder defects = new StringBuilder();
+        for (CheckResult check : r.getChecks()) {
+            String status = check.status().cssClass();
+            if (check.kind() == CheckResult.Kind.SCHEMA) {
+                checks.add(new Object[]{check.id().getTable(), null, check.expectedText(), null, status});
+            } else {
+                checks.add(new Object[]{check.id().getTable(), check.label(), check.expectedText(), check.actualText(), status});
+            }
+            String line = check.defectLine();
+            if (line != null) defects.append(line).append('\n');
+        }
+        data.put("c", checks);
+        if (r.isFailed()) data.put("d", defects.toString());
+        return data;
+    }
+
+    /** A run of consecutive scenarios from getScenarioData; the page script parses a chunk only when it shows one of them. */
+    public static String getCaseChunkBlock(List<Map<String, Object>> cases) {
+        return "<script type=\"application/json\" class=\"report-chunk\">" + scriptJson(cases) + "</script>\n";
+    }
+
+    /**
+     * Id, name and status of every scenario in report order plus the status counts, so the sidebar and filters
+     * work without touching the chunks. Scenario i is entry i % chunkSize of chunk i / chunkSize.
+     */
+    public static String getCaseIndexBlock(int chunkSize, List<String[]> cases, Map<String, Integer> counts) {
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("chunkSize", chunkSize);
+        index.put("cases", cases);
+        index.put("counts", counts);
+        return "<script type=\"application/json\" id=\"report-index\">" + scriptJson(index) + "</script>\n";
+    }
+
+    private static String scriptJson(Object value) {
+        try {
+            // "</" would end the script element early
+            return mapper.writeValueAsString(value).replace("</", "<\\/");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise report data", e);
+        }
+    }
+
     public static String getHtmlFailureBlock(String table, String check, Object expected, Object actual, String details) {
         String exp = expected == null ? "null" : expected.toString();
         String act = actual == null ? "null" : actual.toString();
@@ -0,0 +1,95 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.ScenarioResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the HTML report to disk as scenarios finish, so memory use does not grow with the suite.
+ * Scenarios are written as JSON data in chunks of CHUNK_SIZE rather than as HTML; the page script renders only
+ * the cards in view. Figures only known at the end (the summary cards, the scenario index) go into trailing
+ * JSON blocks.
+ */
+public class ReportWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int CHUNK_SIZE = 200;
+
+    private final Path path;
+    private final Writer out;
+    private long chars;
+    private int fragments;
+    private boolean finished;
+    private final List<Map<String, Object>> chunk = new ArrayList<>(CHUNK_SIZE);
+    // Id, name and status per scenario: all the report keeps in memory until the index is written
+    private final List<String[]> index = new ArrayList<>();
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+    public ReportWriter(String path) throws IOException {
+        this.path = Paths.get(path);
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+        this.out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(this.path), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public void write(String html) throws IOException {
+        if (html == null) return;
+        out.write(html);
+        chars += html.length();
+        fragments++;
+    }
+
+    /** Adds one scenario to the report, in the order scenarios should be listed. */
+    public void writeScenario(ScenarioResult result) throws IOException {
+        Map<String, Object> data = ReportUtils.getScenarioData(result);
+        String status = (String) data.get("st");
+        index.add(new String[]{result.getTest_case_id(), result.getScenario_name(), status});
+        counts.merge(status, 1, Integer::sum);
+        chunk.add(data);
+        if (chunk.size() == CHUNK_SIZE) flushChunk();
+    }
+
+    /** Writes the scenario index and summary data blocks and closes the document. */
+    public void finish(List<Map<String, Object>> summaryCards) throws IOException {
+        writeIndex();
+        write(ReportUtils.getSummaryDataBlock(summaryCards));
+        write("</main></div></body></html>");
+        finished = true;
+    }
+
+    private void flushChunk() throws IOException {
+        if (chunk.isEmpty()) return;
+        write(ReportUtils.getCaseChunkBlock(chunk));
+        chunk.clear();
+    }
+
+    private void writeIndex() throws IOException {
+        flushChunk();
+        write(ReportUtils.getCaseIndexBlock(CHUNK_SIZE, index, counts));
+    }
+
+    public Path getPath() { return path; }
+    public long getChars() { return chars; }
+    public int getFragments() { return fragments; }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            // Keep whatever was streamed readable if the run aborted part way
+            writeIndex();
+            out.write("</main></div></body></html>");
+        }
+        out.close();
+    }
+}
@@ -0,0 +1,199 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.idea1.automation.model.CheckResult;
+import com.idea1.automation.model.ScenarioResult;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Machine-readable outputs built from the same ScenarioResults as the HTML report:
+ * a JSON document with every check, and a JUnit XML file for CI test dashboards.
+ * Like ReportWriter, results are written as they arrive and only counts are kept. The JUnit testcases go to a
+ * .part file first, because the testsuite element carries the totals; finish() writes the suite around them.
+ */
+public class ResultExporter implements AutoCloseable {
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final String suiteName;
+    private final Path junitPath;
+    private final Path junitPart;
+    private final JsonGenerator json;
+    private final OutputStream partOut;
+    private final XMLStreamWriter part;
+    private long total;
+    private long failed;
+    private long failures;
+    private long errors;
+    private boolean finished;
+
+    public ResultExporter(String jsonPath, String junitPath, String suiteName) throws IOException {
+        this.suiteName = suiteName;
+        this.junitPath = Paths.get(junitPath);
+        this.junitPart = Paths.get(junitPath + ".part");
+        this.json = jsonFactory.createGenerator(open(jsonPath), JsonEncoding.UTF8);
+        json.useDefaultPrettyPrinter();
+        json.writeStartObject();
+        json.writeArrayFieldStart("scenarios");
+        this.partOut = open(junitPart.toString());
+        try {
+            this.part = XMLOutputFactory.newInstance().createXMLStreamWriter(partOut, "UTF-8");
+        } catch (XMLStreamException e) {
+            partOut.close();
+            json.close();
+            throw new IOException("Could not write JUnit report " + junitPath, e);
+        }
+    }
+
+    /** Adds one scenario to both outputs, in the order scenarios should be listed. */
+    public void add(ScenarioResult r) throws IOException {
+        total++;
+        if (r.isFailed()) failed++;
+        writeJson(r);
+        try {
+            writeTestcase(r);
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write JUnit report " + junitPath, e);
+        }
+    }
+
+    /** Writes the totals and closes both documents. */
+    public void finish(long wallClockMs) throws IOException {
+        json.writeEndArray();
+        json.writeNumberField("total", total);
+        json.writeNumberField("failed", failed);
+        json.writeEndObject();
+        json.close();
+        try {
+            part.close();
+            partOut.close();
+            try (OutputStream out = open(junitPath.toString())) {
+                XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+                xml.writeStartDocument("UTF-8", "1.0");
+                xml.writeCharacters("\n");
+                xml.writeStartElement("testsuite");
+                xml.writeAttribute("name", suiteName);
+                xml.writeAttribute("tests", String.valueOf(total));
+                xml.writeAttribute("failures", String.valueOf(failures));
+                xml.writeAttribute("errors", String.valueOf(errors));
+                xml.writeAttribute("time", seconds(wallClockMs));
+                // Closes the start tag before the testcases are copied in
+                xml.writeCharacters("");
+                xml.flush();
+                Files.copy(junitPart, out);
+                xml.writeCharacters("\n");
+                xml.writeEndElement();
+                xml.writeEndDocument();
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write JUnit report " + junitPath, e);
+        }
+        Files.deleteIfExists(junitPart);
+        finished = true;
+    }
+
+    private void writeJson(ScenarioResult r) throws IOException {
+        JsonGenerator gen = json;
+        gen.writeStartObject();
+        gen.writeStringField("test_case_id", r.getTest_case_id());
+        gen.writeStringField("scenario_name", r.getScenario_name());
+        gen.writeStringField("event_type", r.getEvent_type());
+        gen.writeStringField("status", r.isFailed() ? "FAIL" : "PASS");
+        gen.writeNumberField("duration_ms", r.getDurationMs());
+        gen.writeNumberField("time_to_persist_ms", r.getTimeToPersistMs());
+        gen.writeObjectFieldStart("phase_ms");
+        for (Map.Entry<String, Double> phase : r.getPhaseMs().entrySet()) {
+            gen.writeNumberField(phase.getKey(), Math.round(phase.getValue() * 1000) / 1000.0);
+        }
+        gen.writeEndObject();
+        if (r.getTriggerStatus() != null) gen.writeStringField("trigger", r.getTriggerStatus().name());
+        if (r.getTriggerMessage() != null) gen.writeStringField("trigger_message", r.getTriggerMessage());
+        if (r.getAbortMessage() != null) gen.writeStringField("aborted", r.getAbortMessage());
+        gen.writeArrayFieldStart("checks");
+        for (CheckResult c : r.getChecks()) {
+            gen.writeStartObject();
+            gen.writeStringField("kind", c.kind().name());
+            gen.writeStringField("table", c.id().getTable());
+            gen.writeStringField("column", c.label());
+            gen.writeStringField("status", c.status().name());
+            gen.writeStringField("expected", c.expectedText());
+            gen.writeStringField("actual", c.actualText());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /** One testcase per scenario; failed checks become the failure body, an abort becomes an error. */
+    private void writeTestcase(ScenarioResult r) throws XMLStreamException {
+        XMLStreamWriter xml = part;
+        xml.writeCharacters("\n  ");
+        xml.writeStartElement("testcase");
+        xml.writeAttribute("classname", suiteName);
+        xml.writeAttribute("name", r.getTest_case_id() + " - " + r.getScenario_name());
+        xml.writeAttribute("time", seconds(r.getDurationMs()));
+        if (r.getAbortMessage() != null) {
+            errors++;
+            xml.writeStartElement("error");
+            xml.writeAttribute("message", "Scenario aborted: " + r.getAbortMessage());
+            xml.writeEndElement();
+        } else if (r.isFailed()) {
+            failures++;
+            StringBuilder details = new StringBuilder();
+            if (r.getTriggerMessage() != null) {
+                details.append("Event trigger failed: ").append(r.getTriggerMessage()).append('\n');
+            }
+            int failedChecks = 0;
+            for (CheckResult c : r.getChecks()) {
+                if (!c.isFailed()) continue;
+                failedChecks++;
+                details.append(c.id().getTable()).append(' ').append(c.label())
+                       .append(": expected ").append(c.expectedText()).append(", actual ").append(c.actualText()).append('\n');
+            }
+            xml.writeStartElement("failure");
+            xml.writeAttribute("message", failedChecks + " check(s) failed");
+            xml.writeCharacters(details.toString());
+            xml.writeEndElement();
+        }
+        xml.writeEndElement();
+    }
+
+    /** Closes the files; a run that stopped before finish() keeps a JSON without totals and gets no JUnit file. */
+    @Override
+    public void close() throws IOException {
+        if (finished) return;
+        json.close();
+        try {
+            part.close();
+        } catch (XMLStreamException e) {
+            // The .part file is removed below either way
+        }
+        partOut.close();
+        Files.deleteIfExists(junitPart);
+    }
+
+    private static String seconds(long ms) {
+        return String.format(Locale.ROOT, "%.3f", ms / 1000.0);
+    }
+
+    private static OutputStream open(String path) throws IOException {
+        Path p = Paths.get(path);
+        if (p.getParent() != null) {
+            Files.createDirectories(p.getParent());
+        }
+        return new BufferedOutputStream(Files.newOutputStream(p), 64 * 1024);
+    }
+}
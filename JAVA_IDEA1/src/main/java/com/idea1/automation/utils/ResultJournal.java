@@ -0,0 +1,196 @@
+package com.idea1.automation.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.model.CheckId;
+import com.idea1.automation.model.CheckResult;
+import com.idea1.automation.model.CheckStatus;
+import com.idea1.automation.model.ScenarioResult;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Append-only JSONL journal with one line per finished scenario, holding everything needed to render it again.
+ * Each line is written to the file as soon as the scenario is delivered, so it survives the JVM dying; the fsync
+ * that makes it survive the machine is batched to every syncEvery lines or syncIntervalMs, whichever comes first.
+ */
+public class ResultJournal implements AutoCloseable {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int syncEvery;
+    private final long syncIntervalMs;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+    private int unsynced;
+    private long lastSyncMs = System.currentTimeMillis();
+    private int appended;
+
+    private ResultJournal(Path path, boolean append, int syncEvery, long syncIntervalMs) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        this.syncEvery = Math.max(1, syncEvery);
+        this.syncIntervalMs = syncIntervalMs;
+    }
+
+    /** Opens the journal, keeping its existing lines when appending (resume) and truncating it otherwise. */
+    public static ResultJournal open(String path, boolean append, int syncEvery, long syncIntervalMs) throws IOException {
+        return new ResultJournal(Paths.get(path), append, syncEvery, syncIntervalMs);
+    }
+
+    public void append(ScenarioResult result) throws IOException {
+        buffer.reset();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            write(gen, result);
+        }
+        buffer.write('\n');
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        appended++;
+        unsynced++;
+        if (unsynced >= syncEvery || System.currentTimeMillis() - lastSyncMs >= syncIntervalMs) {
+            sync();
+        }
+    }
+
+    public void sync() throws IOException {
+        if (unsynced == 0) return;
+        channel.force(false);
+        unsynced = 0;
+        lastSyncMs = System.currentTimeMillis();
+    }
+
+    public Path getPath() { return path; }
+    public int getAppended() { return appended; }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a journal back, keyed by test_case_id; when a scenario was journaled more than once the last line wins.
+     * A line cut off by a crash is skipped. A missing file gives an empty map.
+     */
+    public static Map<String, ScenarioResult> load(String path) throws IOException {
+        Map<String, ScenarioResult> results = new LinkedHashMap<>();
+        Path p = Paths.get(path);
+        if (!Files.exists(p)) return results;
+        try (BufferedReader reader = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                try {
+                    ScenarioResult r = read(mapper.readTree(line));
+                    results.put(r.getTest_case_id(), r);
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("   [JOURNAL] Skipping unreadable line " + lineNo + " of " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        return results;
+    }
+
+    private static void write(JsonGenerator gen, ScenarioResult r) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("test_case_id", r.getTest_case_id());
+        gen.writeStringField("scenario_name", r.getScenario_name());
+        gen.writeStringField("event_type", r.getEvent_type());
+        gen.writeStringField("status", r.isFailed() ? "FAIL" : "PASS");
+        if (r.getTriggerStatus() != null) gen.writeStringField("trigger_status", r.getTriggerStatus().name());
+        if (r.getTriggerMessage() != null) gen.writeStringField("trigger_message", r.getTriggerMessage());
+        gen.writeNumberField("waited_ms", r.getWaitedMs());
+        gen.writeNumberField("time_to_persist_ms", r.getTimeToPersistMs());
+        gen.writeNumberField("duration_ms", r.getDurationMs());
+        gen.writeArrayFieldStart("timed_out_tables");
+        for (String t : r.getTimedOutTables()) gen.writeString(t);
+        gen.writeEndArray();
+        if (r.getAbortMessage() != null) gen.writeStringField("abort_message", r.getAbortMessage());
+        gen.writeArrayFieldStart("failure_summary");
+        for (String s : r.getFailureSummary()) gen.writeString(s);
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("checks");
+        for (CheckResult c : r.getChecks()) {
+            gen.writeStartObject();
+            gen.writeStringField("kind", c.kind().name());
+            gen.writeStringField("status", c.status().name());
+            gen.writeStringField("table", c.id().getTable());
+            if (c.id().getColumn() != null) gen.writeStringField("column", c.id().getColumn());
+            if (c.id().getPath() != null) gen.writeStringField("path", c.id().getPath());
+            writeValue(gen, "expected", c.expected());
+            writeValue(gen, "actual", c.actual());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /** Integers, strings and booleans keep their type; anything else is stored as the text the report shows for it. */
+    private static void writeValue(JsonGenerator gen, String field, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(field);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            gen.writeNumberField(field, ((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            gen.writeBooleanField(field, (Boolean) value);
+        } else {
+            gen.writeStringField(field, String.valueOf(value));
+        }
+    }
+
+    private static ScenarioResult read(JsonNode n) {
+        ScenarioResult r = new ScenarioResult();
+        r.setTest_case_id(n.path("test_case_id").asText(null));
+        r.setScenario_name(n.path("scenario_name").asText(null));
+        r.setEvent_type(n.path("event_type").asText(null));
+        if (n.hasNonNull("trigger_status")) r.setTriggerStatus(CheckStatus.valueOf(n.get("trigger_status").asText()));
+        r.setTriggerMessage(n.path("trigger_message").asText(null));
+        r.setWaitedMs(n.path("waited_ms").asLong(-1));
+        r.setTimeToPersistMs(n.path("time_to_persist_ms").asLong(-1));
+        r.setDurationMs(n.path("duration_ms").asLong());
+        List<String> timedOut = new ArrayList<>();
+        n.path("timed_out_tables").forEach(t -> timedOut.add(t.asText()));
+        r.setTimedOutTables(timedOut);
+        r.setAbortMessage(n.path("abort_message").asText(null));
+        n.path("failure_summary").forEach(s -> r.getFailureSummary().add(s.asText()));
+        for (JsonNode c : n.path("checks")) {
+            CheckId id = CheckId.of(c.get("table").asText(), c.path("column").asText(""));
+            if (c.hasNonNull("path")) id = id.at(c.get("path").asText());
+            r.addCheck(new CheckResult(CheckResult.Kind.valueOf(c.get("kind").asText()), id,
+                    CheckStatus.valueOf(c.get("status").asText()), readValue(c.get("expected")), readValue(c.get("actual"))));
+        }
+        r.setFailed("FAIL".equals(n.path("status").asText()));
+        return r;
+    }
+
+    private static Object readValue(JsonNode v) {
+        if (v == null || v.isNull()) return null;
+        if (v.isIntegralNumber()) return v.longValue();
+        if (v.isBoolean()) return v.booleanValue();
+        return v.asText();
+    }
+}
@@ -0,0 +1,156 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.EventPayload;
+import org.postgresql.util.PGobject;
+
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Run isolation: every string lookup id of a scenario gets "-&lt;run id&gt;" appended (or the run id substituted
+ * when it already mentions {{RUN_ID}}), and the event payload is rendered through PayloadTemplate so that strings
+ * equal to an original lookup id follow it and {{RUN_ID}} slots get the id. Rows the run produces are therefore
+ * keyed by ids no other run uses, so several suites can share one database: scoped cleanup and validation only ever
+ * see this run's rows. Only strings can be namespaced; the Runner refuses isolated runs with other primary lookups.
+ *
+ * strip undoes apply: fetched rows have each of the scenario's namespaced ids replaced by the id as written before
+ * they are compared with the expected data, which is written without the run id.
+ *
+ * Like the expected-row cache this is run-wide static state; it is inactive unless set.
+ */
+public final class RunNamespace {
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_]{1,32}");
+    private static final String PLACEHOLDER = "{{RUN_ID}}";
+
+    private static volatile String runId;
+
+    private RunNamespace() { }
+
+    /** A short id unlikely to be chosen by another run, e.g. "r5kq2m9x1". */
+    public static String generateId() {
+        long bits = new SecureRandom().nextLong() & Long.MAX_VALUE;
+        String id = Long.toString(bits, 36);
+        return "r" + id.substring(0, Math.min(8, id.length()));
+    }
+
+    public static void set(String id) {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Run id must be 1-32 letters, digits or underscores but got: " + id);
+        }
+        runId = id;
+    }
+
+    public static void clear() {
+        runId = null;
+    }
+
+    public static boolean isActive() { return runId != null; }
+
+    /** The current run id, or "" when runs are not isolated ({{RUN_ID}} renders as this). */
+    public static String getRunId() {
+        String id = runId;
+        return id != null ? id : "";
+    }
+
+    /** Whether apply gives this lookup id a form of its own; false for numbers and other non-strings. */
+    public static boolean isNamespaceable(Object value) {
+        return value == null || value instanceof String;
+    }
+
+    /** The namespaced form of one lookup id; only strings are namespaced. */
+    public static Object apply(Object value) {
+        String id = runId;
+        if (id == null || !(value instanceof String)) return value;
+        String s = (String) value;
+        return s.contains(PLACEHOLDER) ? s.replace(PLACEHOLDER, id) : s + "-" + id;
+    }
+
+    /**
+     * Moves a scenario into the run's namespace, rendering its event payload's other slots for instance seq
+     * (time placeholders are left for the send). The ids as written are kept in written_lookup_ids for strip.
+     * Does nothing when runs are not isolated.
+     */
+    public static void applyTo(EventPayload payload, long seq) {
+        if (runId == null || payload.getLookup_ids() == null) return;
+        Map<String, Object> original = payload.getLookup_ids();
+        Map<String, Object> namespaced = new LinkedHashMap<>();
+        original.forEach((name, value) -> namespaced.put(name, apply(value)));
+        PayloadTemplate template = PayloadTemplate.compile(payload.getEvent_payload(), original);
+        if (template.getSlotCount() > 0) {
+            payload.setEvent_payload(template.render(seq, namespaced, true));
+        }
+        payload.setWritten_lookup_ids(original);
+        payload.setLookup_ids(namespaced);
+    }
+
+    /** The scenario's lookup ids as the scenario file wrote them, whether or not it was namespaced. */
+    public static Map<String, Object> writtenLookups(EventPayload payload) {
+        return payload.getWritten_lookup_ids() != null ? payload.getWritten_lookup_ids() : payload.getLookup_ids();
+    }
+
+    /** An expected row as this run's scenario would produce it: values equal to a written lookup id are namespaced. */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> namespaceRow(Map<String, Object> row, EventPayload payload) {
+        if (payload.getWritten_lookup_ids() == null) return row;
+        return (Map<String, Object>) PayloadTemplate.compile(row, payload.getWritten_lookup_ids())
+                .render(0, payload.getLookup_ids(), true);
+    }
+
+    /** Fetched rows with every namespaced id of the scenario turned back into the id as written. */
+    public static List<Map<String, Object>> strip(List<Map<String, Object>> rows, EventPayload payload) {
+        Map<String, String> written = reverse(payload);
+        if (written.isEmpty()) return rows;
+        List<Map<String, Object>> stripped = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> copy = new HashMap<>(row.size() * 4 / 3 + 1);
+            row.forEach((column, value) -> copy.put(column, strip(value, written)));
+            stripped.add(copy);
+        }
+        return stripped;
+    }
+
+    /** Namespaced id to id as written, longest first so an id that extends another is replaced whole. */
+    private static Map<String, String> reverse(EventPayload payload) {
+        Map<String, Object> original = payload.getWritten_lookup_ids();
+        if (original == null) return Collections.emptyMap();
+        List<String> names = new ArrayList<>();
+        original.forEach((name, value) -> {
+            Object namespaced = payload.getLookup_ids().get(name);
+            if (value instanceof String && namespaced instanceof String && !value.equals(namespaced)) names.add(name);
+        });
+        names.sort((a, b) -> ((String) payload.getLookup_ids().get(b)).length() - ((String) payload.getLookup_ids().get(a)).length());
+        Map<String, String> written = new LinkedHashMap<>();
+        for (String name : names) written.put((String) payload.getLookup_ids().get(name), (String) original.get(name));
+        return written;
+    }
+
+    /** The value with the namespaced ids replaced; jsonb values keep their type. */
+    private static Object strip(Object value, Map<String, String> written) {
+        if (value instanceof String) {
+            return replace((String) value, written);
+        }
+        if (value instanceof PGobject) {
+            PGobject json = (PGobject) value;
+            String text = json.getValue() != null ? replace(json.getValue(), written) : null;
+            if (text == null || text.equals(json.getValue())) return value;
+            PGobject stripped = new PGobject();
+            stripped.setType(json.getType());
+            try {
+                stripped.setValue(text);
+            } catch (SQLException e) {
+                return value;
+            }
+            return stripped;
+        }
+        return value;
+    }
+
+    private static String replace(String s, Map<String, String> written) {
+        for (Map.Entry<String, String> e : written.entrySet()) {
+            if (s.contains(e.getKey())) s = s.replace(e.getKey(), e.getValue());
+        }
+        return s;
+    }
+}
@@ -0,0 +1,107 @@
+package com.idea1.automation.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Send statistics of one EventTransport. Latency is measured per payload from submit until the transport
+ * confirmed it, which is what a worker waits for; throughput is confirmed events over the time they took.
+ * Batch fill, splits and per-batch send time are only filled in by transports that batch (Event Hub).
+ */
+public class SendMetrics {
+    String transport;
+    long payloads;
+    long events;
+    long batches;
+    long bytes;
+    long splits;
+    long failures;
+    double avgSendMs;
+    double avgLatencyMs;
+    double maxLatencyMs;
+    double avgFillRatio;
+    double eventsPerSecond;
+    boolean batched;
+
+    public String getTransport() { return transport; }
+    public long getPayloads() { return payloads; }
+    public long getEvents() { return events; }
+    public long getBatches() { return batches; }
+    public long getBytes() { return bytes; }
+    public long getSplits() { return splits; }
+    public long getFailures() { return failures; }
+    /** Average time of one network send (one batch). */
+    public double getAvgSendMs() { return avgSendMs; }
+    /** Average time from submit until the payload was confirmed. */
+    public double getAvgLatencyMs() { return avgLatencyMs; }
+    public double getMaxLatencyMs() { return maxLatencyMs; }
+    /** Average share of the batch size limit that was used, 0..1. */
+    public double getAvgFillRatio() { return avgFillRatio; }
+    public double getEventsPerSecond() { return eventsPerSecond; }
+    public boolean isBatched() { return batched; }
+
+    @Override
+    public String toString() {
+        String base = String.format("%s: %d payload(s) as %d event(s), %.1f events/s, latency avg %.2f ms / max %.2f ms, %d failure(s)",
+                transport, payloads, events, eventsPerSecond, avgLatencyMs, maxLatencyMs, failures);
+        if (!batched) return base;
+        return base + String.format(", %d batch(es), fill %.1f%%, avg send %.1f ms, %d split(s)", batches, avgFillRatio * 100, avgSendMs, splits);
+    }
+
+    /** Thread-safe per-payload accounting shared by the transports. */
+    public static class Recorder {
+        private final String transport;
+        private final AtomicLong payloads = new AtomicLong();
+        private final AtomicLong confirmed = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong latencyNanos = new AtomicLong();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+        private long firstSubmitNanos;
+        private long lastConfirmNanos;
+
+        public Recorder(String transport) {
+            this.transport = transport;
+        }
+
+        /** Counts a submitted payload of the given size and times it until its future completes. */
+        public void track(CompletableFuture<?> future, long size) {
+            long start = System.nanoTime();
+            payloads.incrementAndGet();
+            synchronized (this) {
+                if (firstSubmitNanos == 0) firstSubmitNanos = start;
+            }
+            future.whenComplete((v, e) -> {
+                long end = System.nanoTime();
+                if (e != null) {
+                    failures.incrementAndGet();
+                    return;
+                }
+                confirmed.incrementAndGet();
+                bytes.addAndGet(size);
+                latencyNanos.addAndGet(end - start);
+                maxLatencyNanos.accumulate(end - start);
+                synchronized (this) {
+                    lastConfirmNanos = Math.max(lastConfirmNanos, end);
+                }
+            });
+        }
+
+        /** One event per confirmed payload; batching transports overwrite the event, batch and byte counts. */
+        public synchronized SendMetrics snapshot() {
+            SendMetrics m = new SendMetrics();
+            m.transport = transport;
+            m.payloads = payloads.get();
+            m.failures = failures.get();
+            m.events = confirmed.get();
+            m.batches = m.events;
+            m.bytes = bytes.get();
+            m.avgLatencyMs = m.events > 0 ? latencyNanos.get() / (double) m.events / 1_000_000.0 : 0;
+            m.maxLatencyMs = maxLatencyNanos.get() / 1_000_000.0;
+            long span = lastConfirmNanos - firstSubmitNanos;
+            m.eventsPerSecond = span > 0 ? m.events * 1_000_000_000.0 / span : m.events;
+            return m;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.idea1.automation.utils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps logical table names from table_schema.json to the physical, schema-qualified names in the database.
+ * The catalogue is read once through DatabaseMetaData, so per-scenario queries no longer probe the
+ * dcc./dcc_ prefix variants with a failing round trip each. A bare name only matches a table in the connection's
+ * current schema, the one an unqualified query would use; when the driver has no current schema and the name
+ * exists in several schemas, the table is reported as ambiguous rather than guessed.
+ */
+public class TableResolver {
+    private static final String[] NO_TABLES = new String[0];
+
+    /** lower-case "schema.table" and bare "table" keys to the qualified name as the database spells it */
+    private final Map<String, String> qualifiedByKey;
+    private final Map<String, List<String>> qualifiedByName;
+    private final Map<String, String[]> cache = new ConcurrentHashMap<>();
+    private final Set<String> unresolved = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<String>> ambiguous = new ConcurrentHashMap<>();
+    private final String defaultSchema;
+    private final boolean available;
+
+    private TableResolver(Map<String, String> qualifiedByKey, Map<String, List<String>> qualifiedByName, String defaultSchema, boolean available) {
+        this.qualifiedByKey = qualifiedByKey;
+        this.qualifiedByName = qualifiedByName;
+        this.defaultSchema = defaultSchema;
+        this.available = available;
+    }
+
+    /**
+     * Reads the catalogue and resolves the given tables. If the metadata call itself fails the resolver
+     * falls back to the legacy candidate probing so the run can still proceed.
+     */
+    public static TableResolver build(Connection conn, Collection<String> logicalTables) {
+        Map<String, String> byKey = new HashMap<>();
+        Map<String, List<String>> byName = new HashMap<>();
+        String defaultSchema = null;
+        boolean available = true;
+        try {
+            defaultSchema = conn.getSchema();
+            DatabaseMetaData meta = conn.getMetaData();
+            try (ResultSet rs = meta.getTables(conn.getCatalog(), null, "%", new String[]{"TABLE", "VIEW"})) {
+                while (rs.next()) {
+                    String schema = rs.getString("TABLE_SCHEM");
+                    String name = rs.getString("TABLE_NAME");
+                    String qualified = schema != null ? schema + "." + name : name;
+                    byKey.put(qualified.toLowerCase(Locale.ROOT), qualified);
+                    byName.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(qualified);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("   [RESOLVER] Could not read table metadata, falling back to prefix probing: " + e.getMessage());
+            available = false;
+        }
+
+        TableResolver resolver = new TableResolver(byKey, byName, defaultSchema, available);
+        for (String table : logicalTables) {
+            resolver.resolve(table);
+        }
+        return resolver;
+    }
+
+    /** The historical lookup order used by fetchRows before tables were resolved up front. */
+    public static String[] candidates(String table) {
+        return new String[]{table, "dcc." + table, "dcc.dcc_" + table, "dcc." + table.replace("_", "")};
+    }
+
+    /**
+     * Physical names to query for a logical table: the single resolved name, nothing if the table does not exist,
+     * or the legacy candidates when metadata was not available.
+     */
+    public String[] namesFor(String table) {
+        return cache.computeIfAbsent(table, t -> {
+            if (!available) return candidates(t);
+            String physical = lookup(t);
+            if (physical == null) {
+                unresolved.add(t);
+                return NO_TABLES;
+            }
+            return new String[]{physical};
+        });
+    }
+
+    /** Resolved schema-qualified name, or null if the table could not be found. */
+    public String resolve(String table) {
+        String[] names = namesFor(table);
+        return names.length == 1 ? names[0] : null;
+    }
+
+    public boolean isAvailable() { return available; }
+
+    public Set<String> getUnresolved() {
+        return new TreeSet<>(unresolved);
+    }
+
+    /** Unresolved tables whose bare name exists in several schemas, with those qualified names. */
+    public Map<String, List<String>> getAmbiguous() {
+        return new TreeMap<>(ambiguous);
+    }
+
+    public Map<String, String> getResolved() {
+        Map<String, String> resolved = new TreeMap<>();
+        cache.forEach((logical, names) -> {
+            if (available && names.length == 1) resolved.put(logical, names[0]);
+        });
+        return resolved;
+    }
+
+    private String lookup(String table) {
+        for (String candidate : candidates(table)) {
+            String key = candidate.toLowerCase(Locale.ROOT);
+            if (candidate.contains(".")) {
+                String qualified = qualifiedByKey.get(key);
+                if (qualified != null) return qualified;
+                continue;
+            }
+            List<String> matches = qualifiedByName.get(key);
+            if (matches == null || matches.isEmpty()) continue;
+            if (defaultSchema != null) {
+                // Tables of the same name in other schemas are not what an unqualified query would hit
+                String qualified = qualifiedByKey.get(defaultSchema.toLowerCase(Locale.ROOT) + "." + key);
+                if (qualified != null) return qualified;
+                continue;
+            }
+            if (matches.size() == 1) return matches.get(0);
+            ambiguous.put(table, new ArrayList<>(matches));
+            return null;
+        }
+        return null;
+    }
+}
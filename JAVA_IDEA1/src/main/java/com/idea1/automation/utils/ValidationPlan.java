@@ -0,0 +1,128 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.TableSchema;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The per-row checks of a table, worked out once from its TableSchema: which mandatory columns are JSON
+ * columns, which are dotted paths into a JSON column, which carry a nullable_presence rule, and which
+ * null_presence_check expectations apply. The validation loop only walks the flat arrays.
+ */
+public class ValidationPlan {
+    private static final Map<String, ValidationPlan> CACHE = new ConcurrentHashMap<>();
+
+    private final ColumnCheck[] columnChecks;
+    private final NullCheck[] nullChecks;
+
+    private ValidationPlan(TableSchema schema) {
+        List<ColumnCheck> checks = new ArrayList<>();
+        if (schema.getMandatory_columns() != null) {
+            for (String col : schema.getMandatory_columns()) {
+                checks.add(new ColumnCheck(col, schema));
+            }
+        }
+        this.columnChecks = checks.toArray(new ColumnCheck[0]);
+
+        List<NullCheck> nulls = new ArrayList<>();
+        if (schema.getNull_presence_check() != null) {
+            for (Map.Entry<String, String> e : schema.getNull_presence_check().entrySet()) {
+                nulls.add(new NullCheck(e.getKey(), e.getValue()));
+            }
+        }
+        this.nullChecks = nulls.toArray(new NullCheck[0]);
+    }
+
+    /** The plan for a table, compiled on first use. */
+    public static ValidationPlan forSchema(String table, TableSchema schema) {
+        return CACHE.computeIfAbsent(table, t -> new ValidationPlan(schema));
+    }
+
+    /** Compiles every table's plan up front, when the schemas are loaded. */
+    public static void compileAll(Map<String, TableSchema> schemas) {
+        schemas.forEach((table, schema) -> {
+            if (schema != null) forSchema(table, schema);
+        });
+    }
+
+    public ColumnCheck[] getColumnChecks() { return columnChecks; }
+    public NullCheck[] getNullChecks() { return nullChecks; }
+
+    public static class ColumnCheck {
+        private final String column;
+        private final boolean json;
+        private final List<JsonPath> required;
+        private final List<JsonPath> ignored;
+        /** for "base.path" columns: the JSON column and the compiled path inside it */
+        private final String baseColumn;
+        private final JsonPath nestedPath;
+        private final boolean presenceOnly;
+
+        ColumnCheck(String column, TableSchema schema) {
+            this.column = column;
+            this.json = schema.getJson_columns() != null && schema.getJson_columns().containsKey(column);
+            TableSchema.JsonColumnConfig config = json ? schema.getJson_columns().get(column) : null;
+            this.required = config != null ? JsonPath.compileAll(config.getRequired()) : Collections.emptyList();
+            this.ignored = config != null ? JsonPath.compileAll(config.getIgnored()) : Collections.emptyList();
+
+            if (!json && column.contains(".")) {
+                String[] parts = column.split("\\.", 2);
+                this.baseColumn = parts[0];
+                this.nestedPath = JsonPath.of(parts[1]);
+            } else {
+                this.baseColumn = null;
+                this.nestedPath = null;
+            }
+
+            TableSchema.SemanticRule rule = schema.getSemantic_rules() != null ? schema.getSemantic_rules().get(column) : null;
+            this.presenceOnly = rule != null && "nullable_presence".equalsIgnoreCase(rule.getType());
+        }
+
+        public String getColumn() { return column; }
+        public boolean isJson() { return json; }
+        public List<JsonPath> getRequired() { return required; }
+        public List<JsonPath> getIgnored() { return ignored; }
+        public boolean isPresenceOnly() { return presenceOnly; }
+
+        /**
+         * Reads the column from a row. A dotted column is read as a path into its base column when the actual
+         * row has that base column, and as a literal column name otherwise.
+         */
+        public Object read(ParsedRow row, ParsedRow actualRow) {
+            if (nestedPath != null && actualRow.containsKey(baseColumn)) {
+                return row.value(baseColumn, nestedPath);
+            }
+            return row.get(column);
+        }
+
+        public boolean matches(Object expected, Object actual) {
+            return ValidationUtils.compareValues(expected, actual, presenceOnly);
+        }
+
+        public String display(Object value) {
+            return presenceOnly ? (value == null ? "null" : "not null") : String.valueOf(value);
+        }
+    }
+
+    public static class NullCheck {
+        private final String column;
+        private final String expectation;
+        private final Boolean expectNull;
+
+        NullCheck(String column, String expectation) {
+            this.column = column;
+            this.expectation = expectation;
+            // "null" / "not_null"; anything else always passes
+            this.expectNull = "null".equalsIgnoreCase(expectation) ? Boolean.TRUE
+                    : "not_null".equalsIgnoreCase(expectation) ? Boolean.FALSE : null;
+        }
+
+        public String getColumn() { return column; }
+        public String getExpectation() { return expectation; }
+
+        public boolean passes(Object actual) {
+            return expectNull == null || expectNull == (actual == null);
+        }
+    }
+}
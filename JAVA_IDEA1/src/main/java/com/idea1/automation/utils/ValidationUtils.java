@@ -1,15 +1,13 @@
 package com.idea1.automation.utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.Mismatch;
 import com.idea1.automation.model.TableSchema;
 
 import java.util.*;
 
 public class ValidationUtils {
-    private static final ObjectMapper mapper = new ObjectMapper();
 
     public static boolean validateTablePersistence(List<Map<String, Object>> rows, String expectation) {
         if ("NOT_PERSIST".equals(expectation)) {
@@ -21,6 +19,25 @@ public class ValidationUtils {
         return true;
     }
 
+    /**
+     * Merges table_expectations and expected_tables into one ordered map of table to expectation.
+     * Tables listed only in expected_tables default to PERSIST.
+     */
+    public static Map<String, String> resolveTableExpectations(EventPayload payload) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (payload.getTable_expectations() != null) {
+            for (Map.Entry<String, String> e : payload.getTable_expectations().entrySet()) {
+                result.put(e.getKey(), e.getValue() != null ? e.getValue() : "PERSIST");
+            }
+        }
+        if (payload.getExpected_tables() != null) {
+            for (String table : payload.getExpected_tables()) {
+                result.putIfAbsent(table, "PERSIST");
+            }
+        }
+        return result;
+    }
+
     public static Map<String, Object> matchExpectedRow(Map<String, Object> actual, List<Map<String, Object>> expectedRows, TableSchema schema) {
         String pk = schema.getPrimary_lookup();
         String sk = schema.getSecondary_lookup();
@@ -40,8 +57,8 @@ public class ValidationUtils {
         return null;
     }
 
-    public static List<Map<String, Object>> deepCompare(JsonNode expected, JsonNode actual, String path) {
-        List<Map<String, Object>> errors = new ArrayList<>();
+    public static List<Mismatch> deepCompare(JsonNode expected, JsonNode actual, String path) {
+        List<Mismatch> errors = new ArrayList<>();
         if (expected.isObject()) {
             Iterator<Map.Entry<String, JsonNode>> fields = expected.fields();
             while (fields.hasNext()) {
@@ -49,11 +66,7 @@ public class ValidationUtils {
                 String k = field.getKey();
                 String p = path.isEmpty() ? k : path + "." + k;
                 if (!actual.has(k)) {
-                    Map<String, Object> error = new HashMap<>();
-                    error.put("path", p);
-                    error.put("expected", field.getValue());
-                    error.put("actual", null);
-                    errors.add(error);
+                    errors.add(new Mismatch(p, field.getValue(), null));
                 } else {
                     errors.addAll(deepCompare(field.getValue(), actual.get(k), p));
                 }
@@ -66,11 +79,7 @@ public class ValidationUtils {
             }
         } else {
             if (!expected.equals(actual)) {
-                Map<String, Object> error = new HashMap<>();
-                error.put("path", path);
-                error.put("expected", expected);
-                error.put("actual", actual);
-                errors.add(error);
+                errors.add(new Mismatch(path, expected, actual));
             }
         }
         return errors;
@@ -78,44 +87,25 @@ public class ValidationUtils {
 
     public static void removeIgnoredPaths(JsonNode data, List<String> ignored) {
         if (data == null || !data.isObject() || ignored == null) return;
-        ObjectNode objectNode = (ObjectNode) data;
-        for (String path : ignored) {
-            String[] keys = path.split("\\.");
-            ObjectNode ref = objectNode;
-            for (int i = 0; i < keys.length - 1; i++) {
-                JsonNode next = ref.get(keys[i]);
-                if (next != null && next.isObject()) {
-                    ref = (ObjectNode) next;
-                } else {
-                    ref = null;
-                    break;
-                }
-            }
-            if (ref != null) {
-                ref.remove(keys[keys.length - 1]);
-            }
+        for (JsonPath path : JsonPath.compileAll(ignored)) {
+            path.removeFrom(data);
         }
     }
 
     public static List<String> checkRequiredJsonPaths(JsonNode data, List<String> requiredPaths) {
         List<String> missing = new ArrayList<>();
         if (data == null || requiredPaths == null) return missing;
-        for (String path : requiredPaths) {
-            JsonNode ref = data;
-            for (String key : path.split("\\.")) {
-                if (ref == null || !ref.isObject() || !ref.has(key)) {
-                    missing.add(path);
-                    ref = null;
-                    break;
-                }
-                ref = ref.get(key);
+        for (JsonPath path : JsonPath.compileAll(requiredPaths)) {
+            if (!path.isPresentIn(data)) {
+                missing.add(path.getPath());
             }
         }
         return missing;
     }
 
-    public static List<Map<String, Object>> validateUniqueConstraints(List<Map<String, Object>> rows, List<List<String>> constraints) {
-        List<Map<String, Object>> duplicates = new ArrayList<>();
+    /** One mismatch per duplicate: path is the constraint's columns joined by ",", actual the duplicated key. */
+    public static List<Mismatch> validateUniqueConstraints(List<Map<String, Object>> rows, List<List<String>> constraints) {
+        List<Mismatch> duplicates = new ArrayList<>();
         if (constraints == null) return duplicates;
 
         Map<List<String>, Set<List<Object>>> seen = new HashMap<>();
@@ -129,18 +119,16 @@ public class ValidationUtils {
 
                 seen.putIfAbsent(constraint, new HashSet<>());
                 if (!seen.get(constraint).add(values)) {
-                    Map<String, Object> dup = new HashMap<>();
-                    dup.put("constraint", constraint);
-                    dup.put("key", values);
-                    duplicates.add(dup);
+                    duplicates.add(new Mismatch(String.join(",", constraint), "unique", values));
                 }
             }
         }
         return duplicates;
     }
 
-    public static List<Map<String, Object>> validateRetryExpectations(List<Map<String, Object>> rows, String lookupCol, Object lookupValue, List<EventPayload.RetryExpectation> rules, String operationColumn) {
-        List<Map<String, Object>> errors = new ArrayList<>();
+    /** One mismatch per operation whose row count differs; path is "operation (lookupCol=lookupValue)". */
+    public static List<Mismatch> validateRetryExpectations(List<Map<String, Object>> rows, String lookupCol, Object lookupValue, List<EventPayload.RetryExpectation> rules, String operationColumn) {
+        List<Mismatch> errors = new ArrayList<>();
         if (rules == null) return errors;
 
         for (EventPayload.RetryExpectation rule : rules) {
@@ -152,102 +140,31 @@ public class ValidationUtils {
                     .count();
 
             if (actualCount != expectedCount) {
-                Map<String, Object> error = new HashMap<>();
-                error.put("operation", op);
-                error.put("expected", expectedCount);
-                error.put("actual", (int) actualCount);
-                error.put("lookup", lookupCol + "=" + lookupValue);
-                errors.add(error);
+                errors.add(new Mismatch(op + " (" + lookupCol + "=" + lookupValue + ")", expectedCount, (int) actualCount));
             }
         }
         return errors;
     }
 
     public static Object normalizeNullable(Object value) {
-        if (value == null) return null;
-        if (value instanceof String) {
-            String s = ((String) value).trim().toLowerCase();
-            if (s.equals("null") || s.equals("none") || s.isEmpty()) {
-                return null;
-            }
-        }
-        return value;
+        return ValueComparators.isNullToken(value) ? null : value;
     }
 
     /**
      * Extracts a nested value from a JSON object (can be Map or JsonNode).
-     * Handles string-encoded JSON and traversal through objects and arrays.
+     * Handles string-encoded JSON and traversal through objects and arrays; see JsonPath for the rules.
+     * Callers reading several paths from the same value should use ParsedRow so it is converted only once.
      */
     public static Object getNestedValue(Object obj, String path) {
         if (obj == null || path == null || path.isEmpty()) return obj;
         
         try {
-            JsonNode node = mapper.valueToTree(obj);
-            String[] keys = path.split("\\.");
-            for (String key : keys) {
-                node = traverse(node, key);
-                if (node == null) return null;
-            }
-            if (node == null || node.isNull()) return null;
-            if (node.isTextual()) return node.asText();
-            if (node.isNumber()) return node.numberValue();
-            if (node.isBoolean()) return node.asBoolean();
-            return node;
+            return JsonPath.of(path).value(JsonPath.parse(obj));
         } catch (Exception e) {
             return null;
         }
     }
 
-    /**
-     * Helper to traverse a single level. 
-     * Handles:
-     * 1. Parsing string-encoded JSON
-     * 2. Object property access
-     * 3. Array index access (if key is numeric)
-     * 4. Implicit first element access (if node is array but key is not numeric)
-     */
-    private static JsonNode traverse(JsonNode node, String key) {
-        if (node == null) return null;
-
-        // 1. If it's a string that might be JSON, try to parse it
-        if (node.isTextual()) {
-            String text = node.asText().trim();
-            if ((text.startsWith("{") && text.endsWith("}")) || (text.startsWith("[") && text.endsWith("]"))) {
-                try {
-                    node = mapper.readTree(text);
-                } catch (Exception ignored) {
-                    // Not valid JSON, continue as TextNode
-                }
-            }
-        }
-
-        // 2. Handle Object access
-        if (node.isObject()) {
-            return node.has(key) ? node.get(key) : null;
-        }
-
-        // 3. Handle Array access
-        if (node.isArray()) {
-            // Try numeric index first
-            try {
-                int index = Integer.parseInt(key);
-                if (index >= 0 && index < node.size()) {
-                    return node.get(index);
-                }
-            } catch (NumberFormatException e) {
-                // Not a numeric index, try accessing the first element implicitly
-                if (node.size() > 0) {
-                    JsonNode first = node.get(0);
-                    if (first.isObject() && first.has(key)) {
-                        return first.get(key);
-                    }
-                }
-            }
-        }
-
-        return null;
-    }
-
     public static boolean compareValues(Object expected, Object actual) {
 //        if (expected == null && actual == null) return true;
 //        if (expected == null || actual == null) return false;
@@ -258,83 +175,86 @@ public class ValidationUtils {
 //      
 
         // Semantic normalization first
-        expected = normalizeNullable(expected);
-        actual = normalizeNullable(actual);
+        boolean expectedNull = ValueComparators.isNullToken(expected);
+        boolean actualNull = ValueComparators.isNullToken(actual);
 
-        if (expected == null && actual == null) return true;
-        if (presenceOnly) { return (expected == null && actual==null) || (expected != null && actual!=null);}
-        if (expected == null || actual == null) return false;
+        if (expectedNull && actualNull) return true;
+        if (presenceOnly) { return !expectedNull && !actualNull;}
+        if (expectedNull || actualNull) return false;
 
-        if (isNumeric(expected) && isNumeric(actual)) {
-            java.math.BigDecimal b1 = toBigDecimal(expected);
-            java.math.BigDecimal b2 = toBigDecimal(actual);
-            return b1.compareTo(b2) == 0;
-        }
-
-        return Objects.equals(expected, actual);
+        // Typed comparison picked by the two classes (numbers, timestamps, UUIDs, else equals)
+        return ValueComparators.equal(expected, actual);
     }
 
     /**
      * Validates a JSON column by checking only required paths and ignoring specified paths.
      * @return List of errors (empty = valid, non-empty = invalid)
      */
-    public static List<Map<String, Object>> validateJsonColumn(Object expectedObj, Object actualObj, 
+    public static List<Mismatch> validateJsonColumn(Object expectedObj, Object actualObj, 
                                                                   List<String> requiredPaths, 
                                                                   List<String> ignoredPaths) {
-        List<Map<String, Object>> errors = new ArrayList<>();
+        if (expectedObj == null || actualObj == null) {
+            return validateJsonColumn(expectedObj, actualObj, null, null, null, null);
+        }
+        try {
+            return validateJsonColumn(expectedObj, actualObj, JsonPath.parse(expectedObj), JsonPath.parse(actualObj),
+                    JsonPath.compileAll(requiredPaths), JsonPath.compileAll(ignoredPaths));
+        } catch (Exception e) {
+            return Collections.singletonList(rootError(e));
+        }
+    }
+
+    /** Same checks for one column of two already parsed rows, with compiled paths. */
+    public static List<Mismatch> validateJsonColumn(ParsedRow expected, ParsedRow actual, String column,
+                                                               List<JsonPath> requiredPaths, List<JsonPath> ignoredPaths) {
+        Object expectedObj = expected.get(column);
+        Object actualObj = actual.get(column);
+        if (expectedObj == null || actualObj == null) {
+            return validateJsonColumn(expectedObj, actualObj, null, null, null, null);
+        }
+        try {
+            // The rows' documents are parsed once, string-encoded JSON included, and shared by every path below
+            JsonNode expectedJson = expected.document(column);
+            JsonNode actualJson = actual.document(column);
+            if (!ignoredPaths.isEmpty()) {
+                // Removal edits the tree, and the row's cached document is shared with later path lookups
+                expectedJson = expectedJson.deepCopy();
+                actualJson = actualJson.deepCopy();
+            }
+            return validateJsonColumn(expectedObj, actualObj, expectedJson, actualJson, requiredPaths, ignoredPaths);
+        } catch (Exception e) {
+            return Collections.singletonList(rootError(e));
+        }
+    }
+
+    private static List<Mismatch> validateJsonColumn(Object expectedObj, Object actualObj, JsonNode expectedJson, JsonNode actualJson,
+                                                                List<JsonPath> requiredPaths, List<JsonPath> ignoredPaths) {
+        List<Mismatch> errors = new ArrayList<>();
         
         if (expectedObj == null && actualObj == null) return errors;
         if (expectedObj == null || actualObj == null) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("path", "root");
-            error.put("expected", expectedObj);
-            error.put("actual", actualObj);
-            errors.add(error);
+            errors.add(new Mismatch("root", expectedObj, actualObj));
             return errors;
         }
 
         try {
-            JsonNode expectedJson = mapper.valueToTree(expectedObj);
-            JsonNode actualJson = mapper.valueToTree(actualObj);
-
             // Remove ignored paths from both
-            if (ignoredPaths != null && !ignoredPaths.isEmpty()) {
-                removeIgnoredPaths(expectedJson, ignoredPaths);
-                removeIgnoredPaths(actualJson, ignoredPaths);
+            for (JsonPath path : ignoredPaths) {
+                path.removeFrom(expectedJson);
+                path.removeFrom(actualJson);
             }
 
             // If requiredPaths are provided, validate only those paths (presence and value)
-            if (requiredPaths != null && !requiredPaths.isEmpty()) {
-                for (String path : requiredPaths) {
-                    String[] keys = path.split("\\.");
-                    JsonNode expNode = expectedJson;
-                    JsonNode actNode = actualJson;
-
-                    // traverse expected
-                    for (String k : keys) {
-                        expNode = traverse(expNode, k);
-                        if (expNode == null) break;
-                    }
-
-                    // traverse actual
-                    for (String k : keys) {
-                        actNode = traverse(actNode, k);
-                        if (actNode == null) break;
-                    }
+            if (!requiredPaths.isEmpty()) {
+                for (JsonPath path : requiredPaths) {
+                    JsonNode expNode = path.resolve(expectedJson);
+                    JsonNode actNode = path.resolve(actualJson);
 
                     if (actNode == null) {
-                        Map<String, Object> error = new HashMap<>();
-                        error.put("path", path);
-                        error.put("expected", expNode != null ? expNode : "required field");
-                        error.put("actual", "missing");
-                        errors.add(error);
+                        errors.add(new Mismatch(path.getPath(), expNode != null ? expNode : "required field", "missing"));
                     } else if (expNode != null) {
                         if (!expNode.equals(actNode)) {
-                            Map<String, Object> error = new HashMap<>();
-                            error.put("path", path);
-                            error.put("expected", expNode);
-                            error.put("actual", actNode);
-                            errors.add(error);
+                            errors.add(new Mismatch(path.getPath(), expNode, actNode));
                         }
                     }
                     // if expNode is null but actNode present, we only required presence so it's fine
@@ -345,65 +265,40 @@ public class ValidationUtils {
             }
             
         } catch (Exception e) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("path", "root");
-            error.put("error", e.getMessage());
-            errors.add(error);
+            errors.add(rootError(e));
         }
 
         return errors;
     }
 
-    public static Map<String, Object> validateNullPresence(Map<String, String> nullCheckConfig, Map<String, Object> actualRow) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("passed", true);
-        
+    private static Mismatch rootError(Exception e) {
+        return Mismatch.error("root", e.getMessage());
+    }
+
+    /** One mismatch per column whose null-ness differs from its "null" / "not_null" expectation; empty means passed. */
+    public static List<Mismatch> validateNullPresence(Map<String, String> nullCheckConfig, Map<String, Object> actualRow) {
+        List<Mismatch> errors = new ArrayList<>();
         if (nullCheckConfig == null || nullCheckConfig.isEmpty()) {
-            return result;
+            return errors;
         }
         
-        List<Map<String, Object>> errors = new ArrayList<>();
-        
         for (Map.Entry<String, String> entry : nullCheckConfig.entrySet()) {
             String column = entry.getKey();
             String expectation = entry.getValue(); // "null" or "not_null"
-            
             Object actualValue = actualRow.get(column);
             boolean isNull = actualValue == null;
             
-            boolean matches = false;
-            String actualDisplay;
-            
+            boolean matches = true;
             if ("null".equalsIgnoreCase(expectation)) {
                 matches = isNull;
-                actualDisplay = isNull ? "null" : actualValue.toString();
             } else if ("not_null".equalsIgnoreCase(expectation)) {
                 matches = !isNull;
-                actualDisplay = isNull ? "null" : actualValue.toString();
-            } else {
-                matches = true;
-                actualDisplay = actualValue.toString();
             }
             
             if (!matches) {
-                result.put("passed", false);
-                Map<String, Object> error = new HashMap<>();
-                error.put("column", column);
-                error.put("expected", expectation);
-                error.put("actual", actualDisplay);
-                errors.add(error);
+                errors.add(new Mismatch(column, expectation, isNull ? "null" : actualValue.toString()));
             }
         }
-        
-        result.put("errors", errors);
-        return result;
-    }
-
-    private static boolean isNumeric(Object obj) {
-        return obj instanceof Number;
-    }
-    private static java.math.BigDecimal toBigDecimal(Object obj) {
-        if (obj instanceof java.math.BigDecimal) return (java.math.BigDecimal) obj;
-        return new java.math.BigDecimal(obj.toString());
+        return errors;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,234 @@
+package com.idea1.automation.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.*;
+
+/**
+ * Equality rules for expected vs actual column values, picked by the pair of runtime classes.
+ * The comparator for a class pair is resolved once and cached per class, so the common cases
+ * (two boxed integers, two doubles, two strings) compare without allocating.
+ * Numeric results match the old BigDecimal(toString()) comparison; BigDecimal is only built when one side needs it.
+ */
+public final class ValueComparators {
+
+    /** Decides whether two non-null values are equal. */
+    public interface ValueComparator {
+        boolean equal(Object expected, Object actual);
+    }
+
+    private static final List<Rule> RULES = new ArrayList<>();
+    private static final ValueComparator OBJECTS_EQUALS = Objects::equals;
+    private static final DateTimeFormatter LOCAL_TIMESTAMP = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .optionalStart().appendOffsetId().optionalEnd()
+            .parseDefaulting(ChronoField.NANO_OF_SECOND, 0)
+            .toFormatter();
+
+    private static final Class<?>[] INTEGRAL = {Long.class, Integer.class, Short.class, Byte.class};
+    private static final Class<?>[] FLOATING = {Double.class, Float.class};
+    private static final Class<?>[] TEMPORAL = {Timestamp.class, java.util.Date.class, OffsetDateTime.class, ZonedDateTime.class, LocalDateTime.class, Instant.class};
+
+    /** Relative tolerance for floating point pairs; 0 means exact. */
+    private static volatile double doubleTolerance = 0;
+
+    private static final ClassValue<ClassValue<ValueComparator>> RESOLVED = new ClassValue<ClassValue<ValueComparator>>() {
+        @Override
+        protected ClassValue<ValueComparator> computeValue(Class<?> expectedType) {
+            return new ClassValue<ValueComparator>() {
+                @Override
+                protected ValueComparator computeValue(Class<?> actualType) {
+                    return resolve(expectedType, actualType);
+                }
+            };
+        }
+    };
+
+    static {
+        register(INTEGRAL, INTEGRAL, (e, a) -> ((Number) e).longValue() == ((Number) a).longValue());
+        register(FLOATING, FLOATING, (e, a) -> equalDoubles(widen((Number) e), widen((Number) a)));
+        register(INTEGRAL, FLOATING, ValueComparators::integralEqualsFloating);
+        register(new Class<?>[]{BigDecimal.class}, new Class<?>[]{BigDecimal.class}, (e, a) -> ((BigDecimal) e).compareTo((BigDecimal) a) == 0);
+        register(new Class<?>[]{BigDecimal.class}, INTEGRAL, (e, a) -> ((BigDecimal) e).compareTo(BigDecimal.valueOf(((Number) a).longValue())) == 0);
+        register(new Class<?>[]{Number.class}, new Class<?>[]{Number.class}, ValueComparators::numbersEqual);
+        register(TEMPORAL, TEMPORAL, (e, a) -> Objects.equals(toLocal(e), toLocal(a)));
+        register(TEMPORAL, new Class<?>[]{String.class}, ValueComparators::temporalEqualsText);
+        register(new Class<?>[]{UUID.class}, new Class<?>[]{UUID.class, String.class}, ValueComparators::uuidEquals);
+    }
+
+    private ValueComparators() {}
+
+    /** Compares two non-null values with the comparator registered for their classes, or Objects.equals. */
+    public static boolean equal(Object expected, Object actual) {
+        return RESOLVED.get(expected.getClass()).get(actual.getClass()).equal(expected, actual);
+    }
+
+    /** The comparator that equal() uses for this pair of classes. */
+    public static ValueComparator forTypes(Class<?> expectedType, Class<?> actualType) {
+        return RESOLVED.get(expectedType).get(actualType);
+    }
+
+    /**
+     * True for null and for strings that read as "null", "none" or blank, ignoring case and surrounding
+     * whitespace, without trimming or lower-casing a copy of the string.
+     */
+    public static boolean isNullToken(Object value) {
+        if (value == null) return true;
+        if (!(value instanceof String)) return false;
+        String s = (String) value;
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        int len = end - start;
+        return len == 0
+                || (len == 4 && (s.regionMatches(true, start, "null", 0, 4) || s.regionMatches(true, start, "none", 0, 4)));
+    }
+
+    public static double getDoubleTolerance() { return doubleTolerance; }
+
+    /** Sets the relative tolerance for pairs where either side is a float or double. Must be called before the run starts. */
+    public static void setDoubleTolerance(double tolerance) {
+        doubleTolerance = Math.max(0, tolerance);
+    }
+
+    private static void register(Class<?>[] left, Class<?>[] right, ValueComparator comparator) {
+        RULES.add(new Rule(left, right, comparator));
+    }
+
+    private static ValueComparator resolve(Class<?> expectedType, Class<?> actualType) {
+        for (Rule rule : RULES) {
+            if (rule.matches(expectedType, actualType)) return rule.comparator;
+            if (rule.matches(actualType, expectedType)) {
+                ValueComparator c = rule.comparator;
+                return (e, a) -> c.equal(a, e);
+            }
+        }
+        return OBJECTS_EQUALS;
+    }
+
+    private static boolean equalDoubles(double e, double a) {
+        if (e == a || (Double.isNaN(e) && Double.isNaN(a))) return true;
+        double tolerance = doubleTolerance;
+        return tolerance > 0 && Math.abs(e - a) <= tolerance * Math.max(Math.abs(e), Math.abs(a));
+    }
+
+    /** A float widened the way its decimal form reads (0.1f becomes 0.1, as toString-based comparison saw it). */
+    private static double widen(Number n) {
+        return n instanceof Float ? Double.parseDouble(n.toString()) : n.doubleValue();
+    }
+
+    private static boolean integralEqualsFloating(Object integral, Object floating) {
+        long l = ((Number) integral).longValue();
+        double d = widen((Number) floating);
+        // Every long below 2^53 is exact as a double, so the fast comparison cannot round
+        if (Math.abs(l) < (1L << 53)) {
+            return equalDoubles(l, d);
+        }
+        return !Double.isNaN(d) && !Double.isInfinite(d) && BigDecimal.valueOf(l).compareTo(new BigDecimal(Double.toString(d))) == 0;
+    }
+
+    /** Any other numeric pair, e.g. a NUMERIC column against a double from the expected data. */
+    private static boolean numbersEqual(Object expected, Object actual) {
+        Number e = (Number) expected;
+        Number a = (Number) actual;
+        boolean floating = isFloating(e) || isFloating(a);
+        if (floating && (!Double.isFinite(widen(e)) || !Double.isFinite(widen(a)))) {
+            return equalDoubles(widen(e), widen(a));
+        }
+        BigDecimal be = exact(e);
+        BigDecimal ba = exact(a);
+        if (be.compareTo(ba) == 0) return true;
+        double tolerance = doubleTolerance;
+        if (!floating || tolerance <= 0) return false;
+        BigDecimal allowed = be.abs().max(ba.abs()).multiply(BigDecimal.valueOf(tolerance));
+        return be.subtract(ba).abs().compareTo(allowed) <= 0;
+    }
+
+    private static boolean isFloating(Number n) {
+        return n instanceof Double || n instanceof Float;
+    }
+
+    private static BigDecimal exact(Number n) {
+        if (n instanceof BigDecimal) return (BigDecimal) n;
+        if (n instanceof BigInteger) return new BigDecimal((BigInteger) n);
+        if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) return BigDecimal.valueOf(n.longValue());
+        return new BigDecimal(n.toString());
+    }
+
+    /**
+     * The value as a LocalDateTime in the JVM zone, or a LocalTime for TIME columns. java.sql.Date and java.sql.Time
+     * are checked before java.util.Date because their toInstant() throws.
+     */
+    private static Object toLocal(Object value) {
+        if (value instanceof Timestamp) return ((Timestamp) value).toLocalDateTime();
+        if (value instanceof java.sql.Date) return ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        if (value instanceof java.sql.Time) return ((java.sql.Time) value).toLocalTime();
+        if (value instanceof java.util.Date) return LocalDateTime.ofInstant(((java.util.Date) value).toInstant(), ZoneId.systemDefault());
+        if (value instanceof OffsetDateTime) return ((OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        if (value instanceof ZonedDateTime) return ((ZonedDateTime) value).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        if (value instanceof Instant) return LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault());
+        return (LocalDateTime) value;
+    }
+
+    /**
+     * A JDBC temporal against an ISO or "yyyy-MM-dd HH:mm:ss[.fff]" string from the expected data; DATE columns also
+     * accept "yyyy-MM-dd" and TIME columns "HH:mm[:ss[.fff]]".
+     */
+    private static boolean temporalEqualsText(Object temporal, Object text) {
+        String s = ((String) text).trim();
+        try {
+            Object actual = toLocal(temporal);
+            if (actual instanceof LocalTime) return LocalTime.parse(s).equals(actual);
+            if (temporal instanceof java.sql.Date && s.length() == 10) return LocalDate.parse(s).atStartOfDay().equals(actual);
+            java.time.temporal.TemporalAccessor parsed = LOCAL_TIMESTAMP.parse(s);
+            LocalDateTime expected = parsed.isSupported(ChronoField.OFFSET_SECONDS)
+                    ? OffsetDateTime.from(parsed).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+                    : LocalDateTime.from(parsed);
+            return expected.equals(actual);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static boolean uuidEquals(Object uuid, Object other) {
+        if (other instanceof UUID) return uuid.equals(other);
+        try {
+            return uuid.equals(UUID.fromString(((String) other).trim()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static class Rule {
+        final Class<?>[] left;
+        final Class<?>[] right;
+        final ValueComparator comparator;
+
+        Rule(Class<?>[] left, Class<?>[] right, ValueComparator comparator) {
+            this.left = left;
+            this.right = right;
+            this.comparator = comparator;
+        }
+
+        boolean matches(Class<?> e, Class<?> a) {
+            return assignable(left, e) && assignable(right, a);
+        }
+
+        private static boolean assignable(Class<?>[] types, Class<?> c) {
+            for (Class<?> t : types) {
+                if (t.isAssignableFrom(c)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.TableSchema;
+import com.idea1.automation.utils.TableResolver;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchFetcherTest {
+
+    /** A connection whose catalogue has public.orders but on which every query fails, like a type mismatch on = ANY(?). */
+    private static Connection failingConnection() {
+        Iterator<String> tables = List.of("orders").iterator();
+        String[] current = new String[1];
+        ResultSet catalogue = proxy(ResultSet.class, (m, args) -> {
+            switch (m) {
+                case "next":
+                    if (!tables.hasNext()) return false;
+                    current[0] = tables.next();
+                    return true;
+                case "getString":
+                    return "TABLE_SCHEM".equals(args[0]) ? "public" : current[0];
+                default:
+                    return null;
+            }
+        });
+        DatabaseMetaData meta = proxy(DatabaseMetaData.class, (m, args) -> {
+            switch (m) {
+                case "getTables": return catalogue;
+                case "getDatabaseProductName": return "PostgreSQL";
+                default: return null;
+            }
+        });
+        return proxy(Connection.class, (m, args) -> {
+            switch (m) {
+                case "getSchema": return "public";
+                case "getMetaData": return meta;
+                case "prepareStatement": throw new SQLException("operator does not exist: integer = character varying");
+                default: return null;
+            }
+        });
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> handler.handle(method.getName(), args)));
+    }
+
+    private static ScenarioRun run(String id, Object orderId) {
+        EventPayload payload = new EventPayload();
+        payload.setTest_case_id(id);
+        payload.setLookup_ids(new HashMap<>(Map.of("order_id", orderId)));
+        payload.setExpected_tables(List.of("orders"));
+        return new ScenarioRun(payload, 0);
+    }
+
+    private static Map<String, TableSchema> schemas() {
+        TableSchema schema = new TableSchema();
+        schema.setPrimary_lookup("order_id");
+        return Map.of("orders", schema);
+    }
+
+    @Test
+    void failedPrefetchLeavesTheTableToPerScenarioQueries() {
+        Connection conn = failingConnection();
+        DbConfig config = new DbConfig();
+        TableResolver resolver = TableResolver.build(conn, List.of("orders"));
+        assertEquals("public.orders", resolver.resolve("orders"));
+        BatchFetcher fetcher = new BatchFetcher(config, schemas(), resolver, new PersistenceAwaiter(config, schemas(), resolver, null));
+
+        BatchRowSource rows = assertDoesNotThrow(() -> fetcher.prefetch(conn, List.of(run("a", "ORD-1"), run("b", "ORD-2"))));
+
+        assertFalse(rows.covers("orders"));
+    }
+
+    @Test
+    void failedPollTimesTheTableOutInsteadOfAbortingTheWave() {
+        Connection conn = failingConnection();
+        DbConfig config = new DbConfig();
+        config.setAwaitTimeoutMs(50);
+        config.setAwaitInitialPollMs(5);
+        config.setAwaitMaxPollMs(10);
+        TableResolver resolver = TableResolver.build(conn, List.of("orders"));
+        ScenarioExecutor executor = new ScenarioExecutor(config, schemas(), resolver, null, null);
+        ScenarioRun run = run("a", "ORD-1");
+        run.triggeredAtNanos = System.nanoTime();
+
+        assertDoesNotThrow(() -> executor.getBatchFetcher().await(conn, List.of(run), executor));
+
+        assertEquals(List.of("orders"), run.result.getTimedOutTables());
+    }
+
+    @Test
+    void rowsAreFoundUnderTheNormalizedKey() {
+        BatchRowSource source = new BatchRowSource();
+        Map<String, List<Map<String, Object>>> byKey = new HashMap<>();
+        byKey.put("42", List.of(Map.of("order_id", new BigDecimal("42.00"))));
+        byKey.put("ABC", List.of(Map.of("order_id", "ABC")));
+        source.put("orders", byKey);
+
+        assertEquals(1, source.rows("orders", 42).size());
+        assertEquals(1, source.rows("orders", new BigDecimal("42.000")).size());
+        assertEquals(1, source.rows("orders", "ABC   ").size());
+        assertTrue(source.rows("orders", "abc").isEmpty());
+        assertTrue(source.rows("orders", null).isEmpty());
+    }
+}
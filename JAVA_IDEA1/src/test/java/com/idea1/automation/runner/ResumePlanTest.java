@@ -0,0 +1,94 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumePlanTest {
+
+    private static EventPayload payload(String id) {
+        EventPayload p = new EventPayload();
+        p.setTest_case_id(id);
+        return p;
+    }
+
+    private static ScenarioResult result(String id, boolean failed) {
+        ScenarioResult r = new ScenarioResult();
+        r.setTest_case_id(id);
+        r.setFailed(failed);
+        return r;
+    }
+
+    private static List<EventPayload> payloads(String... ids) {
+        List<EventPayload> list = new ArrayList<>();
+        for (String id : ids) list.add(payload(id));
+        return list;
+    }
+
+    @Test
+    void runsOnlyScenariosThatDidNotPass() {
+        Map<String, ScenarioResult> journaled = new HashMap<>();
+        journaled.put("b", result("b", false));
+        journaled.put("c", result("c", true));
+        ResumePlan plan = new ResumePlan(payloads("a", "b", "c", "d").iterator(), journaled);
+
+        List<String> run = new ArrayList<>();
+        plan.payloads().forEachRemaining(p -> run.add(p.getTest_case_id()));
+
+        assertEquals(List.of("a", "c", "d"), run);
+    }
+
+    @Test
+    void deliversReusedAndNewResultsInPayloadOrder() {
+        Map<String, ScenarioResult> journaled = new HashMap<>();
+        journaled.put("a", result("a", false));
+        journaled.put("c", result("c", false));
+        journaled.put("e", result("e", false));
+        ResumePlan plan = new ResumePlan(payloads("a", "b", "c", "d", "e").iterator(), journaled);
+
+        List<ScenarioResult> delivered = new ArrayList<>();
+        List<String> reused = new ArrayList<>();
+        List<String> journaledNew = new ArrayList<>();
+        ResumePlan.Delivery deliver = (r, fromJournal) -> {
+            delivered.add(r);
+            if (fromJournal) reused.add(r.getTest_case_id());
+        };
+        Consumer<ScenarioResult> sink = plan.sink(deliver, r -> journaledNew.add(r.getTest_case_id()));
+
+        Iterator<EventPayload> toRun = plan.payloads();
+        int engineIndex = 0;
+        while (toRun.hasNext()) {
+            ScenarioResult r = result(toRun.next().getTest_case_id(), false);
+            r.setIndex(engineIndex++);
+            sink.accept(r);
+        }
+        plan.finish(deliver);
+
+        List<String> order = new ArrayList<>();
+        for (ScenarioResult r : delivered) order.add(r.getTest_case_id());
+        assertEquals(List.of("a", "b", "c", "d", "e"), order);
+        assertEquals(List.of("b", "d"), journaledNew);
+        assertEquals(List.of("a", "c", "e"), reused);
+        for (int i = 0; i < delivered.size(); i++) {
+            assertEquals(i, delivered.get(i).getIndex(), "index of " + delivered.get(i).getTest_case_id());
+        }
+    }
+
+    @Test
+    void finishDeliversEverythingWhenNothingIsLeftToRun() {
+        Map<String, ScenarioResult> journaled = new HashMap<>();
+        journaled.put("a", result("a", false));
+        journaled.put("b", result("b", false));
+        ResumePlan plan = new ResumePlan(payloads("a", "b").iterator(), journaled);
+
+        List<String> delivered = new ArrayList<>();
+        plan.finish((r, reused) -> delivered.add(r.getTest_case_id()));
+
+        assertEquals(List.of("a", "b"), delivered);
+    }
+}
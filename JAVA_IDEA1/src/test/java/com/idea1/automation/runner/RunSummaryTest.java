@@ -0,0 +1,43 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.ScenarioResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunSummaryTest {
+
+    private static ScenarioResult result(long durationMs, boolean failed) {
+        ScenarioResult r = new ScenarioResult();
+        r.setDurationMs(durationMs);
+        r.setFailed(failed);
+        if (failed) r.getFailureSummary().add("orders persistence violation");
+        return r;
+    }
+
+    @Test
+    void reusedResultsCountButAddNoSerialTime() {
+        RunSummary summary = new RunSummary();
+        summary.add(result(1000, false), true);
+        summary.add(result(1000, true), true);
+        summary.add(result(400, false), false);
+        summary.add(result(600, true), false);
+        summary.setWallClockMs(500);
+
+        assertEquals(4, summary.getTotalCases());
+        assertEquals(2, summary.getFailedScenarios());
+        assertEquals(2, summary.getReusedScenarios());
+        assertEquals(1000, summary.getSerialMs());
+        assertEquals(2.0, summary.getSpeedup(), 1e-9);
+    }
+
+    @Test
+    void failureSummaryIsCapped() {
+        RunSummary summary = new RunSummary();
+        for (int i = 0; i < RunSummary.MAX_FAILURE_LINES + 50; i++) {
+            summary.add(result(1, true));
+        }
+        assertEquals(RunSummary.MAX_FAILURE_LINES, summary.getFailureSummary().size());
+        assertEquals(RunSummary.MAX_FAILURE_LINES + 50, summary.getFailureLines());
+    }
+}
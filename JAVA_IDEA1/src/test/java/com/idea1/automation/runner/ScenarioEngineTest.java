@@ -0,0 +1,87 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.model.ScenarioResult;
+import com.idea1.automation.utils.ConnectionPool;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioEngineTest {
+
+    /** Hands out connections that accept everything; the scenarios below never query. */
+    private static ConnectionPool idlePool(DbConfig config) {
+        return new ConnectionPool(config, 0, 4, 1000, 1) {
+            @Override
+            public Connection borrow() {
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        (p, method, args) -> method.getReturnType() == boolean.class ? false : null);
+            }
+        };
+    }
+
+    /** An executor whose begin throws for "bad", like a missing {{LOOKUP:x}} would. */
+    private static ScenarioExecutor executor(DbConfig config) {
+        return new ScenarioExecutor(config, Collections.emptyMap(), null, null, null) {
+            @Override
+            ScenarioRun begin(EventPayload payload, int index) {
+                if ("bad".equals(payload.getTest_case_id())) throw new IllegalArgumentException("Unknown lookup in {{LOOKUP:x}}");
+                return super.begin(payload, index);
+            }
+        };
+    }
+
+    private static List<EventPayload> payloads(String... ids) {
+        List<EventPayload> list = new ArrayList<>();
+        for (String id : ids) {
+            EventPayload p = new EventPayload();
+            p.setTest_case_id(id);
+            p.setLookup_ids(new HashMap<>());
+            list.add(p);
+        }
+        return list;
+    }
+
+    private static DbConfig config() {
+        DbConfig config = new DbConfig();
+        config.setEnableEventTrigger(false);
+        return config;
+    }
+
+    private static void assertOnlyBadAborted(List<ScenarioResult> results) {
+        List<String> ids = new ArrayList<>();
+        for (ScenarioResult r : results) ids.add(r.getTest_case_id());
+        assertEquals(List.of("a", "bad", "c", "d"), ids);
+        for (int i = 0; i < results.size(); i++) {
+            ScenarioResult r = results.get(i);
+            assertEquals(i, r.getIndex());
+            assertEquals("bad".equals(r.getTest_case_id()), r.getAbortMessage() != null, r.getTest_case_id());
+        }
+        assertEquals("Unknown lookup in {{LOOKUP:x}}", results.get(1).getAbortMessage());
+    }
+
+    @Test
+    void batchedModeAbortsOnlyTheScenarioWhoseBeginFailed() throws Exception {
+        DbConfig config = config();
+        List<ScenarioResult> results = new ArrayList<>();
+        try (ScenarioEngine engine = new ScenarioEngine(idlePool(config), executor(config), 2)) {
+            engine.runBatched(payloads("a", "bad", "c", "d").iterator(), 3, results::add);
+        }
+        assertOnlyBadAborted(results);
+    }
+
+    @Test
+    void pipelinedModeAbortsOnlyTheScenarioWhoseBeginFailed() throws Exception {
+        DbConfig config = config();
+        List<ScenarioResult> results = new ArrayList<>();
+        try (ScenarioEngine engine = new ScenarioEngine(idlePool(config), executor(config), 2)) {
+            engine.runPipelined(payloads("a", "bad", "c", "d").iterator(), 2, 2, results::add);
+        }
+        assertOnlyBadAborted(results);
+    }
+}
@@ -0,0 +1,45 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.CheckStatus;
+import com.idea1.automation.model.DbConfig;
+import com.idea1.automation.model.EventPayload;
+import com.idea1.automation.utils.RunNamespace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioExecutorTest {
+
+    @AfterEach
+    void clear() {
+        RunNamespace.clear();
+    }
+
+    private static EventPayload payload(String id, Object body) {
+        EventPayload p = new EventPayload();
+        p.setTest_case_id(id);
+        p.setLookup_ids(new HashMap<>(Map.of("order_id", "ORD-" + id)));
+        p.setEvent_payload(body);
+        return p;
+    }
+
+    @Test
+    void aPayloadThatCannotBeRenderedFailsOnlyItsScenario() {
+        RunNamespace.set("r1");
+        ScenarioExecutor executor = new ScenarioExecutor(new DbConfig(), Collections.emptyMap(), null, null, null);
+
+        ScenarioRun bad = executor.begin(payload("bad", Map.of("ref", "{{LOOKUP:missing}}")), 0);
+        ScenarioRun good = executor.begin(payload("good", Map.of("orderId", "ORD-good")), 1);
+
+        assertTrue(bad.result.isFailed());
+        assertEquals(CheckStatus.FAIL, bad.result.getTriggerStatus());
+        assertTrue(bad.result.getTriggerMessage().contains("missing"), bad.result.getTriggerMessage());
+        assertFalse(executor.trigger(bad));
+
+        assertFalse(good.result.isFailed());
+        assertEquals(Map.of("orderId", "ORD-good-r1"), good.payload.getEvent_payload());
+    }
+}
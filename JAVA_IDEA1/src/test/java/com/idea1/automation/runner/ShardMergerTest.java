@@ -0,0 +1,40 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.ShardManifest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardMergerTest {
+    @TempDir
+    Path dir;
+
+    private static ShardManifest manifest(int index, List<String> cases, List<String> tags) {
+        ShardManifest m = new ShardManifest();
+        m.setShard_index(index);
+        m.setShard_count(2);
+        m.setCases(cases);
+        m.setTags(tags);
+        return m;
+    }
+
+    @Test
+    void targetedShardsOnlyOwnTheirSelection() throws IOException {
+        Path file = dir.resolve("suite.json");
+        Files.write(file, ("[{\"test_case_id\":\"a\",\"tags\":[\"smoke\"]},{\"test_case_id\":\"b\"},{\"test_case_id\":\"c\"}]")
+                .getBytes(StandardCharsets.UTF_8));
+
+        List<Set<String>> selections = ShardMerger.loadSelections(file.toString(),
+                List.of(manifest(1, null, null), manifest(2, List.of("c"), List.of("smoke"))));
+
+        assertNull(selections.get(0));
+        assertEquals(Set.of("a", "c"), selections.get(1));
+    }
+}
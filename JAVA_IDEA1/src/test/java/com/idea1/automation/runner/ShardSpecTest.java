@@ -0,0 +1,76 @@
+package com.idea1.automation.runner;
+
+import com.idea1.automation.model.EventPayload;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardSpecTest {
+
+    private static EventPayload payload(String id, Object orderId) {
+        EventPayload p = new EventPayload();
+        p.setTest_case_id(id);
+        if (orderId != null) {
+            Map<String, Object> lookups = new HashMap<>();
+            lookups.put("order_id", orderId);
+            p.setLookup_ids(lookups);
+        }
+        return p;
+    }
+
+    @Test
+    void shardOfIsStableAndInRange() {
+        for (int i = 0; i < 200; i++) {
+            EventPayload p = payload("tc-" + i, null);
+            int shard = ShardSpec.shardOf(p, 4);
+            assertTrue(shard >= 1 && shard <= 4, "shard " + shard);
+            assertEquals(shard, ShardSpec.shardOf(payload("tc-" + i, null), 4));
+        }
+    }
+
+    @Test
+    void scenariosSharingAnOrderIdLandOnTheSameShard() {
+        for (int i = 0; i < 50; i++) {
+            assertEquals(ShardSpec.shardOf(payload("first-" + i, "ORD-" + i), 3),
+                    ShardSpec.shardOf(payload("second-" + i, "ORD-" + i), 3));
+        }
+    }
+
+    @Test
+    void everyScenarioIsOwnedByExactlyOneShard() {
+        List<EventPayload> all = new ArrayList<>();
+        for (int i = 0; i < 100; i++) all.add(payload("tc-" + i, i % 3 == 0 ? "ORD-" + i : null));
+
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        for (int index = 1; index <= 3; index++) {
+            Iterator<EventPayload> selected = new ShardSpec(index, 3).select(all.iterator());
+            while (selected.hasNext()) {
+                assertTrue(seen.add(selected.next().getTest_case_id()));
+                total++;
+            }
+        }
+        assertEquals(all.size(), total);
+    }
+
+    @Test
+    void pathAddsTheShardBeforeTheExtension() {
+        ShardSpec shard = new ShardSpec(2, 4);
+        assertEquals("reports/idea1_report.shard-2-of-4.html", shard.path("reports/idea1_report.html"));
+        assertEquals("reports.d/results.shard-2-of-4", shard.path("reports.d/results"));
+        assertEquals("reports\\out.shard-2-of-4.xml", shard.path("reports\\out.xml"));
+        assertEquals("reports/idea1_report.html", ShardSpec.NONE.path("reports/idea1_report.html"));
+    }
+
+    @Test
+    void parseRejectsMalformedSpecs() {
+        ShardSpec spec = ShardSpec.parse(" 2 / 4 ");
+        assertEquals(2, spec.getIndex());
+        assertEquals(4, spec.getCount());
+        assertThrows(IllegalArgumentException.class, () -> ShardSpec.parse("2"));
+        assertThrows(IllegalArgumentException.class, () -> ShardSpec.parse("5/4"));
+        assertThrows(IllegalArgumentException.class, () -> ShardSpec.parse("a/b"));
+    }
+}
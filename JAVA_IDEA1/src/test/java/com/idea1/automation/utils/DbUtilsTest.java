@@ -0,0 +1,36 @@
+package com.idea1.automation.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbUtilsTest {
+
+    @Test
+    void batchKeyMatchesNumbersWhateverTheirScale() {
+        assertEquals("42", DbUtils.batchKey(42));
+        assertEquals("42", DbUtils.batchKey(42L));
+        assertEquals("42", DbUtils.batchKey(42.0));
+        assertEquals("42", DbUtils.batchKey(new BigDecimal("42.00")));
+        assertEquals("42", DbUtils.batchKey("42.0"));
+        assertEquals("7.5", DbUtils.batchKey(new BigDecimal("7.50")));
+        assertEquals("100", DbUtils.batchKey(new BigDecimal("1E+2")));
+    }
+
+    @Test
+    void batchKeyTrimsPaddedStrings() {
+        assertEquals("ORD-1", DbUtils.batchKey("ORD-1     "));
+        assertEquals("42", DbUtils.batchKey(" 42 "));
+    }
+
+    @Test
+    void batchKeyKeepsIntegerStringsDistinct() {
+        assertEquals("007", DbUtils.batchKey("007"));
+        assertNotEquals(DbUtils.batchKey("007"), DbUtils.batchKey("7"));
+        assertEquals("abc", DbUtils.batchKey("abc"));
+        assertEquals("NaN", DbUtils.batchKey(Double.NaN));
+        assertEquals("null", DbUtils.batchKey(null));
+    }
+}
@@ -0,0 +1,101 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.EventPayload;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadIndexTest {
+    @TempDir
+    Path dir;
+
+    private static void write(Path file, String content, long modifiedMillis) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+    }
+
+    private static List<String> ids(PayloadIndex index) {
+        List<String> ids = new ArrayList<>();
+        for (PayloadIndex.Entry e : index.getEntries()) ids.add(e.getTest_case_id());
+        return ids;
+    }
+
+    @Test
+    void indexedEntriesSeekToTheirScenarios() throws IOException {
+        Path file = dir.resolve("suite.json");
+        write(file, "[{\"test_case_id\":\"a\",\"tags\":[\"smoke\"]},\n"
+                + " {\"test_case_id\":\"b\",\"lookup_ids\":{\"order_id\":\"ORD-1\"},\"event_payload\":{\"n\":2}},\n"
+                + " {\"test_case_id\":\"c\"}]", 1_000_000L);
+
+        PayloadIndex index = PayloadIndex.forFile(file.toString());
+        assertEquals(List.of("a", "b", "c"), ids(index));
+        assertTrue(Files.exists(dir.resolve("suite.json.idx")));
+
+        List<PayloadIndex.Entry> selected = index.select(Collections.emptySet(), List.of("smoke"), List.of("ORD-1"));
+        List<String> read = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        try (PayloadStream stream = PayloadStream.open(file.toString(), selected)) {
+            while (stream.hasNext()) {
+                EventPayload p = stream.next();
+                read.add(p.getTest_case_id());
+                positions.add(p.getFile_position());
+            }
+        }
+        assertEquals(List.of("a", "b"), read);
+        assertEquals(List.of(0, 1), positions);
+    }
+
+    @Test
+    void aReloadedIndexKeepsFilePositions() throws IOException {
+        Path file = dir.resolve("suite.json");
+        write(file, "[{\"test_case_id\":\"a\"},{\"test_case_id\":\"b\"},{\"test_case_id\":\"c\"}]", 1_000_000L);
+        PayloadIndex.forFile(file.toString());
+
+        List<PayloadIndex.Entry> selected = PayloadIndex.forFile(file.toString()).select(List.of("c"), Collections.emptySet(), Collections.emptySet());
+        try (PayloadStream stream = PayloadStream.open(file.toString(), selected)) {
+            assertEquals(2, stream.next().getFile_position());
+        }
+    }
+
+    @Test
+    void rebuildsWhenTheModificationTimeChanges() throws IOException {
+        Path file = dir.resolve("suite.json");
+        write(file, "[{\"test_case_id\":\"aa\"}]", 1_000_000L);
+        assertEquals(List.of("aa"), ids(PayloadIndex.forFile(file.toString())));
+
+        // Same size, so only the timestamp tells the index is stale
+        write(file, "[{\"test_case_id\":\"bb\"}]", 2_000_000L);
+        assertEquals(List.of("bb"), ids(PayloadIndex.forFile(file.toString())));
+    }
+
+    @Test
+    void rebuildsWhenTheSizeChanges() throws IOException {
+        Path file = dir.resolve("suite.json");
+        write(file, "[{\"test_case_id\":\"aa\"}]", 1_000_000L);
+        assertEquals(List.of("aa"), ids(PayloadIndex.forFile(file.toString())));
+
+        write(file, "[{\"test_case_id\":\"aa\"},{\"test_case_id\":\"bb\"}]", 1_000_000L);
+        assertEquals(List.of("aa", "bb"), ids(PayloadIndex.forFile(file.toString())));
+    }
+
+    @Test
+    void reusesTheIndexWhileSizeAndTimeMatch() throws IOException {
+        Path file = dir.resolve("suite.json");
+        write(file, "[{\"test_case_id\":\"aa\"}]", 1_000_000L);
+        PayloadIndex.forFile(file.toString());
+
+        // An edit that keeps both is not noticed; this pins down what the index keys on
+        write(file, "[{\"test_case_id\":\"bb\"}]", 1_000_000L);
+        assertEquals(List.of("aa"), ids(PayloadIndex.forFile(file.toString())));
+    }
+}
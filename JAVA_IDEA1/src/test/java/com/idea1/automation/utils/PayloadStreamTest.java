@@ -0,0 +1,84 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.EventPayload;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadStreamTest {
+    @TempDir
+    Path dir;
+
+    private String write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+
+    private static List<EventPayload> readAll(PayloadStream stream) throws IOException {
+        List<EventPayload> all = new ArrayList<>();
+        try (stream) {
+            stream.forEachRemaining(all::add);
+        }
+        return all;
+    }
+
+    private static List<String> ids(List<EventPayload> payloads) {
+        List<String> ids = new ArrayList<>();
+        for (EventPayload p : payloads) ids.add(p.getTest_case_id());
+        return ids;
+    }
+
+    @Test
+    void readsATopLevelArray() throws IOException {
+        String path = write("array.json", "[{\"test_case_id\":\"a\",\"event_payload\":{\"n\":1}},\n {\"test_case_id\":\"b\"}]");
+        List<EventPayload> all = readAll(PayloadStream.open(path));
+        assertEquals(List.of("a", "b"), ids(all));
+        assertEquals(Map.of("n", 1), all.get(0).getEvent_payload());
+    }
+
+    @Test
+    void readsJsonLines() throws IOException {
+        String path = write("lines.jsonl", "{\"test_case_id\":\"a\"}\n{\"test_case_id\":\"b\"}\n\n{\"test_case_id\":\"c\"}\n");
+        List<EventPayload> all = readAll(PayloadStream.open(path));
+        assertEquals(List.of("a", "b", "c"), ids(all));
+        for (int i = 0; i < all.size(); i++) assertEquals(i, all.get(i).getFile_position());
+    }
+
+    @Test
+    void readsASingleObject() throws IOException {
+        String path = write("single.json", "{\"test_case_id\":\"only\",\"event_payload\":{\"n\":1}}");
+        PayloadStream stream = PayloadStream.open(path);
+        List<EventPayload> all = readAll(stream);
+        assertEquals(List.of("only"), ids(all));
+        assertEquals(1, stream.getRead());
+    }
+
+    @Test
+    void emptyFileHasNoScenarios() throws IOException {
+        assertTrue(readAll(PayloadStream.open(write("empty.json", ""))).isEmpty());
+    }
+
+    @Test
+    void headersSkipTheEventPayload() throws IOException {
+        String path = write("headers.json", "[{\"test_case_id\":\"a\",\"event_payload\":{\"n\":1}}]");
+        List<EventPayload> all = readAll(PayloadStream.openHeaders(path));
+        assertEquals(List.of("a"), ids(all));
+        assertNull(all.get(0).getEvent_payload());
+    }
+
+    @Test
+    void rejectsAFileThatIsNotJsonObjects() throws IOException {
+        String path = write("scalar.json", "42");
+        assertThrows(IOException.class, () -> PayloadStream.open(path));
+    }
+}
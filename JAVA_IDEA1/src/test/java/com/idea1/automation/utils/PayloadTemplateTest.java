@@ -0,0 +1,65 @@
+package com.idea1.automation.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadTemplateTest {
+
+    @Test
+    void seqRendersAsANumberOrFormatted() {
+        PayloadTemplate template = PayloadTemplate.compile(Map.of("n", "{{SEQ}}", "id", "ord-{{SEQ:%06d}}", "hex", "{{SEQ:%x}}"));
+        assertEquals(3, template.getSlotCount());
+        assertEquals(Map.of("n", 42L, "id", "ord-000042", "hex", "2a"), template.render(42, null));
+    }
+
+    @Test
+    void invalidSeqFormatIsRejectedAtCompile() {
+        assertThrows(IllegalArgumentException.class, () -> PayloadTemplate.compile("{{SEQ:%s%d}}"));
+    }
+
+    @Test
+    void lookupsAndLiteralLookupValuesFollowTheInstance() {
+        Map<String, Object> written = Map.of("order_id", "ORD-1");
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", "ORD-1");
+        payload.put("ref", "{{ORDER_ID}}");
+        PayloadTemplate template = PayloadTemplate.compile(payload, written);
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("orderId", "ORD-7");
+        expected.put("ref", "ORD-7");
+        assertEquals(expected, template.render(0, Map.of("order_id", "ORD-7")));
+    }
+
+    @Test
+    void anUndefinedLookupFailsTheRender() {
+        PayloadTemplate template = PayloadTemplate.compile(Map.of("ref", "{{LOOKUP:missing}}"));
+        assertThrows(IllegalStateException.class, () -> template.render(0, Map.of("order_id", "ORD-7")));
+    }
+
+    @Test
+    void keepTimestampsLeavesTimePlaceholdersForTheSend() {
+        PayloadTemplate template = PayloadTemplate.compile(List.of("{{EPOCH_MILLIS}}", "{{SEQ}}"));
+        assertEquals(List.of("{{EPOCH_MILLIS}}", 5L), template.render(5, null, true));
+        Object sent = ((List<?>) template.render(5, null)).get(0);
+        assertTrue(sent instanceof Long);
+    }
+
+    @Test
+    void unknownPlaceholdersAndPlainValuesAreLeftAsWritten() {
+        Map<String, Object> payload = Map.of("a", "{{NOPE}}", "b", 1, "c", List.of("x"));
+        PayloadTemplate template = PayloadTemplate.compile(payload);
+        assertEquals(0, template.getSlotCount());
+        assertEquals(payload, template.render(0, null));
+    }
+
+    @Test
+    void everySlotOfOneRenderSeesTheSameTime() {
+        PayloadTemplate template = PayloadTemplate.compile(List.of("{{EPOCH_MILLIS}}", "{{EPOCH_MILLIS}}"));
+        List<?> rendered = (List<?>) template.render(0, null);
+        assertEquals(rendered.get(0), rendered.get(1));
+    }
+}
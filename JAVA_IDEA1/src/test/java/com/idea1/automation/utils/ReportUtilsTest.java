@@ -0,0 +1,27 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.ShardManifest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportUtilsTest {
+
+    @Test
+    void shardBlockEscapesTextFromManifestsAndPayloads() {
+        ShardManifest m = new ShardManifest();
+        m.setShard_index(1);
+        m.setShard_count(2);
+        m.setTransport("<kafka>");
+        m.setReport("x' onclick='alert(1).html");
+
+        String html = ReportUtils.getShardBlock(List.of(m), List.of("<script>tc</script> (shard 2/2)"));
+
+        assertTrue(html.contains("&lt;kafka&gt;"));
+        assertTrue(html.contains("href='x&#39; onclick=&#39;alert(1).html'"));
+        assertTrue(html.contains("&lt;script&gt;tc&lt;/script&gt; (shard 2/2)"));
+        assertFalse(html.contains("<script>"));
+    }
+}
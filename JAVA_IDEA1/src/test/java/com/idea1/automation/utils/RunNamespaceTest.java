@@ -0,0 +1,98 @@
+package com.idea1.automation.utils;
+
+import com.idea1.automation.model.EventPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunNamespaceTest {
+
+    @AfterEach
+    void clear() {
+        RunNamespace.clear();
+    }
+
+    private static EventPayload payload(Map<String, Object> lookups, Object body) {
+        EventPayload p = new EventPayload();
+        p.setTest_case_id("tc");
+        p.setLookup_ids(new LinkedHashMap<>(lookups));
+        p.setEvent_payload(body);
+        return p;
+    }
+
+    @Test
+    void applyNamespacesOnlyStrings() {
+        RunNamespace.set("r1");
+        assertEquals("ORD-1-r1", RunNamespace.apply("ORD-1"));
+        assertEquals("ord-r1-7", RunNamespace.apply("ord-{{RUN_ID}}-7"));
+        assertEquals(42, RunNamespace.apply(42));
+    }
+
+    @Test
+    void inactiveNamespaceLeavesScenariosAlone() {
+        EventPayload p = payload(Map.of("order_id", "ORD-1"), Map.of("orderId", "ORD-1"));
+        RunNamespace.applyTo(p, 0);
+        assertEquals(Map.of("order_id", "ORD-1"), p.getLookup_ids());
+        assertNull(p.getWritten_lookup_ids());
+        assertEquals("", RunNamespace.getRunId());
+    }
+
+    @Test
+    void applyToRendersThePayloadButKeepsTimestampsForTheSend() {
+        RunNamespace.set("r1");
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("orderId", "ORD-1");
+        body.put("seq", "{{SEQ}}");
+        body.put("at", "{{EPOCH_MILLIS}}");
+        EventPayload p = payload(Map.of("order_id", "ORD-1"), body);
+
+        RunNamespace.applyTo(p, 7);
+
+        assertEquals(Map.of("order_id", "ORD-1-r1"), p.getLookup_ids());
+        assertEquals(Map.of("order_id", "ORD-1"), p.getWritten_lookup_ids());
+        assertEquals(Map.of("orderId", "ORD-1-r1", "seq", 7L, "at", "{{EPOCH_MILLIS}}"), p.getEvent_payload());
+    }
+
+    @Test
+    void applyToLeavesTheScenarioUntouchedWhenRenderingFails() {
+        RunNamespace.set("r1");
+        EventPayload p = payload(Map.of("order_id", "ORD-1"), Map.of("ref", "{{LOOKUP:missing}}"));
+
+        assertThrows(IllegalStateException.class, () -> RunNamespace.applyTo(p, 0));
+
+        assertEquals(Map.of("order_id", "ORD-1"), p.getLookup_ids());
+        assertNull(p.getWritten_lookup_ids());
+    }
+
+    @Test
+    void stripTurnsNamespacedIdsBackIntoTheWrittenOnes() {
+        RunNamespace.set("r1");
+        EventPayload p = payload(Map.of("order_id", "ORD-1", "line_id", "ORD-1-L1", "qty", 3), Map.of());
+        RunNamespace.applyTo(p, 0);
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("order_id", "ORD-1-r1");
+        row.put("line_id", "ORD-1-L1-r1");
+        row.put("note", "for ORD-1-r1");
+        row.put("qty", 3);
+        List<Map<String, Object>> stripped = RunNamespace.strip(List.of(row), p);
+
+        assertEquals(Map.of("order_id", "ORD-1", "line_id", "ORD-1-L1", "note", "for ORD-1", "qty", 3), stripped.get(0));
+        assertEquals("ORD-1-r1", row.get("order_id"));
+    }
+
+    @Test
+    void stripReturnsRowsAsIsWhenNotNamespaced() {
+        List<Map<String, Object>> rows = List.of(Map.of("order_id", "ORD-1"));
+        assertSame(rows, RunNamespace.strip(rows, payload(Map.of("order_id", "ORD-1"), Map.of())));
+    }
+
+    @Test
+    void rejectsInvalidRunIds() {
+        assertThrows(IllegalArgumentException.class, () -> RunNamespace.set("bad-id"));
+        assertTrue(RunNamespace.generateId().matches("r[a-z0-9]{1,8}"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.idea1.automation.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueComparatorsTest {
+
+    @AfterEach
+    void resetTolerance() {
+        ValueComparators.setDoubleTolerance(0);
+    }
+
+    @Test
+    void sqlDateAndTimeDoNotThrow() {
+        java.sql.Date date = java.sql.Date.valueOf("2024-03-01");
+        java.sql.Time time = java.sql.Time.valueOf("12:34:56");
+
+        assertTrue(ValueComparators.equal(date, java.sql.Date.valueOf("2024-03-01")));
+        assertTrue(ValueComparators.equal(date, "2024-03-01"));
+        assertTrue(ValueComparators.equal(date, "2024-03-01 00:00:00"));
+        assertFalse(ValueComparators.equal(date, "2024-03-02"));
+        assertTrue(ValueComparators.equal(date, Timestamp.valueOf("2024-03-01 00:00:00")));
+        assertTrue(ValueComparators.equal(time, "12:34:56"));
+        assertTrue(ValueComparators.equal(time, java.sql.Time.valueOf("12:34:56")));
+        assertFalse(ValueComparators.equal(time, "12:34:57"));
+    }
+
+    @Test
+    void timestampsMatchTextAndOtherTemporals() {
+        Timestamp ts = Timestamp.valueOf("2024-03-01 10:15:30.5");
+        assertTrue(ValueComparators.equal(ts, "2024-03-01 10:15:30.5"));
+        assertTrue(ValueComparators.equal(ts, "2024-03-01T10:15:30.500"));
+        assertTrue(ValueComparators.equal(ts, LocalDateTime.of(2024, 3, 1, 10, 15, 30, 500_000_000)));
+        OffsetDateTime offset = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 500_000_000).atZone(ZoneId.systemDefault()).toOffsetDateTime();
+        assertTrue(ValueComparators.equal(offset, ts));
+        assertFalse(ValueComparators.equal(ts, "not a date"));
+    }
+
+    @Test
+    void numbersCompareAcrossTypes() {
+        assertTrue(ValueComparators.equal(42, 42L));
+        assertTrue(ValueComparators.equal(new BigDecimal("42.00"), 42));
+        assertTrue(ValueComparators.equal(new BigDecimal("0.1"), 0.1));
+        assertTrue(ValueComparators.equal(0.1f, 0.1));
+        assertTrue(ValueComparators.equal(BigInteger.TEN, new BigDecimal("10.0")));
+        assertTrue(ValueComparators.equal(Double.NaN, Double.NaN));
+        assertFalse(ValueComparators.equal(new BigDecimal("42.01"), 42));
+        assertFalse(ValueComparators.equal(Double.POSITIVE_INFINITY, new BigDecimal("1")));
+    }
+
+    @Test
+    void toleranceAppliesOnlyWhenASideIsFloating() {
+        ValueComparators.setDoubleTolerance(1e-9);
+        assertTrue(ValueComparators.equal(new BigDecimal("1000000.0000001"), 1000000.0));
+        assertTrue(ValueComparators.equal(0.1 + 0.2, 0.3));
+        assertFalse(ValueComparators.equal(new BigDecimal("1000000.01"), 1000000.0));
+        assertFalse(ValueComparators.equal(new BigDecimal("1.0000000001"), new BigDecimal("1")));
+
+        ValueComparators.setDoubleTolerance(0);
+        assertFalse(ValueComparators.equal(new BigDecimal("1000000.0000001"), 1000000.0));
+    }
+
+    @Test
+    void uuidsMatchTheirText() {
+        UUID id = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        assertTrue(ValueComparators.equal(id, "123E4567-E89B-12D3-A456-426614174000"));
+        assertTrue(ValueComparators.equal("123e4567-e89b-12d3-a456-426614174000", id));
+        assertFalse(ValueComparators.equal(id, "not-a-uuid"));
+    }
+
+    @Test
+    void nullTokens() {
+        assertTrue(ValueComparators.isNullToken(null));
+        assertTrue(ValueComparators.isNullToken("  NULL "));
+        assertTrue(ValueComparators.isNullToken("None"));
+        assertTrue(ValueComparators.isNullToken(""));
+        assertFalse(ValueComparators.isNullToken("nul"));
+        assertFalse(ValueComparators.isNullToken(0));
+    }
+}
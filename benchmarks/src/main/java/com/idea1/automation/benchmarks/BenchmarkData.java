@@ -0,0 +1,156 @@
+package com.idea1.automation.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Generated expected and actual rows for the benchmarks, modelled on JAVA_IDEA1's expected/tables/*.json
+ * (order rows with a JSON metadata column) and payloads/event_payloads.json (CloudEvents).
+ * Everything is seeded, so every fork and every run sees the same data.
+ */
+public final class BenchmarkData {
+    public static final String JSON_COLUMN = "order_metadata";
+    public static final List<String> SCALAR_COLUMNS = List.of("event_id", "order_id", "status", "total_amount", "retry_count", "created_at");
+    public static final List<List<String>> UNIQUE_CONSTRAINTS = List.of(List.of("event_id"), List.of("order_id", "status"));
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String[] STATUSES = {"Allocated", "CONFIRMED", "SHIPPED", "Restricted", "CANCELLED"};
+    private static final String[] CITIES = {"Hyderabad", "Leeds", "Bristol", "Pune", "Glasgow"};
+
+    /**
+     * SHALLOW is the orders.json metadata (two levels, a handful of fields). DEEP is one CloudEvent from
+     * event_payloads.json as the job queue tables store it, with order lines whose attributes nest eight levels deep.
+     */
+    public enum Shape { SHALLOW, DEEP }
+
+    private BenchmarkData() { }
+
+    public static List<Map<String, Object>> expectedRows(int count, Shape shape) {
+        Random random = new Random(42);
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("event_id", String.format("event-dcc-%06d", i));
+            row.put("order_id", String.format("col-dcc%06d", i));
+            row.put("status", STATUSES[random.nextInt(STATUSES.length)]);
+            row.put("total_amount", 10 + random.nextInt(990));
+            row.put("retry_count", random.nextInt(4));
+            row.put("created_at", String.format("2025-10-30T10:%02d:%02d.722Z", i / 60 % 60, i % 60));
+            row.put(JSON_COLUMN, shape == Shape.SHALLOW ? shallowMetadata(random) : cloudEvent(i, random));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * The rows as a validation run reads them back: the JSON column as text, numeric columns as BigDecimal and
+     * bigint. Every 20th row differs in one scalar and one JSON field, and every 100th repeats the previous
+     * row's event_id, so the failure paths are exercised too.
+     */
+    public static List<Map<String, Object>> actualRows(List<Map<String, Object>> expected) {
+        List<Map<String, Object>> rows = new ArrayList<>(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Map<String, Object> e = expected.get(i);
+            Map<String, Object> row = new LinkedHashMap<>(e);
+            row.put("total_amount", new BigDecimal(e.get("total_amount") + ".00"));
+            row.put("retry_count", ((Integer) e.get("retry_count")).longValue());
+            Object json = e.get(JSON_COLUMN);
+            if (i % 20 == 19) {
+                row.put("total_amount", new BigDecimal((Integer) e.get("total_amount") + 1));
+                json = alterOneField(json);
+            }
+            if (i % 100 == 99) {
+                row.put("event_id", expected.get(i - 1).get("event_id"));
+            }
+            row.put(JSON_COLUMN, toJson(json));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /** Paths a table_schema.json json_columns entry would list as required for this shape. */
+    public static List<String> requiredPaths(Shape shape) {
+        return shape == Shape.SHALLOW
+                ? List.of("customer.name", "customer.city", "payment.method")
+                : List.of("id", "type", "data.orderId", "data.status", "data.lines.2.attributes.packaging.dimensions.unit.code");
+    }
+
+    public static List<String> ignoredPaths(Shape shape) {
+        return shape == Shape.SHALLOW ? List.of("customer.loyaltyId") : List.of("time", "traceparent");
+    }
+
+    private static Map<String, Object> shallowMetadata(Random random) {
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("name", "Customer" + random.nextInt(10_000));
+        customer.put("city", CITIES[random.nextInt(CITIES.length)]);
+        customer.put("loyaltyId", "L" + random.nextInt(1_000_000));
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("customer", customer);
+        metadata.put("payment", Map.of("method", random.nextBoolean() ? "CARD" : "CASH"));
+        return metadata;
+    }
+
+    private static Map<String, Object> cloudEvent(int i, Random random) {
+        List<Object> lines = new ArrayList<>();
+        for (int l = 0; l < 5; l++) {
+            Map<String, Object> unit = new LinkedHashMap<>();
+            unit.put("code", l % 2 == 0 ? "CM" : "MM");
+            unit.put("scale", 1 + l);
+            Map<String, Object> dimensions = new LinkedHashMap<>();
+            dimensions.put("width", random.nextInt(100));
+            dimensions.put("height", random.nextInt(100));
+            dimensions.put("unit", unit);
+            Map<String, Object> packaging = new LinkedHashMap<>();
+            packaging.put("type", "BOX");
+            packaging.put("dimensions", dimensions);
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("restricted", random.nextBoolean());
+            attributes.put("packaging", packaging);
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("sku", "SKU-" + random.nextInt(100_000));
+            line.put("qty", 1 + random.nextInt(5));
+            line.put("price", random.nextInt(10_000) / 100.0);
+            line.put("attributes", attributes);
+            lines.add(line);
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("orderId", String.format("col-dcc%06d", i));
+        data.put("status", STATUSES[random.nextInt(STATUSES.length)]);
+        data.put("complianceRequired", random.nextBoolean());
+        data.put("lines", lines);
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("id", String.format("event-dcc-%06d", i));
+        event.put("source", "EOS");
+        event.put("type", "eos.orders.allocated");
+        event.put("data", data);
+        event.put("time", "2025-10-30T10:28:21.7223026+00:00");
+        event.put("specversion", "1.0");
+        event.put("dataschema", "#");
+        event.put("datacontenttype", "application/json");
+        event.put("xrequestid", String.format("%032x", random.nextLong() & Long.MAX_VALUE));
+        event.put("traceparent", String.format("00-%032x-%016x-00", random.nextLong() & Long.MAX_VALUE, random.nextLong() & Long.MAX_VALUE));
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object alterOneField(Object json) {
+        Map<String, Object> copy = mapper.convertValue(json, Map.class);
+        if (copy.containsKey("payment")) {
+            ((Map<String, Object>) copy.get("payment")).put("method", "VOUCHER");
+        } else {
+            ((Map<String, Object>) copy.get("data")).put("status", "Unknown");
+        }
+        return copy;
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
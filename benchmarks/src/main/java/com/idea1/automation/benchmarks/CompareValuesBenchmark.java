@@ -0,0 +1,74 @@
+package com.idea1.automation.benchmarks;
+
+import com.idea1.automation.utils.ValidationUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ValidationUtils.compareValues against the BigDecimal(toString()) implementation it replaced, over the value
+ * pairs a validation run typically sees. Run with:
+ *   java -jar target/benchmarks.jar CompareValuesBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompareValuesBenchmark {
+
+    private Object[] expected;
+    private Object[] actual;
+
+    @Setup
+    public void setup() {
+        expected = new Object[]{42, 1500L, 19.99, 7, new BigDecimal("12.50"), "SHIPPED", " null ", "None", 3.0f, 100};
+        actual = new Object[]{42L, 1500, 19.99, 7.0, 12.5, "SHIPPED", null, "", 3.0, (short) 100};
+    }
+
+    @Benchmark
+    public void current(Blackhole bh) {
+        for (int i = 0; i < expected.length; i++) {
+            bh.consume(ValidationUtils.compareValues(expected[i], actual[i], false));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (int i = 0; i < expected.length; i++) {
+            bh.consume(legacyCompare(expected[i], actual[i], false));
+        }
+    }
+
+    // The previous implementation, kept here as the baseline
+    private static boolean legacyCompare(Object expected, Object actual, boolean presenceOnly) {
+        expected = legacyNormalize(expected);
+        actual = legacyNormalize(actual);
+
+        if (expected == null && actual == null) return true;
+        if (presenceOnly) { return expected != null && actual != null; }
+        if (expected == null || actual == null) return false;
+
+        if (expected instanceof Number && actual instanceof Number) {
+            return toBigDecimal(expected).compareTo(toBigDecimal(actual)) == 0;
+        }
+        return Objects.equals(expected, actual);
+    }
+
+    private static Object legacyNormalize(Object value) {
+        if (value instanceof String) {
+            String s = ((String) value).trim().toLowerCase();
+            if (s.equals("null") || s.equals("none") || s.isEmpty()) return null;
+        }
+        return value;
+    }
+
+    private static BigDecimal toBigDecimal(Object obj) {
+        if (obj instanceof BigDecimal) return (BigDecimal) obj;
+        return new BigDecimal(obj.toString());
+    }
+}
@@ -0,0 +1,126 @@
+package com.idea1.automation.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idea1.automation.benchmarks.BenchmarkData.Shape;
+import com.idea1.automation.utils.JsonPath;
+import com.idea1.automation.utils.ParsedRow;
+import com.idea1.automation.utils.ValidationUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ValidationUtils entry points a scenario spends its validation time in, each applied to a whole table of
+ * generated rows per operation, so scores are tables per second and gc.alloc.rate.norm is bytes per table.
+ * Run with:
+ *   java -jar target/benchmarks.jar ValidationBenchmark -prof gc
+ * and narrow it down with e.g. -p rows=10000 -p shape=DEEP.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Param({"10", "100", "10000"})
+    public int rows;
+
+    @Param({"SHALLOW", "DEEP"})
+    public Shape shape;
+
+    private List<Map<String, Object>> expected;
+    private List<Map<String, Object>> actual;
+    private JsonNode[] expectedTrees;
+    private JsonNode[] actualTrees;
+    private List<String> required;
+    private List<String> ignored;
+    private List<JsonPath> requiredCompiled;
+    private List<JsonPath> ignoredCompiled;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        expected = BenchmarkData.expectedRows(rows, shape);
+        actual = BenchmarkData.actualRows(expected);
+        expectedTrees = new JsonNode[rows];
+        actualTrees = new JsonNode[rows];
+        for (int i = 0; i < rows; i++) {
+            expectedTrees[i] = mapper.valueToTree(expected.get(i).get(BenchmarkData.JSON_COLUMN));
+            actualTrees[i] = JsonPath.parse(actual.get(i).get(BenchmarkData.JSON_COLUMN));
+        }
+        required = BenchmarkData.requiredPaths(shape);
+        ignored = BenchmarkData.ignoredPaths(shape);
+        requiredCompiled = JsonPath.compileAll(required);
+        ignoredCompiled = JsonPath.compileAll(ignored);
+    }
+
+    /** Full tree comparison of already parsed documents. */
+    @Benchmark
+    public void deepCompare(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(ValidationUtils.deepCompare(expectedTrees[i], actualTrees[i], ""));
+        }
+    }
+
+    /** Required-path lookups on the column text as read from the database, parsed on every call. */
+    @Benchmark
+    public void getNestedValue(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            Object json = actual.get(i).get(BenchmarkData.JSON_COLUMN);
+            for (String path : required) {
+                bh.consume(ValidationUtils.getNestedValue(json, path));
+            }
+        }
+    }
+
+    /** The standalone overload on the column text as read from the database: parses it and compiles the paths per call. */
+    @Benchmark
+    public void validateJsonColumn(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(ValidationUtils.validateJsonColumn(expected.get(i).get(BenchmarkData.JSON_COLUMN),
+                    actual.get(i).get(BenchmarkData.JSON_COLUMN), required, ignored));
+        }
+    }
+
+    /** Without required paths the column is deep compared as a whole. */
+    @Benchmark
+    public void validateJsonColumnFull(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(ValidationUtils.validateJsonColumn(expected.get(i).get(BenchmarkData.JSON_COLUMN),
+                    actual.get(i).get(BenchmarkData.JSON_COLUMN), null, null));
+        }
+    }
+
+    /** What the executor runs: fresh ParsedRows per scenario, paths compiled once by the ValidationPlan. */
+    @Benchmark
+    public void validateJsonColumnParsed(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            ParsedRow e = new ParsedRow(expected.get(i));
+            ParsedRow a = new ParsedRow(actual.get(i));
+            bh.consume(ValidationUtils.validateJsonColumn(e, a, BenchmarkData.JSON_COLUMN, requiredCompiled, ignoredCompiled));
+        }
+    }
+
+    /** Every scalar column of every row, with the type mix a database read produces (Integer vs BigDecimal, Long). */
+    @Benchmark
+    public void compareValues(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> e = expected.get(i);
+            Map<String, Object> a = actual.get(i);
+            for (String column : BenchmarkData.SCALAR_COLUMNS) {
+                bh.consume(ValidationUtils.compareValues(e.get(column), a.get(column)));
+            }
+        }
+    }
+
+    @Benchmark
+    public Object validateUniqueConstraints() {
+        return ValidationUtils.validateUniqueConstraints(actual, BenchmarkData.UNIQUE_CONSTRAINTS);
+    }
+}